@@ -40,6 +40,8 @@ public class Type1CharString
 	private Type1CharStringReader font;
 	private String fontName, glyphName;
 	private Path path = null;
+	// the number of points of the path, a curve has three
+	private int pointCount = 0;
 	private int width = 0;
 	private PointF leftSideBearing = null;
 	private PointF current = null;
@@ -82,13 +84,13 @@ public class Type1CharString
 	 * Returns the bounds of the renderer path.
 	 * @return the bounds as Rectangle2D
 	 */
-	public RectF getBounds()
+	public synchronized RectF getBounds()
 	{
 		if (path == null)
 		{
 			render();
 		}
-		RectF retval = null;
+		RectF retval = new RectF();
 		path.computeBounds(retval, true);
 		return retval;
 	}
@@ -97,7 +99,7 @@ public class Type1CharString
 	 * Returns the advance width of the glyph.
 	 * @return the width
 	 */
-	public int getWidth()
+	public synchronized int getWidth()
 	{
 		if (path == null)
 		{
@@ -108,9 +110,9 @@ public class Type1CharString
 
 	/**
 	 * Returns the path of the character.
-	 * @return the path
+	 * @return the path, which is shared and must not be modified
 	 */
-	public Path getPath()
+	public synchronized Path getPath()
 	{
 		if (path == null)
 		{
@@ -119,6 +121,20 @@ public class Type1CharString
 		return path;
 	}
 
+	/**
+	 * Returns the number of points of the path, which are counted when it's rendered. Each
+	 * moveto and lineto has one point and each curveto three.
+	 * @return the number of points
+	 */
+	public synchronized int getPointCount()
+	{
+		if (path == null)
+		{
+			render();
+		}
+		return pointCount;
+	}
+
 	/**
 	 * Returns the Type 1 char string sequence.
 	 * @return the Type 1 sequence
@@ -134,6 +150,7 @@ public class Type1CharString
 	private void render() 
 	{
 		path = new Path();
+		pointCount = 0;
 		leftSideBearing = new PointF(0, 0);
 		width = 0;
 		CharStringHandler handler = new CharStringHandler() {
@@ -393,6 +410,7 @@ public class Type1CharString
 		float x = current.x + dx.floatValue();
 		float y = current.y + dy.floatValue();
 		path.moveTo(x, y);
+		pointCount++;
 		current.set(x, y);
 	}
 
@@ -413,6 +431,7 @@ public class Type1CharString
 		{
 			path.lineTo(x, y);
 		}
+		pointCount++;
 		current.set(x, y);
 	}
 
@@ -433,10 +452,12 @@ public class Type1CharString
 		{
 			Log.w("PdfBox-Android", "rrcurveTo without initial moveTo in font " + fontName + ", glyph " + glyphName);
 			path.moveTo(x3, y3);
+			pointCount++;
 		}
 		else
 		{
 			path.cubicTo(x1, y1, x2, y2, x3, y3); // TODO: Should this be relative?
+			pointCount += 3;
 		}
 		current.set(x3, y3);
 	}
@@ -456,6 +477,7 @@ public class Type1CharString
 			path.close();
 		}
 		path.moveTo(current.x, current.y);
+		pointCount++;
 	}
 
 	/**
@@ -475,6 +497,7 @@ public class Type1CharString
 				Type1CharString base = font.getType1CharString(baseName);
 //				path.append(base.getPath().getPathIterator(null), false); TODO: check this
 				path.op(base.getPath(), Path.Op.UNION);
+				pointCount += base.getPointCount();
 			}
 			catch (IOException e)
 			{
@@ -493,6 +516,7 @@ public class Type1CharString
 						leftSideBearing.y + ady.floatValue());
 //				path.append(accent.getPath().getPathIterator(at), false); TODO: Check this
 				path.op(accent.getPath(), Path.Op.UNION);
+				pointCount += accent.getPointCount();
 			}
 			catch (IOException e)
 			{
@@ -22,13 +22,14 @@ import android.graphics.RectF;
 import android.util.Log;
 
 import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
+import com.tom_roush.pdfbox.contentstream.operator.OperatorHandler;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.contentstream.operator.state.EmptyGraphicsStackException;
 import com.tom_roush.pdfbox.cos.COSArray;
 import com.tom_roush.pdfbox.cos.COSBase;
 import com.tom_roush.pdfbox.cos.COSNumber;
-import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSString;
 import com.tom_roush.pdfbox.filter.MissingImageReaderException;
 import com.tom_roush.pdfbox.pdfparser.PDFStreamParser;
@@ -55,7 +56,6 @@ import com.tom_roush.pdfbox.util.Vector;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -446,26 +446,16 @@ public abstract class PDFStreamEngine
 	 */
 	private void processStreamOperators(PDContentStream contentStream) throws IOException
 	{
-		List<COSBase> arguments = new ArrayList<COSBase>();
         PDFStreamParser parser = new PDFStreamParser(contentStream);
-        Object token = parser.parseNextToken();
-        while (token != null)
+        parser.parse(new OperatorHandler()
         {
-            if (token instanceof COSObject)
+            @Override
+            public void processOperator(Operator operator, OperandList operands)
+                throws IOException
             {
-                arguments.add(((COSObject) token).getObject());
+                PDFStreamEngine.this.processOperator(operator, operands);
             }
-            else if (token instanceof Operator)
-            {
-                processOperator((Operator) token, arguments);
-                arguments = new ArrayList<COSBase>();
-            }
-            else
-            {
-                arguments.add((COSBase) token);
-            }
-            token = parser.parseNextToken();
-        }
+        });
     }
 
 	/**
@@ -783,7 +773,8 @@ public abstract class PDFStreamEngine
 	 * This is used to handle an operation.
 	 * 
 	 * @param operator The operation to perform.
-	 * @param operands The list of arguments.
+	 * @param operands The list of arguments. When processing a content stream this is an
+	 * {@link OperandList} which is reused for the next operator, so it must not be kept.
 	 * @throws IOException If there is an error processing the operation.
 	 */
 	protected void processOperator(Operator operator, List<COSBase> operands) throws IOException
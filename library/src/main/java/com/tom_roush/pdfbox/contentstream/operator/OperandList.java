@@ -0,0 +1,180 @@
+package com.tom_roush.pdfbox.contentstream.operator;
+
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSNumber;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The operands of a content stream operator, as passed to an {@link OperatorHandler}. The list is
+ * reused for all operators of a content stream, so it must not be kept after the operator has
+ * been processed.
+ *
+ * Numbers are stored as primitive values. They can be read with {@link #getFloat(int)} and
+ * {@link #getInt(int)} without creating any object, a COSNumber is only created if the operand
+ * is accessed using {@link #get(int)}.
+ */
+public final class OperandList extends AbstractList<COSBase> implements RandomAccess
+{
+    private static final byte OBJECT = 0;
+    private static final byte INTEGER = 1;
+    private static final byte REAL = 2;
+
+    private COSBase[] objects = new COSBase[8];
+    private double[] numbers = new double[8];
+    private byte[] types = new byte[8];
+    private int size;
+
+    /**
+     * Creates an empty operand list.
+     */
+    public OperandList()
+    {
+    }
+
+    private void ensureCapacity()
+    {
+        if (size == objects.length)
+        {
+            objects = Arrays.copyOf(objects, size * 2);
+            numbers = Arrays.copyOf(numbers, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+        }
+    }
+
+    /**
+     * Appends a number operand without creating a COSNumber.
+     *
+     * @param value the value of the number
+     * @param isInteger true if the number is an integer, false if it is a real number
+     */
+    public void addNumber(double value, boolean isInteger)
+    {
+        ensureCapacity();
+        objects[size] = null;
+        numbers[size] = value;
+        types[size] = isInteger ? INTEGER : REAL;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Appends an operand. Only appending at the end of the list is supported.
+     *
+     * @param index the index of the new operand, which has to be the size of the list
+     * @param element the operand to be added, may be null
+     */
+    @Override
+    public void add(int index, COSBase element)
+    {
+        if (index != size)
+        {
+            throw new UnsupportedOperationException("Operands can only be appended");
+        }
+        ensureCapacity();
+        objects[size] = element;
+        types[size] = OBJECT;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public COSBase get(int index)
+    {
+        checkIndex(index);
+        COSBase object = objects[index];
+        if (object == null && types[index] != OBJECT)
+        {
+            if (types[index] == INTEGER)
+            {
+                object = COSInteger.get((long) numbers[index]);
+            }
+            else
+            {
+                object = new COSFloat(numbers[index]);
+            }
+            objects[index] = object;
+        }
+        return object;
+    }
+
+    /**
+     * Tells if the operand at the given index is a number.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a number
+     */
+    public boolean isNumber(int index)
+    {
+        checkIndex(index);
+        return types[index] != OBJECT || objects[index] instanceof COSNumber;
+    }
+
+    /**
+     * Returns the float value of a number operand.
+     *
+     * @param index the index of the operand
+     * @return the float value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public float getFloat(int index)
+    {
+        checkIndex(index);
+        switch (types[index])
+        {
+            case INTEGER:
+                return (float) (long) numbers[index];
+            case REAL:
+                return (float) numbers[index];
+            default:
+                return ((COSNumber) objects[index]).floatValue();
+        }
+    }
+
+    /**
+     * Returns the int value of a number operand.
+     *
+     * @param index the index of the operand
+     * @return the int value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    public int getInt(int index)
+    {
+        checkIndex(index);
+        switch (types[index])
+        {
+            case INTEGER:
+                return (int) (long) numbers[index];
+            case REAL:
+                return (int) numbers[index];
+            default:
+                return ((COSNumber) objects[index]).intValue();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
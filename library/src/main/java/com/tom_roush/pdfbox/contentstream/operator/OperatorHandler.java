@@ -0,0 +1,19 @@
+package com.tom_roush.pdfbox.contentstream.operator;
+
+import java.io.IOException;
+
+/**
+ * Receives the operators of a content stream from
+ * {@link com.tom_roush.pdfbox.pdfparser.PDFStreamParser#parse(OperatorHandler)}.
+ */
+public interface OperatorHandler
+{
+    /**
+     * Called for each operator of the content stream.
+     *
+     * @param operator the operator
+     * @param operands the operands of the operator, which are only valid until this method returns
+     * @throws IOException if the operator can't be processed
+     */
+    void processOperator(Operator operator, OperandList operands) throws IOException;
+}
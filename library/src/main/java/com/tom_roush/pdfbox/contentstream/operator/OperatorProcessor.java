@@ -1,6 +1,7 @@
 package com.tom_roush.pdfbox.contentstream.operator;
 
 import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.contentstream.PDFStreamEngine;
 import java.util.List;
 import java.io.IOException;
@@ -48,6 +49,24 @@ public abstract class OperatorProcessor
      */
     public abstract void process(Operator operator, List<COSBase> operands) throws IOException;
 
+    /**
+     * Returns the float value of a number operand. Operands coming from the content stream parser
+     * are read without creating a COSNumber.
+     *
+     * @param operands the operands of the operator
+     * @param index the index of the number operand
+     * @return the float value of the operand
+     * @throws ClassCastException if the operand isn't a number
+     */
+    protected static float getFloat(List<COSBase> operands, int index)
+    {
+        if (operands instanceof OperandList)
+        {
+            return ((OperandList) operands).getFloat(index);
+        }
+        return ((COSNumber) operands.get(index)).floatValue();
+    }
+
     /**
      * Returns the name of this operator, e.g. "BI".
      */
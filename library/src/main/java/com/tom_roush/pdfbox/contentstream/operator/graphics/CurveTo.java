@@ -5,7 +5,6 @@ import android.util.Log;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 import java.io.IOException;
 import java.util.List;
@@ -20,16 +19,9 @@ public class CurveTo extends GraphicsOperatorProcessor
     @Override
     public void process(Operator operator, List<COSBase> operands) throws IOException
     {
-        COSNumber x1 = (COSNumber) operands.get(0);
-        COSNumber y1 = (COSNumber) operands.get(1);
-        COSNumber x2 = (COSNumber) operands.get(2);
-        COSNumber y2 = (COSNumber) operands.get(3);
-        COSNumber x3 = (COSNumber) operands.get(4);
-        COSNumber y3 = (COSNumber) operands.get(5);
-
-        PointF point1 = context.transformedPoint(x1.floatValue(), y1.floatValue());
-        PointF point2 = context.transformedPoint(x2.floatValue(), y2.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point1 = context.transformedPoint(getFloat(operands, 0), getFloat(operands, 1));
+        PointF point2 = context.transformedPoint(getFloat(operands, 2), getFloat(operands, 3));
+        PointF point3 = context.transformedPoint(getFloat(operands, 4), getFloat(operands, 5));
 
         if (context.getCurrentPoint() == null)
         {
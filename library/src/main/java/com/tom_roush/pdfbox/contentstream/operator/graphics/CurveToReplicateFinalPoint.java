@@ -5,7 +5,6 @@ import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 import android.graphics.PointF;
 
@@ -19,13 +18,8 @@ public final class CurveToReplicateFinalPoint extends GraphicsOperatorProcessor
     @Override
     public void process(Operator operator, List<COSBase> operands) throws IOException
     {
-        COSNumber x1 = (COSNumber)operands.get(0);
-        COSNumber y1 = (COSNumber)operands.get(1);
-        COSNumber x3 = (COSNumber)operands.get(2);
-        COSNumber y3 = (COSNumber)operands.get(3);
-
-        PointF point1 = context.transformedPoint(x1.floatValue(), y1.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point1 = context.transformedPoint(getFloat(operands, 0), getFloat(operands, 1));
+        PointF point3 = context.transformedPoint(getFloat(operands, 2), getFloat(operands, 3));
 
         context.curveTo(point1.x, point1.y,
                         point3.x, point3.y,
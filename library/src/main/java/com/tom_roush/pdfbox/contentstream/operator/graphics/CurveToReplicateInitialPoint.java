@@ -5,7 +5,6 @@ import android.util.Log;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 import java.io.IOException;
 import java.util.List;
@@ -20,15 +19,10 @@ public class CurveToReplicateInitialPoint extends GraphicsOperatorProcessor
     @Override
     public void process(Operator operator, List<COSBase> operands) throws IOException
     {
-        COSNumber x2 = (COSNumber) operands.get(0);
-        COSNumber y2 = (COSNumber) operands.get(1);
-        COSNumber x3 = (COSNumber) operands.get(2);
-        COSNumber y3 = (COSNumber) operands.get(3);
-
         PointF currentPoint = context.getCurrentPoint();
 
-        PointF point2 = context.transformedPoint(x2.floatValue(), y2.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point2 = context.transformedPoint(getFloat(operands, 0), getFloat(operands, 1));
+        PointF point3 = context.transformedPoint(getFloat(operands, 2), getFloat(operands, 3));
 
         if (currentPoint == null)
         {
@@ -5,7 +5,6 @@ import android.util.Log;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 import java.io.IOException;
 import java.util.List;
@@ -21,10 +20,7 @@ public class LineTo extends GraphicsOperatorProcessor
     public void process(Operator operator, List<COSBase> operands) throws IOException
     {
         // append straight line segment from the current point to the point
-        COSNumber x = (COSNumber) operands.get(0);
-        COSNumber y = (COSNumber) operands.get(1);
-
-        PointF pos = context.transformedPoint(x.floatValue(), y.floatValue());
+        PointF pos = context.transformedPoint(getFloat(operands, 0), getFloat(operands, 1));
 
         if (context.getCurrentPoint() == null)
         {
@@ -5,7 +5,6 @@ import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 import android.graphics.PointF;
 
@@ -19,9 +18,7 @@ public final class MoveTo extends GraphicsOperatorProcessor
     @Override
     public void process(Operator operator, List<COSBase> operands) throws IOException
     {
-        COSNumber x = (COSNumber)operands.get(0);
-        COSNumber y = (COSNumber)operands.get(1);
-        PointF pos = context.transformedPoint(x.floatValue(), y.floatValue());
+        PointF pos = context.transformedPoint(getFloat(operands, 0), getFloat(operands, 1));
         context.moveTo(pos.x, pos.y);
     }
 
@@ -4,7 +4,6 @@ import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.util.Matrix;
 
 import java.io.IOException;
@@ -26,15 +25,9 @@ public class Concatenate extends OperatorProcessor
         }
 
         // concatenate matrix to current transformation matrix
-        COSNumber a = (COSNumber) arguments.get(0);
-        COSNumber b = (COSNumber) arguments.get(1);
-        COSNumber c = (COSNumber) arguments.get(2);
-        COSNumber d = (COSNumber) arguments.get(3);
-        COSNumber e = (COSNumber) arguments.get(4);
-        COSNumber f = (COSNumber) arguments.get(5);
-
-        Matrix matrix = new Matrix(a.floatValue(), b.floatValue(), c.floatValue(),
-                d.floatValue(), e.floatValue(), f.floatValue());
+        Matrix matrix = new Matrix(getFloat(arguments, 0), getFloat(arguments, 1),
+                getFloat(arguments, 2), getFloat(arguments, 3),
+                getFloat(arguments, 4), getFloat(arguments, 5));
 
         context.getGraphicsState().getCurrentTransformationMatrix().concatenate(matrix);
     }
@@ -6,7 +6,6 @@ import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.util.Matrix;
 
 import java.util.List;
@@ -32,9 +31,7 @@ public class MoveText extends OperatorProcessor
             return;
         }
 
-        COSNumber x = (COSNumber) arguments.get(0);
-        COSNumber y = (COSNumber) arguments.get(1);
-        Matrix matrix = new Matrix(1, 0, 0, 1, x.floatValue(), y.floatValue());
+        Matrix matrix = new Matrix(1, 0, 0, 1, getFloat(arguments, 0), getFloat(arguments, 1));
         textLineMatrix.concatenate(matrix);
         context.setTextMatrix(textLineMatrix.clone());
     }
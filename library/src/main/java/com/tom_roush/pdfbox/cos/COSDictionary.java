@@ -3,12 +3,12 @@ package com.tom_roush.pdfbox.cos;
 import java.io.IOException;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
 import com.tom_roush.pdfbox.pdmodel.common.COSObjectable;
 import com.tom_roush.pdfbox.util.DateConverter;
+import com.tom_roush.pdfbox.util.SmallMap;
 
 /**
  * This class represents a dictionary where name/value pairs reside.
@@ -22,9 +22,10 @@ public class COSDictionary extends COSBase implements COSUpdateInfo
 
 	/**
 	 * The name-value pairs of this dictionary. The pairs are kept in the
-	 * order they were added to the dictionary.
+	 * order they were added to the dictionary. Most dictionaries are small, so that the pairs
+	 * are kept in a flat array until the dictionary grows.
 	 */
-	protected Map<COSName, COSBase> items = new LinkedHashMap<COSName, COSBase>();
+	protected Map<COSName, COSBase> items = new SmallMap<COSName, COSBase>();
 
 	/**
 	 * Constructor.
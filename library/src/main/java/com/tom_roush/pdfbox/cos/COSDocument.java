@@ -2,6 +2,7 @@ package com.tom_roush.pdfbox.cos;
 
 import android.util.Log;
 
+import com.tom_roush.pdfbox.io.PositionalRandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
 import com.tom_roush.pdfbox.pdfparser.PDFObjectStreamParser;
 
@@ -34,8 +35,7 @@ public class COSDocument extends COSBase implements Closeable
 	/**
 	 * Maps object and generation id to object byte offsets.
 	 */
-	private final Map<COSObjectKey, Long> xrefTable =
-			new HashMap<COSObjectKey, Long>();
+	private final XrefTable xrefTable = new XrefTable();
 
 	/**
 	 * Document trailer dictionary.
@@ -57,6 +57,11 @@ public class COSDocument extends COSBase implements Closeable
 
     private ScratchFile scratchFile;
 
+    /**
+     * Parser used to dereference objects on demand, only set when loading lazily.
+     */
+    private ICOSParser parser;
+
 	/**
 	 * Constructor.
 	 *
@@ -139,6 +144,37 @@ public class COSDocument extends COSBase implements Closeable
         return stream;
     }
 
+    /**
+     * Creates a new COSStream whose encoded data is read from the given view of the source file
+     * instead of being copied. Not for public use. Only COSParser should call this method.
+     *
+     * @param dictionary the corresponding dictionary
+     * @param streamData view of the encoded stream data within the source file
+     * @return the new COSStream
+     */
+    public COSStream createCOSStream(COSDictionary dictionary,
+        PositionalRandomAccessRead streamData)
+    {
+        COSStream stream = new COSStream(scratchFile, streamData);
+        for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet())
+        {
+            stream.setItem(entry.getKey(), entry.getValue());
+        }
+        return stream;
+    }
+
+    /**
+     * Sets the parser which is attached to all object proxies created by
+     * {@link #getObjectFromPool(COSObjectKey)} so that they are parsed on first access.
+     * Not for public use. Only COSParser should call this method.
+     *
+     * @param parser the parser to be used for lazy dereferencing, or null to disable it
+     */
+    public void setParser(ICOSParser parser)
+    {
+        this.parser = parser;
+    }
+
 	/**
 	 * This will get the first dictionary object by type.
 	 *
@@ -151,6 +187,11 @@ public class COSDocument extends COSBase implements Closeable
 	{
 		for( COSObject object : objectPool.values() )
 		{
+			// only look at objects which are already parsed
+			if (object.isObjectNull())
+			{
+				continue;
+			}
 			COSBase realObject = object.getObject();
 			if( realObject instanceof COSDictionary )
 			{
@@ -206,6 +247,11 @@ public class COSDocument extends COSBase implements Closeable
 		List<COSObject> retval = new ArrayList<COSObject>();
 		for( COSObject object : objectPool.values() )
 		{
+			// only look at objects which are already parsed
+			if (object.isObjectNull())
+			{
+				continue;
+			}
 			COSBase realObject = object.getObject();
 			if( realObject instanceof COSDictionary )
 			{
@@ -246,7 +292,7 @@ public class COSDocument extends COSBase implements Closeable
     {
         for (Map.Entry<COSObjectKey, COSObject> entry : objectPool.entrySet())
         {
-            if (entry.getValue().getObject() == object)
+            if (!entry.getValue().isObjectNull() && entry.getValue().getObject() == object)
             {
                 return entry.getKey();
             }
@@ -440,6 +486,11 @@ public class COSDocument extends COSBase implements Closeable
 			{
 				for (COSObject object : list) 
 				{
+					if (object.isObjectNull())
+					{
+						// don't parse an object just to close it
+						continue;
+					}
 					COSBase cosObject = object.getObject();
 					if (cosObject instanceof COSStream)
 					{
@@ -511,10 +562,9 @@ public class COSDocument extends COSBase implements Closeable
             for (COSObject next : parser.getObjects())
             {
                 COSObjectKey key = new COSObjectKey(next);
-                if (objectPool.get(key) == null || objectPool.get(key).getObject() == null
+                if (objectPool.get(key) == null || objectPool.get(key).isObjectNull()
                     // xrefTable stores negated objNr of objStream for objects in objStreams
-                    || (xrefTable.containsKey(key) &&
-                    xrefTable.get(key) == -objStream.getObjectNumber()))
+                    || xrefTable.getOffset(key) == -objStream.getObjectNumber())
                 {
                     COSObject obj = getObjectFromPool(key);
                     obj.setObject(next.getObject());
@@ -542,7 +592,7 @@ public class COSDocument extends COSBase implements Closeable
 		if (obj == null)
 		{
 			// this was a forward reference, make "proxy" object
-			obj = new COSObject(null);
+			obj = new COSObject(null, key != null ? parser : null);
 			if( key != null )
 			{
 				obj.setObjectNumber(key.getNumber());
@@ -564,7 +614,7 @@ public class COSDocument extends COSBase implements Closeable
 	}
 
 	/**
-	 * Populate XRef HashMap with given values.
+	 * Populate XRef table with given values.
 	 * Each entry maps ObjectKeys to byte offsets in the file.
 	 * @param xrefTableValues  xref table entries to be added
 	 */
@@ -578,7 +628,7 @@ public class COSDocument extends COSBase implements Closeable
 	 * to byte offsets in the file.
 	 * @return mapping of ObjectsKeys to byte offsets
 	 */
-	public Map<COSObjectKey, Long> getXrefTable()
+	public XrefTable getXrefTable()
 	{
 		return xrefTable;
 	}
@@ -1,5 +1,7 @@
 package com.tom_roush.pdfbox.cos;
 
+import com.tom_roush.pdfbox.util.NumberFormatUtil;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
@@ -11,8 +13,9 @@ import java.math.BigDecimal;
  */
 public class COSFloat extends COSNumber
 {
-    private BigDecimal value;
-    private String valueAsString;
+    private final double value;
+    // true if created from a float, which is written with float precision
+    private final boolean isFloat;
 
     /**
      * Constructor.
@@ -21,10 +24,19 @@ public class COSFloat extends COSNumber
      */
     public COSFloat( float aFloat )
     {
-    	// use a BigDecimal as intermediate state to avoid
-    	// a floating point string representation of the float value
-    	value = new BigDecimal(String.valueOf(aFloat));
-    	valueAsString = removeNullDigits(value.toPlainString());
+        value = aFloat;
+        isFloat = true;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param aDouble The primitive double value that this object wraps.
+     */
+    public COSFloat( double aDouble )
+    {
+        value = aDouble;
+        isFloat = false;
     }
 
     /**
@@ -38,8 +50,23 @@ public class COSFloat extends COSNumber
     {
         try
         {
-            valueAsString = aFloat; 
-            value = new BigDecimal( valueAsString );
+            // Double.parseDouble accepts more than a PDF number, e.g. "NaN" or "1d"
+            for (int i = 0; i < aFloat.length(); i++)
+            {
+                char c = aFloat.charAt(i);
+                if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E')
+                {
+                    throw new NumberFormatException(aFloat);
+                }
+            }
+            double parsed = Double.parseDouble( aFloat );
+            if (Double.isInfinite(parsed))
+            {
+                // out of range, clamp it to the largest float like PDFBox does
+                parsed = Math.copySign(Float.MAX_VALUE, parsed);
+            }
+            value = parsed;
+            isFloat = false;
         }
         catch( NumberFormatException e )
         {
@@ -60,6 +87,29 @@ public class COSFloat extends COSNumber
         return plainStringValue;
     }
 
+    /**
+     * Returns the shortest plain string representation of the value, which is parsed to the very
+     * same value again.
+     */
+    private String toPlainString()
+    {
+        if (value == 0)
+        {
+            // avoid "-0.0"
+            return "0.0";
+        }
+        double abs = Math.abs(value);
+        String string = isFloat ? Float.toString((float) value) : Double.toString(value);
+        if (abs >= 1e-3 && abs < 1e7)
+        {
+            // Float.toString and Double.toString don't use the scientific notation in this range
+            return string;
+        }
+        // use a BigDecimal as intermediate state to avoid
+        // a floating point string representation of the float value
+        return removeNullDigits(new BigDecimal(string).toPlainString());
+    }
+
     /**
      * The value of the float object that this one wraps.
      *
@@ -68,18 +118,24 @@ public class COSFloat extends COSNumber
     @Override
     public float floatValue()
     {
-        return value.floatValue();
+        return (float) value;
     }
 
     /**
-     * The value of the double object that this one wraps.
+     * The value of the double object that this one wraps. The value of an object created from a
+     * float is the double closest to the shortest decimal representation of that float.
      *
      * @return The double of this object.
      */
     @Override
     public double doubleValue()
     {
-        return value.doubleValue();
+        if (isFloat)
+        {
+            // the widened float would add some more fraction digits
+            return NumberFormatUtil.toShortestDouble((float) value);
+        }
+        return value;
     }
 
     /**
@@ -90,7 +146,7 @@ public class COSFloat extends COSNumber
     @Override
     public long longValue()
     {
-        return value.longValue();
+        return (long) value;
     }
 
     /**
@@ -101,7 +157,7 @@ public class COSFloat extends COSNumber
     @Override
     public int intValue()
     {
-        return value.intValue();
+        return (int) value;
     }
 
     /**
@@ -111,7 +167,7 @@ public class COSFloat extends COSNumber
     public boolean equals( Object o )
     {
         return o instanceof COSFloat &&
-        		Float.floatToIntBits(((COSFloat)o).value.floatValue()) == Float.floatToIntBits(value.floatValue());
+        		Float.floatToIntBits(((COSFloat)o).floatValue()) == Float.floatToIntBits(floatValue());
     }
 
     /**
@@ -120,7 +176,7 @@ public class COSFloat extends COSNumber
     @Override
     public int hashCode()
     {
-        return value.hashCode();
+        return Float.floatToIntBits(floatValue());
     }
 
     /**
@@ -129,7 +185,7 @@ public class COSFloat extends COSNumber
     @Override
     public String toString()
     {
-        return "COSFloat{" + valueAsString + "}";
+        return "COSFloat{" + toPlainString() + "}";
     }
 
     /**
@@ -153,6 +209,16 @@ public class COSFloat extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(valueAsString.getBytes("ISO-8859-1"));
+        byte[] buffer = NumberFormatUtil.getThreadBuffer();
+        int length = isFloat ? NumberFormatUtil.formatFloatShortest((float) value, buffer)
+            : NumberFormatUtil.formatDoubleShortest(value, buffer);
+        if (length < 0)
+        {
+            output.write(toPlainString().getBytes("ISO-8859-1"));
+        }
+        else
+        {
+            output.write(buffer, 0, length);
+        }
     }
 }
\ No newline at end of file
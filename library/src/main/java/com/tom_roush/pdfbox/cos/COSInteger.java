@@ -1,5 +1,7 @@
 package com.tom_roush.pdfbox.cos;
 
+import com.tom_roush.pdfbox.util.NumberFormatUtil;
+
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -179,7 +181,8 @@ public final class COSInteger extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(String.valueOf(value).getBytes("ISO-8859-1"));
+        byte[] buffer = NumberFormatUtil.getThreadBuffer();
+        output.write(buffer, 0, NumberFormatUtil.formatLong(value, buffer));
     }
 
 }
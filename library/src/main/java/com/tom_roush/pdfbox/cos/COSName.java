@@ -7,6 +7,7 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A PDF Name object.
@@ -530,6 +531,18 @@ public final class COSName extends COSBase implements Comparable<COSName>
 	public static final COSName Y_STEP = new COSName("YStep");
     public static final COSName YES = new COSName("Yes");
 
+	// open addressing table mapping the raw bytes of parsed names to COSName objects, it is read
+	// without locking and only written when holding BYTE_TABLE_LOCK
+	private static final Object BYTE_TABLE_LOCK = new Object();
+	private static volatile AtomicReferenceArray<NameEntry> byteTable;
+	private static int byteTableSize;
+
+	static
+	{
+		// has to run after all constants were added to the commonNameMap
+		resetByteTable();
+	}
+
 	// fields
 	private final String name;
 	private final int hashCode;
@@ -562,6 +575,153 @@ public final class COSName extends COSBase implements Comparable<COSName>
 		return name;
 	}
 
+	/**
+	 * This will get a COSName object for the given raw bytes of a name, as read from a PDF. The
+	 * bytes are decoded as UTF-8. Names which were looked up before are found without creating
+	 * any object.
+	 *
+	 * @param bytes the buffer containing the name without the leading slash
+	 * @param offset the start of the name
+	 * @param length the length of the name
+	 *
+	 * @return A COSName with the specified name.
+	 */
+	public static COSName getPDFName(byte[] bytes, int offset, int length)
+	{
+		int hash = hash(bytes, offset, length);
+		COSName name = findName(byteTable, bytes, offset, length, hash);
+		if (name == null)
+		{
+			name = getPDFName(new String(bytes, offset, length, Charsets.UTF_8));
+			synchronized (BYTE_TABLE_LOCK)
+			{
+				if (findName(byteTable, bytes, offset, length, hash) == null)
+				{
+					byte[] key = new byte[length];
+					System.arraycopy(bytes, offset, key, 0, length);
+					addToByteTable(new NameEntry(key, hash, name));
+				}
+			}
+		}
+		return name;
+	}
+
+	private static int hash(byte[] bytes, int offset, int length)
+	{
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++)
+		{
+			hash = 31 * hash + (bytes[i] & 0xff);
+		}
+		// spread the bits, the table index uses the lower bits only
+		return hash ^ (hash >>> 16);
+	}
+
+	private static COSName findName(AtomicReferenceArray<NameEntry> table, byte[] bytes,
+		int offset, int length, int hash)
+	{
+		int mask = table.length() - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask)
+		{
+			NameEntry entry = table.get(i);
+			if (entry == null)
+			{
+				return null;
+			}
+			if (entry.hash == hash && entry.matches(bytes, offset, length))
+			{
+				return entry.name;
+			}
+		}
+	}
+
+	/**
+	 * Adds an entry to the byte table, the caller has to hold BYTE_TABLE_LOCK.
+	 */
+	private static void addToByteTable(NameEntry entry)
+	{
+		AtomicReferenceArray<NameEntry> table = byteTable;
+		if ((byteTableSize + 1) * 2 > table.length())
+		{
+			// keep the load factor below 0.5, readers keep on using the old table meanwhile
+			AtomicReferenceArray<NameEntry> newTable =
+				new AtomicReferenceArray<NameEntry>(table.length() * 2);
+			for (int i = 0; i < table.length(); i++)
+			{
+				NameEntry oldEntry = table.get(i);
+				if (oldEntry != null)
+				{
+					insert(newTable, oldEntry);
+				}
+			}
+			table = newTable;
+			byteTable = newTable;
+		}
+		insert(table, entry);
+		byteTableSize++;
+	}
+
+	private static void insert(AtomicReferenceArray<NameEntry> table, NameEntry entry)
+	{
+		int mask = table.length() - 1;
+		int i = entry.hash & mask;
+		while (table.get(i) != null)
+		{
+			i = (i + 1) & mask;
+		}
+		table.set(i, entry);
+	}
+
+	/**
+	 * Fills the byte table with the common names only.
+	 */
+	private static void resetByteTable()
+	{
+		synchronized (BYTE_TABLE_LOCK)
+		{
+			byteTable = new AtomicReferenceArray<NameEntry>(1024);
+			byteTableSize = 0;
+			for (COSName name : commonNameMap.values())
+			{
+				byte[] key = name.getName().getBytes(Charsets.UTF_8);
+				addToByteTable(new NameEntry(key, hash(key, 0, key.length), name));
+			}
+		}
+	}
+
+	/**
+	 * An entry of the byte table.
+	 */
+	private static final class NameEntry
+	{
+		private final byte[] bytes;
+		private final int hash;
+		private final COSName name;
+
+		private NameEntry(byte[] bytes, int hash, COSName name)
+		{
+			this.bytes = bytes;
+			this.hash = hash;
+			this.name = name;
+		}
+
+		private boolean matches(byte[] other, int offset, int length)
+		{
+			if (bytes.length != length)
+			{
+				return false;
+			}
+			for (int i = 0; i < length; i++)
+			{
+				if (bytes[i] != other[offset + i])
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	/**
 	 * Private constructor. This will limit the number of COSName objects. that are created.
 	 * 
@@ -686,5 +846,6 @@ public final class COSName extends COSBase implements Comparable<COSName>
 	{
 		// Clear them all
 		nameMap.clear();
+		resetByteTable();
 	}
 }
@@ -2,6 +2,8 @@ package com.tom_roush.pdfbox.cos;
 
 import java.io.IOException;
 
+import static com.tom_roush.pdfbox.util.Charsets.ISO_8859_1;
+
 /**
  * This class represents an abstract number in a PDF document.
  *
@@ -22,6 +24,14 @@ public abstract class COSNumber extends COSBase
 	@Deprecated
     public static final COSInteger ONE = COSInteger.ONE;
 
+    // powers of ten which are exactly representable as double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // mantissas up to 2^53 are exactly representable as double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
     /**
      * This will get the float value of this number.
      *
@@ -98,4 +108,101 @@ public abstract class COSNumber extends COSBase
             return new COSFloat(number);
         }
     }
+
+    /**
+     * This factory method will get the appropriate number object from the bytes of a number
+     * token. Plain integers and decimal numbers which can be converted exactly are converted
+     * without creating any intermediate object, all other tokens are handed over to
+     * {@link #get(String)}.
+     *
+     * @param bytes the buffer containing the number token
+     * @param offset the start of the token
+     * @param length the length of the token
+     *
+     * @return A number object, either float or int.
+     *
+     * @throws IOException If the bytes don't represent a number.
+     */
+    public static COSNumber get(byte[] bytes, int offset, int length) throws IOException
+    {
+        double value = parseDecimal(bytes, offset, length);
+        if (Double.isNaN(value))
+        {
+            return get(new String(bytes, offset, length, ISO_8859_1));
+        }
+        for (int i = offset; i < offset + length; i++)
+        {
+            if (bytes[i] == '.')
+            {
+                return new COSFloat(value);
+            }
+        }
+        return COSInteger.get((long) value);
+    }
+
+    /**
+     * Converts the bytes of a plain integer or decimal number token to a double without creating
+     * any object. Only tokens which can be converted exactly this way are supported, which are
+     * almost all numbers found in content streams.
+     *
+     * @param bytes the buffer containing the number token
+     * @param offset the start of the token
+     * @param length the length of the token
+     *
+     * @return the value of the token, or {@link Double#NaN} if it has to be converted with
+     * {@link #get(String)}.
+     */
+    public static double parseDecimal(byte[] bytes, int offset, int length)
+    {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+'))
+        {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int scale = -1;
+        for (; i < end; i++)
+        {
+            int c = bytes[i];
+            if (c >= '0' && c <= '9')
+            {
+                digits++;
+                if (mantissa != 0 || c != '0')
+                {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (scale >= 0)
+                {
+                    scale++;
+                }
+                if (significantDigits > 18)
+                {
+                    // the mantissa may overflow
+                    return Double.NaN;
+                }
+            }
+            else if (c == '.' && scale < 0)
+            {
+                scale = 0;
+            }
+            else
+            {
+                // exponents, misplaced signs etc.
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length)
+        {
+            return Double.NaN;
+        }
+        // both operands are exact, so the quotient is correctly rounded
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
 }
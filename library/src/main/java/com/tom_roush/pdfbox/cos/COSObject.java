@@ -1,6 +1,9 @@
 package com.tom_roush.pdfbox.cos;
 
+import android.util.Log;
+
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 /**
  * This class represents a PDF object.
@@ -13,6 +16,12 @@ public class COSObject extends COSBase implements COSUpdateInfo
     private long objectNumber;
     private int generationNumber;
     private boolean needToBeUpdated;
+    // cleared after dereferencing, volatile to publish the parsed object to other threads
+    private volatile ICOSParser parser;
+    // the evicted object, which is encapsulated again as long as it is referenced elsewhere
+    private WeakReference<COSBase> evictedObject;
+    // set by each access, to find the objects which weren't used recently
+    private boolean accessed;
 
     /**
      * Constructor.
@@ -26,6 +35,20 @@ public class COSObject extends COSBase implements COSUpdateInfo
         setObject( object );
     }
 
+    /**
+     * Constructor for a proxy object which is resolved on first access.
+     *
+     * @param object The object that this encapsulates, may be null.
+     * @param parser The parser used to dereference the object if it is null.
+     *
+     * @throws IOException If there is an error with the object passed in.
+     */
+    public COSObject( COSBase object, ICOSParser parser ) throws IOException
+    {
+        setObject( object );
+        this.parser = parser;
+    }
+
     /**
      * This will get the dictionary object in this object that has the name key and
      * if it is a pdfobjref then it will dereference that and return it.
@@ -62,15 +85,44 @@ public class COSObject extends COSBase implements COSUpdateInfo
     }
 
     /**
-     * This will get the object that this object encapsulates.
+     * This will get the object that this object encapsulates. If the object wasn't parsed so far
+     * and a parser is attached, it is dereferenced now.
      *
      * @return The encapsulated object.
      */
     public COSBase getObject()
     {
+        accessed = true;
+        ICOSParser lazyParser = parser;
+        if (lazyParser != null)
+        {
+            // the parser serializes concurrent calls and returns the object parsed by another
+            // thread, so it is safe to dereference the object more than once
+            try
+            {
+                baseObject = lazyParser.dereferenceCOSObject(this);
+            }
+            catch (IOException e)
+            {
+                Log.e("PdfBox-Android", "Can't dereference " + this, e);
+            }
+            // a broken object shall not be parsed over and over again
+            parser = null;
+        }
         return baseObject;
     }
 
+    /**
+     * Indicates if the encapsulated object is not available yet. Contrary to {@link #getObject()}
+     * this doesn't trigger the parsing of the object.
+     *
+     * @return true if the object wasn't parsed or set so far
+     */
+    public boolean isObjectNull()
+    {
+        return baseObject == null;
+    }
+
     /**
      * This will set the object that this object encapsulates.
      *
@@ -81,6 +133,70 @@ public class COSObject extends COSBase implements COSUpdateInfo
     public final void setObject( COSBase object ) throws IOException
     {
         baseObject = object;
+        evictedObject = null;
+        if (object != null)
+        {
+            // nothing left to dereference
+            parser = null;
+        }
+    }
+
+    /**
+     * Drops the encapsulated object, so that it is dereferenced by the given parser on the next
+     * access. The object is only referenced weakly afterwards: as long as it's still referenced
+     * elsewhere, e.g. by a PD wrapper or another object, it is encapsulated again and keeps its
+     * identity, otherwise it's parsed again. Objects which have been marked as updated and streams
+     * whose data has been replaced are kept. Other modifications of objects which aren't
+     * referenced elsewhere are lost, so this must only be used for documents which are read.
+     *
+     * @param parser the parser to be used to dereference the object again
+     * @return true if the object was dropped
+     */
+    public boolean evict(ICOSParser parser)
+    {
+        COSBase object = baseObject;
+        if (object == null || needToBeUpdated
+            || object instanceof COSUpdateInfo && ((COSUpdateInfo) object).isNeedToBeUpdated()
+            || object instanceof COSStream && !((COSStream) object).isReadFromSource())
+        {
+            return false;
+        }
+        evictedObject = new WeakReference<COSBase>(object);
+        this.parser = parser;
+        baseObject = null;
+        return true;
+    }
+
+    /**
+     * Encapsulates the evicted object again if it's still referenced elsewhere, instead of
+     * parsing a new one.
+     *
+     * @return true if the evicted object is encapsulated again
+     * @throws IOException If there is an error setting the object.
+     */
+    public boolean restoreEvictedObject() throws IOException
+    {
+        COSBase object = evictedObject != null ? evictedObject.get() : null;
+        evictedObject = null;
+        if (object == null)
+        {
+            return false;
+        }
+        setObject(object);
+        return true;
+    }
+
+    /**
+     * Clears the flag which is set by each access of the encapsulated object, to find the objects
+     * which weren't used recently.
+     *
+     * @return true if the object was accessed since the last call
+     */
+    public boolean clearAccessed()
+    {
+        boolean wasAccessed = accessed;
+        accessed = false;
+        return wasAccessed;
     }
 
     /**
@@ -19,11 +19,14 @@ package com.tom_roush.pdfbox.cos;
 import com.tom_roush.pdfbox.filter.Filter;
 import com.tom_roush.pdfbox.filter.FilterFactory;
 import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.PositionalRandomAccessRead;
 import com.tom_roush.pdfbox.io.RandomAccess;
 import com.tom_roush.pdfbox.io.RandomAccessBuffer;
 import com.tom_roush.pdfbox.io.RandomAccessInputStream;
 import com.tom_roush.pdfbox.io.RandomAccessOutputStream;
+import com.tom_roush.pdfbox.io.RandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
+import com.tom_roush.pdfbox.io.SynchronizedRandomAccessRead;
 
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
@@ -41,9 +44,10 @@ import java.util.List;
  */
 public class COSStream extends COSDictionary implements Closeable
 {
-    private RandomAccess randomAccess;      // backing store, in-memory or on-disk
-    private final ScratchFile scratchFile;  // used as a temp buffer during decoding
-    private boolean isWriting;              // true if there's an open OutputStream
+    private RandomAccess randomAccess;             // backing store, in-memory or on-disk
+    private PositionalRandomAccessRead sourceView; // read-only view of the parsed file, if not modified
+    private final ScratchFile scratchFile;         // used as a temp buffer during decoding
+    private boolean isWriting;                     // true if there's an open OutputStream
 
     /**
      * Creates a new stream with an empty dictionary.
@@ -66,6 +70,21 @@ public class COSStream extends COSDictionary implements Closeable
         this.scratchFile = scratchFile;
     }
 
+    /**
+     * Creates a new stream with an empty dictionary whose encoded data is read directly from the
+     * given view of the source file, without copying it. A buffer is only created if the stream
+     * data is replaced later on. Not for public use. Only COSParser should call this method.
+     *
+     * @param scratchFile Scratch file for writing stream data.
+     * @param sourceView view of the encoded stream data within the source file
+     */
+    public COSStream(ScratchFile scratchFile, PositionalRandomAccessRead sourceView)
+    {
+        super();
+        this.sourceView = sourceView;
+        this.scratchFile = scratchFile;
+    }
+
     /**
      * Creates a buffer for writing stream data, either in-memory or on-disk.
      */
@@ -95,7 +114,7 @@ public class COSStream extends COSDictionary implements Closeable
      */
     private void checkClosed() throws IOException
     {
-        if (randomAccess.isClosed())
+        if (sourceView != null ? sourceView.isClosed() : randomAccess.isClosed())
         {
             throw new IOException("COSStream has been closed and cannot be read. " +
                 "Perhaps its enclosing PDDocument has been closed?");
@@ -128,7 +147,7 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
-        return new RandomAccessInputStream(randomAccess);
+        return new RandomAccessInputStream(createDataView());
     }
 
     /**
@@ -157,10 +176,42 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
-        InputStream input = new RandomAccessInputStream(randomAccess);
+        // read through a view of its own, so that several streams can be read concurrently
+        InputStream input = new RandomAccessInputStream(createDataView());
         return COSInputStream.create(getFilterList(), this, input, scratchFile);
     }
 
+    /**
+     * Returns a new view of the encoded stream data, either of the source file or of the buffer.
+     */
+    private RandomAccessRead createDataView() throws IOException
+    {
+        if (sourceView != null)
+        {
+            return sourceView.createView(0, sourceView.length());
+        }
+        // the buffers of scratch files support views, other implementations are wrapped
+        return SynchronizedRandomAccessRead.wrap(randomAccess).createView(0, randomAccess.length());
+    }
+
+    /**
+     * Tells if the stream data is still read from the source file, i.e. it hasn't been replaced.
+     */
+    boolean isReadFromSource()
+    {
+        return sourceView != null;
+    }
+
+    /**
+     * Replaces the current stream data with a new, empty buffer.
+     */
+    private void resetData()
+    {
+        // views don't hold any resources, the source file itself is owned by the document
+        sourceView = null;
+        randomAccess = createRandomAccess(scratchFile);
+    }
+
     /**
      * This will create an output stream that can be written to.
      *
@@ -204,7 +255,7 @@ public class COSStream extends COSDictionary implements Closeable
         {
             setItem(COSName.FILTER, filters);
         }
-        randomAccess = createRandomAccess(scratchFile); // discards old data
+        resetData(); // discards old data
         OutputStream randomOut = new RandomAccessOutputStream(randomAccess);
         OutputStream cosOut = new COSOutputStream(getFilterList(), this, randomOut, scratchFile);
         isWriting = true;
@@ -248,7 +299,7 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw new IllegalStateException("Cannot have more than one open stream writer.");
         }
-        randomAccess = createRandomAccess(scratchFile); // discards old data
+        resetData(); // discards old data
         OutputStream out = new RandomAccessOutputStream(randomAccess);
         isWriting = true;
         return new FilterOutputStream(out)
@@ -373,7 +424,14 @@ public class COSStream extends COSDictionary implements Closeable
     @Override
     public void close() throws IOException
     {
-        // marks the scratch file pages as free
-        randomAccess.close();
+        if (sourceView != null)
+        {
+            sourceView.close();
+        }
+        else
+        {
+            // marks the scratch file pages as free
+            randomAccess.close();
+        }
     }
 }
@@ -0,0 +1,20 @@
+package com.tom_roush.pdfbox.cos;
+
+import java.io.IOException;
+
+/**
+ * An interface for resolving indirect objects on demand. A parser that loads a document lazily
+ * attaches itself to the COSObject proxies it creates, so that the referenced object is only read
+ * from the source when it is dereferenced for the first time.
+ */
+public interface ICOSParser
+{
+    /**
+     * Parses the indirect object referenced by the given proxy.
+     *
+     * @param obj the object to be dereferenced
+     * @return the parsed object, or COSNull if the object can't be found
+     * @throws IOException If there is an error while reading the object.
+     */
+    COSBase dereferenceCOSObject(COSObject obj) throws IOException;
+}
@@ -0,0 +1,386 @@
+package com.tom_roush.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact mapping of object keys to xref values. As for the former HashMap based xref table, a
+ * positive value is the byte offset of the object within the file and a negative value is the
+ * negated object number of the object stream containing the object.
+ *
+ * The values are stored in primitive arrays indexed by the object number, so that huge documents
+ * don't need a key object and a boxed Long per entry. The arrays are split into pages which are
+ * only created when used. Object numbers beyond a sane limit and further generations of an object
+ * number which is already in use are kept in an ordinary map, so that this class behaves exactly
+ * like any other map.
+ */
+public class XrefTable extends AbstractMap<COSObjectKey, Long>
+{
+    /**
+     * Value returned by {@link #getOffset(long, int)} if there isn't any entry for the given key.
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    // broken or malicious files shall not be able to allocate a huge page directory
+    private static final long MAX_PAGED_OBJECT_NUMBER = 1L << 26;
+
+    private long[][] offsetPages = new long[16][];
+    // generation + 1 of each entry, 0 marks an unused entry
+    private int[][] generationPages = new int[16][];
+    private int pagedSize;
+    private Map<COSObjectKey, Long> overflow;
+
+    /**
+     * Returns the xref value of the given object.
+     *
+     * @param objectNumber the object number
+     * @param generation the generation number
+     * @return the offset or the negated object stream number, or {@link #NOT_FOUND}
+     */
+    public long getOffset(long objectNumber, int generation)
+    {
+        if (isPaged(objectNumber))
+        {
+            int pageIndex = (int) (objectNumber >>> PAGE_SHIFT);
+            if (pageIndex < generationPages.length && generationPages[pageIndex] != null)
+            {
+                int index = (int) (objectNumber & PAGE_MASK);
+                if (generationPages[pageIndex][index] == generation + 1)
+                {
+                    return offsetPages[pageIndex][index];
+                }
+            }
+        }
+        if (overflow != null)
+        {
+            Long offset = overflow.get(new COSObjectKey(objectNumber, generation));
+            if (offset != null)
+            {
+                return offset;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Returns the xref value of the given object.
+     *
+     * @param key the object key
+     * @return the offset or the negated object stream number, or {@link #NOT_FOUND}
+     */
+    public long getOffset(COSObjectKey key)
+    {
+        return getOffset(key.getNumber(), key.getGeneration());
+    }
+
+    /**
+     * Sets the xref value of the given object, replacing any former value of the same key.
+     *
+     * @param objectNumber the object number
+     * @param generation the generation number
+     * @param offset the offset or the negated object stream number
+     */
+    public void setOffset(long objectNumber, int generation, long offset)
+    {
+        if (isPaged(objectNumber))
+        {
+            int pageIndex = (int) (objectNumber >>> PAGE_SHIFT);
+            int index = (int) (objectNumber & PAGE_MASK);
+            ensurePage(pageIndex);
+            int[] generations = generationPages[pageIndex];
+            if (generations[index] == 0 || generations[index] == generation + 1)
+            {
+                if (generations[index] == 0)
+                {
+                    pagedSize++;
+                    if (overflow != null)
+                    {
+                        // the key may have been moved to the overflow map before
+                        overflow.remove(new COSObjectKey(objectNumber, generation));
+                    }
+                }
+                generations[index] = generation + 1;
+                offsetPages[pageIndex][index] = offset;
+                return;
+            }
+        }
+        if (overflow == null)
+        {
+            overflow = new HashMap<COSObjectKey, Long>();
+        }
+        overflow.put(new COSObjectKey(objectNumber, generation), offset);
+    }
+
+    /**
+     * Sets the xref value of the given object, replacing any former value of the same key.
+     *
+     * @param key the object key
+     * @param offset the offset or the negated object stream number
+     */
+    public void setOffset(COSObjectKey key, long offset)
+    {
+        setOffset(key.getNumber(), key.getGeneration(), offset);
+    }
+
+    /**
+     * Adds all entries of the given table. Entries of the given table overwrite existing ones.
+     *
+     * @param table the table to be added
+     */
+    public void addAll(XrefTable table)
+    {
+        for (int pageIndex = 0; pageIndex < table.generationPages.length; pageIndex++)
+        {
+            int[] generations = table.generationPages[pageIndex];
+            if (generations == null)
+            {
+                continue;
+            }
+            long[] offsets = table.offsetPages[pageIndex];
+            long pageStart = (long) pageIndex << PAGE_SHIFT;
+            for (int index = 0; index < PAGE_SIZE; index++)
+            {
+                if (generations[index] != 0)
+                {
+                    setOffset(pageStart + index, generations[index] - 1, offsets[index]);
+                }
+            }
+        }
+        if (table.overflow != null)
+        {
+            for (Entry<COSObjectKey, Long> entry : table.overflow.entrySet())
+            {
+                setOffset(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public Long get(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        long offset = getOffset((COSObjectKey) key);
+        return offset == NOT_FOUND ? null : offset;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key instanceof COSObjectKey && getOffset((COSObjectKey) key) != NOT_FOUND;
+    }
+
+    @Override
+    public Long put(COSObjectKey key, Long value)
+    {
+        Long oldValue = get(key);
+        setOffset(key, value);
+        return oldValue;
+    }
+
+    @Override
+    public void putAll(Map<? extends COSObjectKey, ? extends Long> map)
+    {
+        if (map instanceof XrefTable)
+        {
+            addAll((XrefTable) map);
+        }
+        else
+        {
+            super.putAll(map);
+        }
+    }
+
+    @Override
+    public Long remove(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        COSObjectKey objectKey = (COSObjectKey) key;
+        long objectNumber = objectKey.getNumber();
+        if (isPaged(objectNumber))
+        {
+            int pageIndex = (int) (objectNumber >>> PAGE_SHIFT);
+            if (pageIndex < generationPages.length && generationPages[pageIndex] != null)
+            {
+                int index = (int) (objectNumber & PAGE_MASK);
+                if (generationPages[pageIndex][index] == objectKey.getGeneration() + 1)
+                {
+                    generationPages[pageIndex][index] = 0;
+                    pagedSize--;
+                    return offsetPages[pageIndex][index];
+                }
+            }
+        }
+        return overflow != null ? overflow.remove(objectKey) : null;
+    }
+
+    @Override
+    public void clear()
+    {
+        offsetPages = new long[16][];
+        generationPages = new int[16][];
+        pagedSize = 0;
+        overflow = null;
+    }
+
+    @Override
+    public int size()
+    {
+        return pagedSize + (overflow != null ? overflow.size() : 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entries are created on the fly, prefer {@link #getOffset(long, int)} for lookups.
+     */
+    @Override
+    public Set<Entry<COSObjectKey, Long>> entrySet()
+    {
+        return new AbstractSet<Entry<COSObjectKey, Long>>()
+        {
+            @Override
+            public Iterator<Entry<COSObjectKey, Long>> iterator()
+            {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return XrefTable.this.size();
+            }
+        };
+    }
+
+    private static boolean isPaged(long objectNumber)
+    {
+        return objectNumber >= 0 && objectNumber < MAX_PAGED_OBJECT_NUMBER;
+    }
+
+    private void ensurePage(int pageIndex)
+    {
+        if (pageIndex >= generationPages.length)
+        {
+            int newLength = Math.max(pageIndex + 1, generationPages.length * 2);
+            long[][] newOffsetPages = new long[newLength][];
+            int[][] newGenerationPages = new int[newLength][];
+            System.arraycopy(offsetPages, 0, newOffsetPages, 0, offsetPages.length);
+            System.arraycopy(generationPages, 0, newGenerationPages, 0, generationPages.length);
+            offsetPages = newOffsetPages;
+            generationPages = newGenerationPages;
+        }
+        if (generationPages[pageIndex] == null)
+        {
+            offsetPages[pageIndex] = new long[PAGE_SIZE];
+            generationPages[pageIndex] = new int[PAGE_SIZE];
+        }
+    }
+
+    /**
+     * Iterates over the paged entries in order of their object numbers, followed by the entries
+     * of the overflow map.
+     */
+    private final class EntryIterator implements Iterator<Entry<COSObjectKey, Long>>
+    {
+        private final Iterator<Entry<COSObjectKey, Long>> overflowIterator =
+            overflow != null ? overflow.entrySet().iterator() : null;
+        private long nextObjectNumber = -1;
+        // object number of the last paged entry, -1 if the last entry came from the overflow map
+        private long currentObjectNumber = -1;
+        private boolean canRemove;
+
+        private EntryIterator()
+        {
+            findNext(0);
+        }
+
+        private void findNext(long objectNumber)
+        {
+            nextObjectNumber = -1;
+            long maxObjectNumber = (long) generationPages.length << PAGE_SHIFT;
+            while (objectNumber < maxObjectNumber)
+            {
+                int[] generations = generationPages[(int) (objectNumber >>> PAGE_SHIFT)];
+                if (generations == null)
+                {
+                    // skip the whole page
+                    objectNumber = (objectNumber | PAGE_MASK) + 1;
+                }
+                else if (generations[(int) (objectNumber & PAGE_MASK)] == 0)
+                {
+                    objectNumber++;
+                }
+                else
+                {
+                    nextObjectNumber = objectNumber;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextObjectNumber != -1 || (overflowIterator != null && overflowIterator.hasNext());
+        }
+
+        @Override
+        public Entry<COSObjectKey, Long> next()
+        {
+            if (nextObjectNumber == -1)
+            {
+                if (overflowIterator == null)
+                {
+                    throw new NoSuchElementException();
+                }
+                Entry<COSObjectKey, Long> entry = overflowIterator.next();
+                currentObjectNumber = -1;
+                canRemove = true;
+                return entry;
+            }
+            currentObjectNumber = nextObjectNumber;
+            canRemove = true;
+            int pageIndex = (int) (currentObjectNumber >>> PAGE_SHIFT);
+            int index = (int) (currentObjectNumber & PAGE_MASK);
+            COSObjectKey key = new COSObjectKey(currentObjectNumber,
+                generationPages[pageIndex][index] - 1);
+            Long value = offsetPages[pageIndex][index];
+            findNext(currentObjectNumber + 1);
+            return new SimpleImmutableEntry<COSObjectKey, Long>(key, value);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (!canRemove)
+            {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            if (currentObjectNumber == -1)
+            {
+                overflowIterator.remove();
+            }
+            else
+            {
+                int pageIndex = (int) (currentObjectNumber >>> PAGE_SHIFT);
+                generationPages[pageIndex][(int) (currentObjectNumber & PAGE_MASK)] = 0;
+                pagedSize--;
+            }
+        }
+    }
+}
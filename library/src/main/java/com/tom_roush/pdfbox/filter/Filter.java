@@ -10,6 +10,7 @@ import com.tom_roush.pdfbox.cos.COSName;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
 
 /**
  * A filter for stream data.
@@ -19,6 +20,18 @@ import java.io.OutputStream;
  */
 public abstract class Filter
 {
+    /**
+     * Compression level used by the Flate filter, from 0 (no compression) to 9 (best compression).
+     * The default is {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public static final String SYSPROP_DEFLATELEVEL = "com.tom_roush.pdfbox.filter.deflatelevel";
+
+    /**
+     * Compression strategy used by the Flate filter: 0 (default), 1 (filtered) or 2 (huffman only),
+     * see {@link Deflater#setStrategy(int)}.
+     */
+    public static final String SYSPROP_DEFLATESTRATEGY = "com.tom_roush.pdfbox.filter.deflatestrategy";
+
     /**
      * Constructor.
      */
@@ -56,6 +69,69 @@ public abstract class Filter
     protected abstract void encode(InputStream input, OutputStream encoded,
                                    COSDictionary parameters) throws IOException;
 
+    /**
+     * Returns the compression level for the Flate filter given by the system property
+     * {@link #SYSPROP_DEFLATELEVEL}.
+     *
+     * @return the compression level, or {@link Deflater#DEFAULT_COMPRESSION} if none is set
+     */
+    public static int getCompressionLevel()
+    {
+        int level = getIntProperty(SYSPROP_DEFLATELEVEL, Deflater.DEFAULT_COMPRESSION);
+        if (level != Deflater.DEFAULT_COMPRESSION
+            && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION))
+        {
+            Log.w("PdfBox-Android", "Invalid compression level " + level + ", using the default");
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        return level;
+    }
+
+    /**
+     * Returns the compression strategy for the Flate filter given by the system property
+     * {@link #SYSPROP_DEFLATESTRATEGY}.
+     *
+     * @return the compression strategy, or {@link Deflater#DEFAULT_STRATEGY} if none is set
+     */
+    public static int getCompressionStrategy()
+    {
+        int strategy = getIntProperty(SYSPROP_DEFLATESTRATEGY, Deflater.DEFAULT_STRATEGY);
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED
+            && strategy != Deflater.HUFFMAN_ONLY)
+        {
+            Log.w("PdfBox-Android", "Invalid compression strategy " + strategy + ", using the default");
+            return Deflater.DEFAULT_STRATEGY;
+        }
+        return strategy;
+    }
+
+    private static int getIntProperty(String name, int defaultValue)
+    {
+        String value;
+        try
+        {
+            value = System.getProperty(name);
+        }
+        catch (SecurityException e)
+        {
+            return defaultValue;
+        }
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            Log.w("PdfBox-Android", "System property " + name
+                + " does not contain an integer value, but: '" + value + "'");
+            return defaultValue;
+        }
+    }
+
     // gets the decode params for a specific filter index, this is used to
     // normalise the DecodeParams entry so that it is always a dictionary
     protected static COSDictionary getDecodeParams(COSDictionary dictionary, int index)
@@ -5,13 +5,11 @@ import android.util.Log;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSName;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.DataFormatException;
-import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
 /**
@@ -23,7 +21,10 @@ import java.util.zip.Inflater;
  */
 final class FlateFilter extends Filter
 {
-    private static final int BUFFER_SIZE = 16348;
+    private static final int BUFFER_SIZE = 0x10000;
+
+    // one codec per thread, so the native zlib state is reused for all streams
+    private static final ThreadLocal<Codec> CODECS = new ThreadLocal<Codec>();
 
     @Override
     public DecodeResult decode(InputStream encoded, OutputStream decoded,
@@ -41,16 +42,10 @@ final class FlateFilter extends Filter
         {
             if (predictor > 1)
             {
-                int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
-                int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
-                int columns = decodeParams.getInt(COSName.COLUMNS, 1);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                decompress(encoded, baos);
-                ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-                Predictor.decodePredictor(predictor, colors, bitsPerPixel, columns, bais, decoded);
-                decoded.flush();
-                baos.reset();
-                bais.reset();
+                Predictor.PredictorOutputStream predictorOutput =
+                        Predictor.wrapPredictor(decoded, predictor, decodeParams);
+                decompress(encoded, predictorOutput);
+                predictorOutput.finish();
             }
             else
             {
@@ -72,29 +67,41 @@ final class FlateFilter extends Filter
     // missing Z_STREAM_END, see PDFBOX-1232 for details
     private static void decompress(InputStream in, OutputStream out) throws IOException, DataFormatException 
     { 
-        byte[] buf = new byte[2048]; 
-        int read = in.read(buf); 
-        if (read > 0) 
-        { 
-            Inflater inflater = new Inflater(); 
-            inflater.setInput(buf,0,read); 
-            byte[] res = new byte[2048]; 
-            while (true) 
-            { 
-                int resRead = inflater.inflate(res); 
-                if (resRead != 0) 
-                { 
-                    out.write(res,0,resRead); 
-                    continue; 
-                } 
-                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0) 
+        Codec codec = acquire();
+        try
+        {
+            byte[] buf = codec.input;
+            int read = in.read(buf);
+            if (read > 0)
+            {
+                Inflater inflater = codec.getInflater();
+                inflater.setInput(buf, 0, read);
+                byte[] res = codec.output;
+                while (true)
                 {
-                    break;
-                } 
-                read = in.read(buf); 
-                inflater.setInput(buf,0,read); 
+                    int resRead = inflater.inflate(res);
+                    if (resRead != 0)
+                    {
+                        out.write(res, 0, resRead);
+                        continue;
+                    }
+                    if (inflater.finished() || inflater.needsDictionary() || !inflater.needsInput())
+                    {
+                        break;
+                    }
+                    read = in.read(buf);
+                    if (read == -1)
+                    {
+                        break;
+                    }
+                    inflater.setInput(buf, 0, read);
+                }
             }
         }
+        finally
+        {
+            release(codec);
+        }
         out.flush();
     }
     
@@ -102,18 +109,125 @@ final class FlateFilter extends Filter
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
             throws IOException
     {
-        DeflaterOutputStream out = new DeflaterOutputStream(encoded);
-        int amountRead;
-        int mayRead = input.available();
-        if (mayRead > 0)
+        Codec codec = acquire();
+        try
         {
-            byte[] buffer = new byte[Math.min(mayRead,BUFFER_SIZE)];
-            while ((amountRead = input.read(buffer, 0, Math.min(mayRead,BUFFER_SIZE))) != -1)
+            Deflater deflater = codec.getDeflater(getCompressionLevel(), getCompressionStrategy());
+            byte[] buffer = codec.input;
+            byte[] res = codec.output;
+            int amountRead;
+            while ((amountRead = input.read(buffer)) != -1)
             {
-                out.write(buffer, 0, amountRead);
+                deflater.setInput(buffer, 0, amountRead);
+                while (!deflater.needsInput())
+                {
+                    int length = deflater.deflate(res);
+                    encoded.write(res, 0, length);
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                int length = deflater.deflate(res);
+                encoded.write(res, 0, length);
             }
         }
-        out.close();
+        finally
+        {
+            release(codec);
+        }
         encoded.flush();
     }
+
+    private static Codec acquire()
+    {
+        Codec codec = CODECS.get();
+        if (codec == null)
+        {
+            return new Codec();
+        }
+        // taken out of the pool while it is used, a nested call gets a codec of its own
+        CODECS.set(null);
+        return codec;
+    }
+
+    private static void release(Codec codec)
+    {
+        if (CODECS.get() == null)
+        {
+            codec.reset();
+            CODECS.set(codec);
+        }
+        else
+        {
+            codec.end();
+        }
+    }
+
+    /**
+     * The zlib state and the buffers used by one thread. The native memory of the inflater and the
+     * deflater is released with {@link #end()} if the codec isn't returned to the pool.
+     */
+    private static final class Codec
+    {
+        private final byte[] input = new byte[BUFFER_SIZE];
+        private final byte[] output = new byte[BUFFER_SIZE];
+        private Inflater inflater;
+        private Deflater deflater;
+        private int level = Deflater.DEFAULT_COMPRESSION;
+        private int strategy = Deflater.DEFAULT_STRATEGY;
+
+        Inflater getInflater()
+        {
+            if (inflater == null)
+            {
+                inflater = new Inflater();
+            }
+            return inflater;
+        }
+
+        Deflater getDeflater(int level, int strategy)
+        {
+            if (deflater == null)
+            {
+                deflater = new Deflater(level);
+                deflater.setStrategy(strategy);
+            }
+            else if (level != this.level || strategy != this.strategy)
+            {
+                // a reset deflater applies the new settings to the next stream
+                deflater.setLevel(level);
+                deflater.setStrategy(strategy);
+            }
+            this.level = level;
+            this.strategy = strategy;
+            return deflater;
+        }
+
+        void reset()
+        {
+            if (inflater != null)
+            {
+                inflater.reset();
+            }
+            if (deflater != null)
+            {
+                deflater.reset();
+            }
+        }
+
+        void end()
+        {
+            if (inflater != null)
+            {
+                inflater.end();
+                inflater = null;
+            }
+            if (deflater != null)
+            {
+                deflater.end();
+                deflater = null;
+            }
+        }
+    }
 }
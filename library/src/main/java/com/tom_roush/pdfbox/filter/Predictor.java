@@ -1,9 +1,13 @@
 package com.tom_roush.pdfbox.filter;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.io.IOUtils;
 
 /**
@@ -16,6 +20,9 @@ public final class Predictor
 	{
 	}
 	
+	/**
+	 * Decodes the predicted data of the input stream to the output stream.
+	 */
 	static void decodePredictor(int predictor, int colors, int bitsPerComponent, int columns, InputStream in, OutputStream out)
 			throws IOException
 	{
@@ -26,138 +33,244 @@ public final class Predictor
 		}
 		else
 		{
-			// calculate sizes
+			PredictorOutputStream predictorOutput =
+					new PredictorOutputStream(out, predictor, colors, bitsPerComponent, columns);
+			IOUtils.copy(in, predictorOutput);
+			predictorOutput.finish();
+		}
+	}
+
+	/**
+	 * Creates a stream which decodes the predicted data written to it, using the predictor
+	 * parameters of the given decode parameters.
+	 *
+	 * @param out the stream the decoded data is written to
+	 * @param predictor the predictor, which has to be greater than 1
+	 * @param decodeParams the decode parameters of the filter
+	 * @return the predictor stream, {@link PredictorOutputStream#finish()} has to be called after
+	 * the last byte was written
+	 */
+	static PredictorOutputStream wrapPredictor(OutputStream out, int predictor, COSDictionary decodeParams)
+	{
+		int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+		int bitsPerComponent = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+		int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+		return new PredictorOutputStream(out, predictor, colors, bitsPerComponent, columns);
+	}
+
+	/**
+	 * Decodes a single row of predicted data in place.
+	 *
+	 * @param linepredictor the predictor of the row, PNG predictors are given as 10 to 14
+	 * @param bitsPerComponent the bits per component
+	 * @param bytesPerPixel the bytes per pixel, rounded up
+	 * @param actline the row to be decoded
+	 * @param lastline the previous row, already decoded
+	 */
+	static void decodePredictorRow(int linepredictor, int bitsPerComponent, int bytesPerPixel,
+			byte[] actline, byte[] lastline) throws IOException
+	{
+		final int rowlength = actline.length;
+		// do prediction as specified in PNG-Specification 1.2
+		switch (linepredictor)
+		{
+		case 2:
+			// PRED TIFF SUB
+			// TODO decode tiff with bpc smaller 8
+			// e.g. for 4 bpc each nibble must be subtracted separately
+			if (bitsPerComponent == 16)
+			{
+				for (int p = 0; p < rowlength; p += 2)
+				{
+					int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
+					int left = p - bytesPerPixel >= 0
+							? (((actline[p - bytesPerPixel] & 0xff) << 8)
+									+ (actline[p - bytesPerPixel + 1] & 0xff))
+									: 0;
+							actline[p] = (byte) (((sub + left) >> 8) & 0xff);
+							actline[p + 1] = (byte) ((sub + left) & 0xff);
+				}
+				break;
+			}
+			if (bitsPerComponent < 8)
+			{
+				throw new IOException("TIFF-Predictor with " + bitsPerComponent
+						+ " bits per component not supported; please open JIRA issue with sample PDF");
+			}
+			// for 8 bits per component it is the same algorithm as PRED SUB of PNG format
+			for (int p = 0; p < rowlength; p++)
+			{
+				int sub = actline[p] & 0xff;
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+				actline[p] = (byte) (sub + left);
+			}
+			break;
+		case 10:
+			// PRED NONE
+			// do nothing
+			break;
+		case 11:
+			// PRED SUB
+			for (int p = 0; p < rowlength; p++)
+			{
+				int sub = actline[p];
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
+				actline[p] = (byte) (sub + left);
+			}
+			break;
+		case 12:
+			// PRED UP
+			for (int p = 0; p < rowlength; p++)
+			{
+				int up = actline[p] & 0xff;
+				int prior = lastline[p] & 0xff;
+				actline[p] = (byte) ((up + prior) & 0xff);
+			}
+			break;
+		case 13:
+			// PRED AVG
+			for (int p = 0; p < rowlength; p++)
+			{
+				int avg = actline[p] & 0xff;
+				int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
+				int up = lastline[p] & 0xff;
+				actline[p] = (byte) ((avg + ((left + up) / 2)) & 0xff);
+			}
+			break;
+		case 14:
+			// PRED PAETH
+			for (int p = 0; p < rowlength; p++)
+			{
+				int paeth = actline[p] & 0xff;
+				int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
+				int b = lastline[p] & 0xff;// upper
+				int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
+				int value = a + b - c;
+				int absa = Math.abs(value - a);
+				int absb = Math.abs(value - b);
+				int absc = Math.abs(value - c);
+
+				if (absa <= absb && absa <= absc)
+				{
+					actline[p] = (byte) ((paeth + a) & 0xff);
+				}
+				else if (absb <= absc)
+				{
+					actline[p] = (byte) ((paeth + b) & 0xff);
+				}
+				else
+				{
+					actline[p] = (byte) ((paeth + c) & 0xff);
+				}
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Decodes predicted data row by row while it is written, so only the current and the previous
+	 * row are kept in memory. The decoded rows are written to the underlying stream.
+	 */
+	static final class PredictorOutputStream extends FilterOutputStream
+	{
+		private final int predictor;
+		private final int bitsPerComponent;
+		private final int bytesPerPixel;
+		private byte[] actline;
+		private byte[] lastline;
+		private int offset;
+		private int linepredictor;
+		// true if the predictor of the current PNG row wasn't read yet
+		private boolean needsLinePredictor;
+		private final byte[] singleByte = new byte[1];
+
+		PredictorOutputStream(OutputStream out, int predictor, int colors, int bitsPerComponent, int columns)
+		{
+			super(out);
+			this.predictor = predictor;
+			this.bitsPerComponent = bitsPerComponent;
 			final int bitsPerPixel = colors * bitsPerComponent;
-			final int bytesPerPixel = (bitsPerPixel + 7) / 8;
+			bytesPerPixel = (bitsPerPixel + 7) / 8;
 			final int rowlength = (columns * bitsPerPixel + 7) / 8;
-			byte[] actline = new byte[rowlength];
-			byte[] lastline = new byte[rowlength];
+			actline = new byte[rowlength];
+			lastline = new byte[rowlength];
+			linepredictor = predictor;
+			// test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
+			needsLinePredictor = predictor >= 10;
+		}
 
-			int linepredictor = predictor;
+		@Override
+		public void write(int b) throws IOException
+		{
+			singleByte[0] = (byte) b;
+			write(singleByte, 0, 1);
+		}
 
-			while (in.available() > 0)
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (predictor == 1)
 			{
-				// test for PNG predictor; each value >= 10 (not only 15) indicates usage of PNG predictor
-				if (predictor >= 10)
+				out.write(b, off, len);
+				return;
+			}
+			final int end = off + len;
+			while (off < end)
+			{
+				if (needsLinePredictor)
 				{
 					// PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
-					// read per line predictor
-					linepredictor = in.read();
-					if (linepredictor == -1)
-					{
-						return;
-					}
 					// add 10 to tread value 0 as 10, 1 as 11, ...
-					linepredictor += 10;
+					linepredictor = (b[off++] & 0xff) + 10;
+					needsLinePredictor = false;
+					continue;
 				}
-
-				// read line
-				int i, offset = 0;
-				while (offset < rowlength && ((i = in.read(actline, offset, rowlength - offset)) != -1))
+				int count = Math.min(end - off, actline.length - offset);
+				System.arraycopy(b, off, actline, offset, count);
+				offset += count;
+				off += count;
+				if (offset == actline.length)
 				{
-					offset += i;
+					writeRow();
 				}
+			}
+		}
 
-				// do prediction as specified in PNG-Specification 1.2
-				switch (linepredictor)
-				{
-				case 2:
-					// PRED TIFF SUB
-					// TODO decode tiff with bpc smaller 8
-					// e.g. for 4 bpc each nibble must be subtracted separately
-					if (bitsPerComponent == 16)
-					{
-						for (int p = 0; p < rowlength; p += 2)
-						{
-							int sub = ((actline[p] & 0xff) << 8) + (actline[p + 1] & 0xff);
-							int left = p - bytesPerPixel >= 0
-									? (((actline[p - bytesPerPixel] & 0xff) << 8)
-											+ (actline[p - bytesPerPixel + 1] & 0xff))
-											: 0;
-									actline[p] = (byte) (((sub + left) >> 8) & 0xff);
-									actline[p + 1] = (byte) ((sub + left) & 0xff);
-						}
-						break;
-					}
-					if (bitsPerComponent < 8)
-					{
-						throw new IOException("TIFF-Predictor with " + bitsPerComponent
-								+ " bits per component not supported; please open JIRA issue with sample PDF");
-					}
-					// for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-					for (int p = 0; p < rowlength; p++)
-					{
-						int sub = actline[p] & 0xff;
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-						actline[p] = (byte) (sub + left);
-					}
-					break;
-				case 10:
-					// PRED NONE
-					// do nothing
-					break;
-				case 11:
-					// PRED SUB
-					for (int p = 0; p < rowlength; p++)
-					{
-						int sub = actline[p];
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] : 0;
-						actline[p] = (byte) (sub + left);
-					}
-					break;
-				case 12:
-					// PRED UP
-					for (int p = 0; p < rowlength; p++)
-					{
-						int up = actline[p] & 0xff;
-						int prior = lastline[p] & 0xff;
-						actline[p] = (byte) ((up + prior) & 0xff);
-					}
-					break;
-				case 13:
-					// PRED AVG
-					for (int p = 0; p < rowlength; p++)
-					{
-						int avg = actline[p] & 0xff;
-						int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-						int up = lastline[p] & 0xff;
-						actline[p] = (byte) ((avg + ((left + up) / 2)) & 0xff);
-					}
-					break;
-				case 14:
-					// PRED PAETH
-					for (int p = 0; p < rowlength; p++)
-					{
-						int paeth = actline[p] & 0xff;
-						int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-						int b = lastline[p] & 0xff;// upper
-						int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-						int value = a + b - c;
-						int absa = Math.abs(value - a);
-						int absb = Math.abs(value - b);
-						int absc = Math.abs(value - c);
-
-						if (absa <= absb && absa <= absc)
-						{
-							actline[p] = (byte) ((paeth + a) & 0xff);
-						}
-						else if (absb <= absc)
-						{
-							actline[p] = (byte) ((paeth + b) & 0xff);
-						}
-						else
-						{
-							actline[p] = (byte) ((paeth + c) & 0xff);
-						}
-					}
-					break;
-				default:
-					break;
-				}
-				System.arraycopy(actline, 0, lastline, 0, rowlength);
-				out.write(actline);
+		/**
+		 * Decodes and writes the last row if it is incomplete, it is padded with zeros. The underlying
+		 * stream isn't closed.
+		 *
+		 * @throws IOException if the row can't be written
+		 */
+		void finish() throws IOException
+		{
+			if (offset > 0)
+			{
+				Arrays.fill(actline, offset, actline.length, (byte) 0);
+				writeRow();
 			}
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			finish();
+			super.close();
 		}
-	}
 
+		private void writeRow() throws IOException
+		{
+			decodePredictorRow(linepredictor, bitsPerComponent, bytesPerPixel, actline, lastline);
+			out.write(actline);
+			// the decoded row becomes the previous row
+			byte[] tmp = lastline;
+			lastline = actline;
+			actline = tmp;
+			offset = 0;
+			needsLinePredictor = predictor >= 10;
+		}
+	}
 }
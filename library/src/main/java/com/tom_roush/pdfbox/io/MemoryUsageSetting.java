@@ -44,6 +44,11 @@ public final class MemoryUsageSetting
      */
     private File tempDir;
 
+    /**
+     * if the file a document is loaded from is memory mapped
+     */
+    private boolean useMemoryMapping;
+
     /**
      * Private constructor for setup buffering memory usage called by one of the setup methods.
      *
@@ -182,6 +187,22 @@ public final class MemoryUsageSetting
         return this;
     }
 
+    /**
+     * Enables memory mapping of the file a document is loaded from, which avoids a system call and
+     * a copy for every page of the file which is read. This must only be used for files which
+     * aren't truncated or rewritten while the document is open: reading a mapped file which was
+     * changed crashes the process instead of throwing an IOException. The mapping is released by
+     * the garbage collector, not when the document is closed.
+     *
+     * @param useMemoryMapping <code>true</code> to map the file, the default is <code>false</code>
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseMemoryMapping(boolean useMemoryMapping)
+    {
+        this.useMemoryMapping = useMemoryMapping;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if main-memory is to be used.
      *
@@ -248,6 +269,14 @@ public final class MemoryUsageSetting
         return tempDir;
     }
 
+    /**
+     * Returns <code>true</code> if the file a document is loaded from is to be memory mapped.
+     */
+    public boolean useMemoryMapping()
+    {
+        return useMemoryMapping;
+    }
+
     @Override
     public String toString()
     {
@@ -0,0 +1,40 @@
+package com.tom_roush.pdfbox.io;
+
+import java.io.IOException;
+
+/**
+ * A {@link RandomAccessRead} which can also be read at absolute positions without using its
+ * current position, and which hands out views of parts of its data. This allows the data to be
+ * read concurrently. Other implementations of RandomAccessRead can be made positional by
+ * {@link SynchronizedRandomAccessRead}.
+ */
+public interface PositionalRandomAccessRead extends RandomAccessRead
+{
+    /**
+     * Read a buffer of data starting at the given absolute position. Contrary to the other read
+     * methods the current position isn't used nor changed, so that several threads may read
+     * concurrently as long as the data isn't modified at the same time.
+     *
+     * @param position The position of the first byte to be read.
+     * @param b The buffer to write the data to.
+     * @param offset Offset into the buffer to start writing.
+     * @param length The amount of data to attempt to read.
+     * @return The number of bytes that were actually read or -1 if the position is beyond the end
+     * of the data.
+     * @throws IOException If there was an error while reading the data.
+     */
+    int read(long position, byte[] b, int offset, int length) throws IOException;
+
+    /**
+     * Creates a view of a part of the data with its own position, starting at position 0 of the
+     * view. Views are cheap to create and may be read concurrently from different threads, they
+     * don't have to be closed and closing them doesn't close the underlying data.
+     *
+     * @param startPosition the start position of the view within the data.
+     * @param streamLength the length of the view.
+     * @return the view of the given part of the data.
+     * @throws IOException If there was an error while creating the view.
+     */
+    PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException;
+}
@@ -12,7 +12,7 @@ import static java.lang.System.arraycopy;
  * The data will be stored in chunks organized in an ArrayList.
  *
  */
-public class RandomAccessBuffer implements RandomAccess, Cloneable
+public class RandomAccessBuffer implements RandomAccess, PositionalRandomAccessRead, Cloneable
 {
     // default chunk size is 1kb
     private static final int DEFAULT_CHUNK_SIZE = 1024;
@@ -235,6 +235,43 @@ public class RandomAccessBuffer implements RandomAccess, Cloneable
         return bytesRead;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position >= size)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(length, size - position);
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            // copy as much as possible from the chunk containing the current position
+            long currentPosition = position + bytesRead;
+            byte[] chunk = bufferList.get((int) (currentPosition / chunkSize));
+            int chunkPointer = (int) (currentPosition % chunkSize);
+            int chunkBytes = Math.min(bytesToRead - bytesRead, chunkSize - chunkPointer);
+            arraycopy(chunk, chunkPointer, b, offset + bytesRead, chunkBytes);
+            bytesRead += chunkBytes;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     private int readRemainingBytes(byte[] b, int offset, int length) throws IOException
     {
         if (pointer >= size)
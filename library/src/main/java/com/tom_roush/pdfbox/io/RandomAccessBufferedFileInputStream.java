@@ -5,6 +5,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -19,7 +20,7 @@ import java.util.Map;
  * @author Timo Boehme
  */
 public class RandomAccessBufferedFileInputStream
-extends InputStream implements RandomAccessRead
+extends InputStream implements PositionalRandomAccessRead
 {
     /**
      * The prefix for the temp file being used.
@@ -247,6 +248,27 @@ extends InputStream implements RandomAccessRead
         return commonLen;
     }
 
+    /**
+     * Reads directly from the file, bypassing the page cache which is bound to the current position.
+     */
+    @Override
+    public int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        // positional reads of the channel don't change the file pointer
+        return raFile.getChannel().read(ByteBuffer.wrap(b, off, len), position);
+    }
+
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     @Override
     public int available() throws IOException
     {
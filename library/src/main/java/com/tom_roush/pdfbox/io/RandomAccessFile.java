@@ -3,6 +3,7 @@ package com.tom_roush.pdfbox.io;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A RandomAccess implementation which allows data to be stored in a scratch file on the disk to
@@ -10,7 +11,7 @@ import java.io.IOException;
  *
  * @author Ben Litchfield
  */
-public class RandomAccessFile implements RandomAccess
+public class RandomAccessFile implements RandomAccess, PositionalRandomAccessRead
 {
     private final java.io.RandomAccessFile ras;
     private boolean isClosed;
@@ -76,6 +77,22 @@ public class RandomAccessFile implements RandomAccess
         return ras.read(b, offset, length);
     }
 
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        // positional reads of the channel don't change the file pointer
+        return ras.getChannel().read(ByteBuffer.wrap(b, offset, length), position);
+    }
+
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     @Override
     public long length() throws IOException
     {
@@ -0,0 +1,296 @@
+package com.tom_roush.pdfbox.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of the RandomAccessRead interface backed by a memory mapped file. The file
+ * is mapped in chunks of up to 1 GB, so that files larger than 2 GB can be read as well. All reads
+ * go directly to the mapped memory, there is neither a page cache nor a system call per read.
+ *
+ * The mapping is released by the garbage collector after this instance is closed and unreachable.
+ * Views share the mapping without copying any data.
+ */
+public class RandomAccessMemoryMappedFile implements PositionalRandomAccessRead
+{
+    // default chunk size is 1 GB
+    private static final int DEFAULT_CHUNK_SHIFT = 30;
+
+    private final int chunkShift;
+    private final long chunkMask;
+    // mapped chunks of the file, all but the last one have a size of 1 << chunkShift
+    private ByteBuffer[] chunks;
+    // start of this instance within the file, only views have a start > 0
+    private final long startPosition;
+    private final long fileLength;
+    // current pointer to the whole file
+    private long pointer;
+    private boolean isClosed;
+
+    /**
+     * Create a random access read instance mapping the file with the given name.
+     *
+     * @param filename the filename of the file to be read.
+     * @throws IOException if something went wrong while mapping the given file.
+     */
+    public RandomAccessMemoryMappedFile(String filename) throws IOException
+    {
+        this(new File(filename));
+    }
+
+    /**
+     * Create a random access read instance mapping the given file.
+     *
+     * @param file the file to be read.
+     * @throws IOException if something went wrong while mapping the given file.
+     */
+    public RandomAccessMemoryMappedFile(File file) throws IOException
+    {
+        this(file, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Create a random access read instance mapping the given file using the given chunk size.
+     *
+     * @param file the file to be read.
+     * @param chunkShift the chunk size as power of two
+     * @throws IOException if something went wrong while mapping the given file.
+     */
+    RandomAccessMemoryMappedFile(File file, int chunkShift) throws IOException
+    {
+        this.chunkShift = chunkShift;
+        startPosition = 0;
+        chunkMask = (1L << chunkShift) - 1;
+        FileInputStream input = new FileInputStream(file);
+        try
+        {
+            FileChannel channel = input.getChannel();
+            fileLength = channel.size();
+            int numberOfChunks = (int) ((fileLength + chunkMask) >>> chunkShift);
+            chunks = new ByteBuffer[Math.max(1, numberOfChunks)];
+            for (int i = 0; i < numberOfChunks; i++)
+            {
+                long chunkOffset = (long) i << chunkShift;
+                long chunkLength = Math.min(chunkMask + 1, fileLength - chunkOffset);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, chunkOffset, chunkLength);
+            }
+            if (numberOfChunks == 0)
+            {
+                chunks[0] = ByteBuffer.allocate(0);
+            }
+        }
+        catch (OutOfMemoryError e)
+        {
+            // the address space is exhausted, the caller may fall back to buffered reading
+            throw new IOException("Can't map file " + file, e);
+        }
+        finally
+        {
+            // the mapping stays valid after the channel is closed
+            input.close();
+        }
+    }
+
+    /**
+     * Create a view of a part of the given mapped file. The view shares the mapping but has buffers
+     * of its own, so that it can be read independently of the parent.
+     */
+    private RandomAccessMemoryMappedFile(RandomAccessMemoryMappedFile parent, long startPosition,
+        long streamLength)
+    {
+        chunkShift = parent.chunkShift;
+        chunkMask = parent.chunkMask;
+        chunks = new ByteBuffer[parent.chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            chunks[i] = parent.chunks[i].duplicate();
+        }
+        this.startPosition = parent.startPosition + startPosition;
+        fileLength = streamLength;
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return pointer;
+    }
+
+    @Override
+    public void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        // it is allowed to jump beyond the end of the file
+        pointer = position;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (pointer >= fileLength)
+        {
+            return -1;
+        }
+        long filePointer = startPosition + pointer;
+        int value = chunks[(int) (filePointer >>> chunkShift)].get((int) (filePointer & chunkMask));
+        pointer++;
+        return value & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        int bytesRead = read(pointer, b, offset, length, false);
+        if (bytesRead > 0)
+        {
+            pointer += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The positions of the buffers of this instance aren't touched, so this is safe to be called
+     * concurrently.
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        return read(position, b, offset, length, true);
+    }
+
+    /**
+     * Copies bytes from the chunks. If concurrent, the chunks which are read are duplicated, so
+     * that their positions aren't touched.
+     */
+    private int read(long position, byte[] b, int offset, int length, boolean concurrent)
+    {
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(length, fileLength - position);
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            // copy as much as possible from the current chunk
+            long filePointer = startPosition + position + bytesRead;
+            ByteBuffer chunk = chunks[(int) (filePointer >>> chunkShift)];
+            if (concurrent)
+            {
+                chunk = chunk.duplicate();
+            }
+            int chunkPointer = (int) (filePointer & chunkMask);
+            int chunkBytes = Math.min(bytesToRead - bytesRead, chunk.limit() - chunkPointer);
+            chunk.position(chunkPointer);
+            chunk.get(b, offset + bytesRead, chunkBytes);
+            bytesRead += chunkBytes;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        return new RandomAccessMemoryMappedFile(this, startPosition, streamLength);
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return fileLength;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // drop the references to the mapped buffers, they are unmapped when garbage collected
+        chunks = null;
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed;
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        checkClosed();
+        seek(pointer - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        checkClosed();
+        if (fileLength - pointer < length)
+        {
+            throw new IOException("Premature end of file, expected " + length + " bytes at offset "
+                + pointer);
+        }
+        byte[] b = new byte[length];
+        read(b, 0, length);
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return pointer >= fileLength;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.max(0, Math.min(fileLength - pointer, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Ensure that the file is not closed.
+     *
+     * @throws IOException If the file is closed.
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed)
+        {
+            throw new IOException("RandomAccessMemoryMappedFile already closed");
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.tom_roush.pdfbox.io;
+
+import java.io.IOException;
+
+/**
+ * A read only view of a part of a {@link PositionalRandomAccessRead} with its own position. All
+ * data is read using {@link PositionalRandomAccessRead#read(long, byte[], int, int)}, so that the
+ * position of the underlying data and of other views isn't affected. A small buffer of its own
+ * reduces the number of reads of the underlying data.
+ */
+public class RandomAccessReadView implements PositionalRandomAccessRead
+{
+    private static final int BUFFER_SIZE = 4096;
+
+    // the underlying data
+    private final PositionalRandomAccessRead source;
+    // start position of the view within the underlying data
+    private final long startPosition;
+    // length of the view
+    private final long streamLength;
+    // current position within the view
+    private long position;
+    // buffered data, starting at bufferStart within the view
+    private byte[] buffer;
+    private long bufferStart;
+    private int bufferLength;
+    private boolean isClosed;
+
+    /**
+     * Constructor.
+     *
+     * @param source the underlying data
+     * @param startPosition start position of the view within the underlying data
+     * @param streamLength length of the view
+     */
+    public RandomAccessReadView(PositionalRandomAccessRead source, long startPosition,
+        long streamLength)
+    {
+        this.source = source;
+        this.startPosition = startPosition;
+        this.streamLength = streamLength;
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long newPosition) throws IOException
+    {
+        checkClosed();
+        if (newPosition < 0)
+        {
+            throw new IOException("Invalid position " + newPosition);
+        }
+        position = newPosition;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (position >= streamLength)
+        {
+            return -1;
+        }
+        if (position < bufferStart || position >= bufferStart + bufferLength)
+        {
+            fillBuffer();
+        }
+        return buffer[(int) (position++ - bufferStart)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position >= streamLength)
+        {
+            return -1;
+        }
+        int bytesRead;
+        if (length < BUFFER_SIZE)
+        {
+            // small reads are served from the buffer
+            if (position < bufferStart || position >= bufferStart + bufferLength)
+            {
+                fillBuffer();
+            }
+            bytesRead = (int) Math.min(length, bufferStart + bufferLength - position);
+            System.arraycopy(buffer, (int) (position - bufferStart), b, offset, bytesRead);
+        }
+        else
+        {
+            bytesRead = read(position, b, offset, length);
+        }
+        if (bytesRead > 0)
+        {
+            position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public int read(long readPosition, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (readPosition >= streamLength)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(length, streamLength - readPosition);
+        if (readPosition >= bufferStart && readPosition + bytesToRead <= bufferStart + bufferLength)
+        {
+            // everything is buffered already
+            System.arraycopy(buffer, (int) (readPosition - bufferStart), b, offset, bytesToRead);
+            return bytesToRead;
+        }
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            int count = source.read(startPosition + readPosition + bytesRead, b, offset + bytesRead,
+                bytesToRead - bytesRead);
+            if (count <= 0)
+            {
+                break;
+            }
+            bytesRead += count;
+        }
+        return bytesRead > 0 ? bytesRead : -1;
+    }
+
+    private void fillBuffer() throws IOException
+    {
+        if (buffer == null)
+        {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        bufferStart = position;
+        bufferLength = 0;
+        int bytesToRead = (int) Math.min(BUFFER_SIZE, streamLength - position);
+        while (bufferLength < bytesToRead)
+        {
+            int count = source.read(startPosition + bufferStart + bufferLength, buffer,
+                bufferLength, bytesToRead - bufferLength);
+            if (count <= 0)
+            {
+                throw new IOException("Premature end of data at offset "
+                    + (startPosition + bufferStart + bufferLength));
+            }
+            bufferLength += count;
+        }
+    }
+
+    @Override
+    public PositionalRandomAccessRead createView(long viewStartPosition, long viewLength)
+        throws IOException
+    {
+        checkClosed();
+        return new RandomAccessReadView(source, startPosition + viewStartPosition, viewLength);
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return streamLength;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // the underlying data isn't closed
+        buffer = null;
+        bufferLength = 0;
+        isClosed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed || source.isClosed();
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        seek(position - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        checkClosed();
+        if (streamLength - position < length)
+        {
+            throw new IOException("Premature end of data, expected " + length
+                + " bytes at offset " + position);
+        }
+        byte[] b = new byte[length];
+        int bytesRead = 0;
+        while (bytesRead < length)
+        {
+            bytesRead += read(b, bytesRead, length - bytesRead);
+        }
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return position >= streamLength;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.max(0, Math.min(streamLength - position, Integer.MAX_VALUE));
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("RandomAccessReadView already closed");
+        }
+    }
+}
@@ -23,7 +23,7 @@ import java.io.IOException;
  * Implementation of {@link RandomAccess} as sequence of multiple fixed size pages handled
  * by {@link ScratchFile}.
  */
-class ScratchFileBuffer implements RandomAccess
+class ScratchFileBuffer implements RandomAccess, PositionalRandomAccessRead
 {
     private final int pageSize;
     /**
@@ -476,6 +476,56 @@ class ScratchFileBuffer implements RandomAccess
         return totalBytesRead;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        checkClosed();
+        if (position >= size)
+        {
+            return -1;
+        }
+        int remain = (int) Math.min(len, size - position);
+        int totalBytesRead = 0;
+        while (remain > 0)
+        {
+            long currentPosition = position + totalBytesRead;
+            int pagePosition = (int) (currentPosition / pageSize);
+            // the current page may not have been written to the page handler yet
+            byte[] page = pagePosition == currentPagePositionInPageIndexes && currentPageContentChanged
+                ? currentPage : pageHandler.readPage(pageIndexes[pagePosition]);
+            int positionInReadPage = (int) (currentPosition - ((long) pagePosition) * pageSize);
+            int readBytes = Math.min(remain, pageSize - positionInReadPage);
+            System.arraycopy(page, positionInReadPage, b, off + totalBytesRead, readBytes);
+            totalBytesRead += readBytes;
+            remain -= readBytes;
+        }
+        return totalBytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Like all other methods of this buffer, this must not be called concurrently with other
+     * calls. Once created, views only read pages from the page handler and can be read
+     * concurrently, as long as the buffer isn't written anymore.
+     */
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        // hand over the current page, views only read pages from the page handler
+        if (currentPageContentChanged)
+        {
+            pageHandler.writePage(pageIndexes[currentPagePositionInPageIndexes], currentPage);
+            currentPageContentChanged = false;
+        }
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
     /**
      * {@inheritDoc}
      */
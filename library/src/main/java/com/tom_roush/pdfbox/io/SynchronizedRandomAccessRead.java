@@ -0,0 +1,186 @@
+package com.tom_roush.pdfbox.io;
+
+import java.io.IOException;
+
+/**
+ * Makes a {@link RandomAccessRead} which doesn't support positional reads usable as
+ * {@link PositionalRandomAccessRead}. A positional read seeks to the position, reads and seeks
+ * back. All methods lock the underlying data, so that positional reads and views don't interfere
+ * with reads at the current position. The underlying data must only be accessed through this
+ * instance afterwards.
+ */
+public class SynchronizedRandomAccessRead implements PositionalRandomAccessRead
+{
+    private final RandomAccessRead source;
+
+    /**
+     * Constructor.
+     *
+     * @param source the underlying data
+     */
+    public SynchronizedRandomAccessRead(RandomAccessRead source)
+    {
+        this.source = source;
+    }
+
+    /**
+     * Returns the given data if it supports positional reads, otherwise a synchronized wrapper.
+     *
+     * @param source the data
+     * @return the data with support of positional reads
+     */
+    public static PositionalRandomAccessRead wrap(RandomAccessRead source)
+    {
+        if (source instanceof PositionalRandomAccessRead)
+        {
+            return (PositionalRandomAccessRead) source;
+        }
+        return new SynchronizedRandomAccessRead(source);
+    }
+
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        synchronized (source)
+        {
+            if (position >= source.length())
+            {
+                return -1;
+            }
+            long oldPosition = source.getPosition();
+            try
+            {
+                source.seek(position);
+                return source.read(b, offset, length);
+            }
+            finally
+            {
+                source.seek(oldPosition);
+            }
+        }
+    }
+
+    @Override
+    public PositionalRandomAccessRead createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.read();
+        }
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        synchronized (source)
+        {
+            return source.read(b);
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        synchronized (source)
+        {
+            return source.read(b, offset, length);
+        }
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.getPosition();
+        }
+    }
+
+    @Override
+    public void seek(long position) throws IOException
+    {
+        synchronized (source)
+        {
+            source.seek(position);
+        }
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.length();
+        }
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        synchronized (source)
+        {
+            return source.isClosed();
+        }
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.peek();
+        }
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        synchronized (source)
+        {
+            source.rewind(bytes);
+        }
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        synchronized (source)
+        {
+            return source.readFully(length);
+        }
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.isEOF();
+        }
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        synchronized (source)
+        {
+            return source.available();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (source)
+        {
+            source.close();
+        }
+    }
+}
@@ -14,7 +14,6 @@ import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
 import com.tom_roush.pdfbox.cos.COSString;
-import com.tom_roush.pdfbox.util.Charsets;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -99,6 +98,12 @@ public abstract class BaseParser
 	 */
 	protected COSDocument document;
 
+    /**
+     * Reusable buffer for the bytes of number and name tokens, so that no String is created per
+     * token.
+     */
+    private byte[] tokenBuffer = new byte[32];
+
     /**
      * Default constructor.
      */
@@ -701,7 +706,7 @@ public abstract class BaseParser
 	protected COSName parseCOSName() throws IOException
 	{
 		readExpectedChar('/');
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int length = 0;
         int c = seqSource.read();
         while (c != -1)
         {
@@ -720,22 +725,15 @@ public abstract class BaseParser
 				//
 				if (isHexDigit(ch1) && isHexDigit(ch2))
 				{
-					String hex = "" + ch1 + ch2;
-					try
-					{
-                        buffer.write(Integer.parseInt(hex, 16));
-                    }
-                    catch (NumberFormatException e)
-                    {
-                        throw new IOException("Error: expected hex digit, actual='" + hex + "'", e);
-                    }
+                    length = appendToTokenBuffer(length,
+                        Character.digit(ch1, 16) << 4 | Character.digit(ch2, 16));
                     c = seqSource.read();
                 }
                 else
                 {
                     seqSource.unread(ch2);
                     c = ch1;
-                    buffer.write(ch);
+                    length = appendToTokenBuffer(length, ch);
                 }
             }
             else if (isEndOfName(ch))
@@ -744,7 +742,7 @@ public abstract class BaseParser
 			}
 			else
 			{
-                buffer.write(ch);
+                length = appendToTokenBuffer(length, ch);
                 c = seqSource.read();
             }
         }
@@ -752,8 +750,7 @@ public abstract class BaseParser
         {
             seqSource.unread(c);
         }
-        String string = new String(buffer.toByteArray(), Charsets.UTF_8);
-        return COSName.getPDFName(string);
+        return COSName.getPDFName(tokenBuffer, 0, length);
     }
 
 	/**
@@ -894,27 +891,25 @@ public abstract class BaseParser
                 return null;
             default:
             {
-                if (Character.isDigit(c) || c == '-' || c == '+' || c == '.')
+                if (isDigit(c) || c == '-' || c == '+' || c == '.')
                 {
-                    StringBuilder buf = new StringBuilder();
+                    int length = 0;
                     int ic = seqSource.read();
-                    c = (char) ic;
-                    while (Character.isDigit(c) ||
-                        c == '-' ||
-                        c == '+' ||
-                        c == '.' ||
-                        c == 'E' ||
-                        c == 'e')
+                    while (isDigit(ic) ||
+                        ic == '-' ||
+                        ic == '+' ||
+                        ic == '.' ||
+                        ic == 'E' ||
+                        ic == 'e')
                     {
-                        buf.append(c);
+                        length = appendToTokenBuffer(length, ic);
                         ic = seqSource.read();
-                        c = (char) ic;
                 }
                     if (ic != -1)
                     {
                         seqSource.unread(ic);
                     }
-                retval = COSNumber.get(buf.toString());
+                retval = createNumber(length);
             }
             else
             {
@@ -1291,15 +1286,15 @@ public abstract class BaseParser
 		skipSpaces();
 		int retval = 0;
 
-		StringBuilder intBuffer = readStringNumber();
+		int length = readNumberBytes();
 
 		try
 		{
-			retval = Integer.parseInt( intBuffer.toString() );
+			retval = (int) parseNumberBuffer(length, Integer.MAX_VALUE);
 		}
 		catch( NumberFormatException e )
 		{
-            seqSource.unread(intBuffer.toString().getBytes(ISO_8859_1));
+            seqSource.unread(Arrays.copyOf(tokenBuffer, length));
             throw new IOException(
                 "Error: Expected an integer type at offset " + seqSource.getPosition(), e);
         }
@@ -1319,21 +1314,59 @@ public abstract class BaseParser
 		skipSpaces();
 		long retval = 0;
 
-		StringBuilder longBuffer = readStringNumber();
+		int length = readNumberBytes();
 
 		try
 		{
-			retval = Long.parseLong( longBuffer.toString() );
+			retval = parseNumberBuffer(length, Long.MAX_VALUE);
 		}
 		catch( NumberFormatException e )
 		{
-            seqSource.unread(longBuffer.toString().getBytes(ISO_8859_1));
+            seqSource.unread(Arrays.copyOf(tokenBuffer, length));
             throw new IOException("Error: Expected a long type at offset "
-                + seqSource.getPosition() + ", instead got '" + longBuffer + "'", e);
+                + seqSource.getPosition() + ", instead got '"
+                + new String(tokenBuffer, 0, length, ISO_8859_1) + "'", e);
         }
         return retval;
     }
 
+    /**
+     * Parses the integer within the first bytes of the token buffer, like Long.parseLong()
+     * would do, but without creating a String.
+     *
+     * @param length the length of the number within the token buffer
+     * @param maxValue the maximum positive value
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes don't represent an integer within the range
+     */
+    private long parseNumberBuffer(int length, long maxValue)
+    {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (tokenBuffer[0] == '-' || tokenBuffer[0] == '+'))
+        {
+            negative = tokenBuffer[0] == '-';
+            i++;
+        }
+        if (i == length)
+        {
+            throw new NumberFormatException("Missing digits");
+        }
+        // the negative range is one larger, except for long values where it doesn't matter
+        long limit = negative && maxValue < Long.MAX_VALUE ? maxValue + 1 : maxValue;
+        long value = 0;
+        for (; i < length; i++)
+        {
+            int digit = tokenBuffer[i] - ASCII_ZERO;
+            if (digit < 0 || digit > 9 || value > (limit - digit) / 10)
+            {
+                throw new NumberFormatException(new String(tokenBuffer, 0, length, ISO_8859_1));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
 	/**
 	 * This method is used to read a token by the {@linkplain #readInt()} method
 	 * and the {@linkplain #readLong()} method.
@@ -1342,9 +1375,22 @@ public abstract class BaseParser
      * @throws IOException throws by the {@link #seqSource} methods.
      */
     protected final StringBuilder readStringNumber() throws IOException
+    {
+        int length = readNumberBytes();
+        return new StringBuilder(new String(tokenBuffer, 0, length, ISO_8859_1));
+    }
+
+    /**
+     * Reads a number token into the token buffer, using the same delimiters as
+     * {@link #readStringNumber()}.
+     *
+     * @return the length of the token within the token buffer
+     * @throws IOException throws by the {@link #seqSource} methods.
+     */
+    private int readNumberBytes() throws IOException
     {
         int lastByte = 0;
-        StringBuilder buffer = new StringBuilder();
+        int length = 0;
         while ((lastByte = seqSource.read()) != ASCII_SPACE &&
             lastByte != ASCII_LF &&
             lastByte != ASCII_CR &&
@@ -1354,12 +1400,53 @@ public abstract class BaseParser
             lastByte != 0 && //See sourceforge bug 853328
             lastByte != -1)
         {
-            buffer.append((char) lastByte);
+            length = appendToTokenBuffer(length, lastByte);
         }
         if (lastByte != -1)
         {
             seqSource.unread(lastByte);
         }
-        return buffer;
+        return length;
+    }
+
+    /**
+     * Creates a number object from the first bytes of the token buffer.
+     *
+     * @param length the length of the number within the buffer
+     * @return the number object
+     * @throws IOException If the bytes don't represent a number.
+     */
+    protected final COSNumber createNumber(int length) throws IOException
+    {
+        return COSNumber.get(tokenBuffer, 0, length);
+    }
+
+    /**
+     * Converts the first bytes of the token buffer to a double without creating any object.
+     *
+     * @param length the length of the number within the buffer
+     * @return the value, or {@link Double#NaN} if it has to be converted with
+     * {@link #createNumber(int)}
+     */
+    protected final double parseDecimal(int length)
+    {
+        return COSNumber.parseDecimal(tokenBuffer, 0, length);
+    }
+
+    /**
+     * Appends the given byte to the token buffer, which is enlarged if necessary.
+     *
+     * @param length the current length of the number within the buffer
+     * @param b the byte to be appended
+     * @return the new length
+     */
+    protected final int appendToTokenBuffer(int length, int b)
+    {
+        if (length == tokenBuffer.length)
+        {
+            tokenBuffer = Arrays.copyOf(tokenBuffer, length * 2);
+        }
+        tokenBuffer[length] = (byte) b;
+        return length + 1;
     }
 }
\ No newline at end of file
@@ -0,0 +1,371 @@
+package com.tom_roush.pdfbox.pdfparser;
+
+import android.util.Log;
+
+import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.io.PositionalRandomAccessRead;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a damaged file for the markers needed to rebuild its cross reference information: object
+ * headers "n g obj", xref tables and xref streams. The file is split into chunks which are searched
+ * for all markers at once using {@link KeywordSearch}. The chunks are scanned in parallel using
+ * positional reads, so the position of the source isn't touched. The results of the chunks are
+ * merged in the order of the file, so they are the same as if the file was scanned sequentially.
+ * Small files are scanned on the calling thread, larger ones on a thread pool shared by all
+ * scanners.
+ */
+final class BruteForceScanner
+{
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    // files with fewer chunks are scanned sequentially, a thread pool isn't worth it
+    private static final int PARALLEL_CHUNKS = 4;
+
+    // idle threads of the shared pool end after this time
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    // created when needed, shared by all scanners
+    private static ExecutorService executor;
+
+    // enough for the search of the object header of an xref stream, everything before is read byte by byte
+    private static final int LOOK_BEHIND = 512;
+
+    private static final byte[] OBJ = { ' ', 'o', 'b', 'j' };
+    private static final byte[] XREF_TABLE = { 'x', 'r', 'e', 'f' };
+    private static final byte[] XREF_STREAM = { '/', 'X', 'R', 'e', 'f' };
+    private static final KeywordSearch MARKER_SEARCH = new KeywordSearch(OBJ, XREF_TABLE, XREF_STREAM);
+
+    private final PositionalRandomAccessRead source;
+    private final long minimumOffset;
+    private final long sourceLength;
+
+    private final Map<COSObjectKey, Long> objectOffsets = new HashMap<COSObjectKey, Long>();
+    private final List<Long> xrefTableOffsets = new ArrayList<Long>();
+    private final List<Long> xrefStreamOffsets = new ArrayList<Long>();
+
+    /**
+     * Scans the given source.
+     *
+     * @param source the source to be scanned, which has to support concurrent positional reads
+     * @param minimumOffset the offset where the search starts
+     * @throws IOException if the source can't be read
+     */
+    BruteForceScanner(PositionalRandomAccessRead source, long minimumOffset) throws IOException
+    {
+        this.source = source;
+        this.minimumOffset = minimumOffset;
+        this.sourceLength = source.length();
+        scan();
+    }
+
+    /**
+     * Returns the offsets of all object headers. If an object was found more than once the last
+     * offset is used.
+     */
+    Map<COSObjectKey, Long> getObjectOffsets()
+    {
+        return objectOffsets;
+    }
+
+    /**
+     * Returns the offsets of all xref tables.
+     */
+    List<Long> getXrefTableOffsets()
+    {
+        return xrefTableOffsets;
+    }
+
+    /**
+     * Returns the offsets of the objects containing an xref stream.
+     */
+    List<Long> getXrefStreamOffsets()
+    {
+        return xrefStreamOffsets;
+    }
+
+    private void scan() throws IOException
+    {
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        for (long start = minimumOffset; start < sourceLength; start += CHUNK_SIZE)
+        {
+            chunks.add(new Chunk(start, Math.min(start + CHUNK_SIZE, sourceLength)));
+        }
+        if (chunks.size() < PARALLEL_CHUNKS || THREADS <= 1)
+        {
+            for (Chunk chunk : chunks)
+            {
+                merge(chunk.call());
+            }
+            return;
+        }
+        try
+        {
+            // all chunks are done afterwards, or cancelled if interrupted
+            for (Future<Chunk> future : getExecutor().invokeAll(chunks))
+            {
+                merge(future.get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Brute force search was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the thread pool shared by all scanners. Its threads are daemons and end when they
+     * are idle, so the pool doesn't need to be shut down.
+     */
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "PdfBox-BruteForceScanner");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    private void merge(Chunk chunk)
+    {
+        for (long[] object : chunk.objects)
+        {
+            objectOffsets.put(new COSObjectKey(object[0], (int) object[1]), object[2]);
+        }
+        xrefTableOffsets.addAll(chunk.xrefTables);
+        xrefStreamOffsets.addAll(chunk.xrefStreams);
+    }
+
+    private static boolean isDigit(int c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c)
+    {
+        return c == 0 || c == 9 || c == 12 || c == 10 || c == 13 || c == 32;
+    }
+
+    /**
+     * Scans a part of the file. Markers starting within the chunk are found, the bytes around it
+     * are read as far as needed.
+     */
+    private final class Chunk implements Callable<Chunk>
+    {
+        private final long start;
+        private final long end;
+        private byte[] buffer;
+        private long bufferStart;
+        private final byte[] singleByte = new byte[1];
+
+        // object number, generation number and offset of each object header
+        private final List<long[]> objects = new ArrayList<long[]>();
+        private final List<Long> xrefTables = new ArrayList<Long>();
+        private final List<Long> xrefStreams = new ArrayList<Long>();
+
+        private Chunk(long start, long end)
+        {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Chunk call() throws IOException
+        {
+            bufferStart = Math.max(0, start - LOOK_BEHIND);
+            // the markers may extend beyond the end of the chunk
+            long bufferEnd = Math.min(end + XREF_STREAM.length, sourceLength);
+            buffer = new byte[(int) (bufferEnd - bufferStart)];
+            int length = 0;
+            while (length < buffer.length)
+            {
+                int read = source.read(bufferStart + length, buffer, length,
+                    buffer.length - length);
+                if (read <= 0)
+                {
+                    break;
+                }
+                length += read;
+            }
+            int from = (int) (start - bufferStart);
+            int to = (int) (end - bufferStart);
+            int index;
+            while ((index = MARKER_SEARCH.indexOf(buffer, from, to, length)) >= 0)
+            {
+                long position = bufferStart + index;
+                switch (MARKER_SEARCH.keywordAt(buffer, index, length))
+                {
+                    case 0:
+                        addObject(position);
+                        break;
+                    case 1:
+                        // ensure that we don't read "startxref" instead of "xref"
+                        if (isWhitespace(byteAt(position - 1)))
+                        {
+                            xrefTables.add(position);
+                        }
+                        break;
+                    default:
+                        addXrefStream(position);
+                        break;
+                }
+                from = index + 1;
+            }
+            buffer = null;
+            return this;
+        }
+
+        private int byteAt(long position) throws IOException
+        {
+            long index = position - bufferStart;
+            if (index >= 0 && index < buffer.length)
+            {
+                return buffer[(int) index] & 0xff;
+            }
+            if (position < 0 || source.read(position, singleByte, 0, 1) <= 0)
+            {
+                return -1;
+            }
+            return singleByte[0] & 0xff;
+        }
+
+        private boolean matches(long position, byte[] pattern) throws IOException
+        {
+            for (int i = 0; i < pattern.length; i++)
+            {
+                if (byteAt(position + i) != pattern[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Reads the object and generation number in front of " obj".
+         */
+        private void addObject(long objPosition) throws IOException
+        {
+            long offset = objPosition - 1;
+            int genID = byteAt(offset);
+            if (!isDigit(genID))
+            {
+                return;
+            }
+            offset--;
+            if (byteAt(offset) != ' ')
+            {
+                return;
+            }
+            while (offset > minimumOffset && byteAt(offset) == ' ')
+            {
+                offset--;
+            }
+            int length = 0;
+            while (offset > minimumOffset && isDigit(byteAt(offset)))
+            {
+                offset--;
+                length++;
+            }
+            if (length == 0)
+            {
+                return;
+            }
+            long objectID = 0;
+            for (int i = 1; i <= length; i++)
+            {
+                int digit = byteAt(offset + i) - '0';
+                if (objectID > (Long.MAX_VALUE - digit) / 10)
+                {
+                    // not a valid object number
+                    return;
+                }
+                objectID = objectID * 10 + digit;
+            }
+            objects.add(new long[] { objectID, genID - '0', offset + 1 });
+        }
+
+        /**
+         * Searches backwards for the header of the object containing an xref stream.
+         */
+        private void addXrefStream(long xrefPosition) throws IOException
+        {
+            long newOffset = -1;
+            search:
+            for (int i = 1; i < 30; i++)
+            {
+                long currentOffset = xrefPosition - (i * 10);
+                if (currentOffset <= 0)
+                {
+                    continue;
+                }
+                for (int j = 0; j < 10; j++, currentOffset++)
+                {
+                    if (!matches(currentOffset, OBJ))
+                    {
+                        continue;
+                    }
+                    long offset = currentOffset - 1;
+                    if (isDigit(byteAt(offset)) && byteAt(--offset) == ' ')
+                    {
+                        int length = 0;
+                        offset--;
+                        while (offset > minimumOffset && isDigit(byteAt(offset)))
+                        {
+                            offset--;
+                            length++;
+                        }
+                        if (length > 0)
+                        {
+                            newOffset = offset + 1;
+                        }
+                    }
+                    Log.d("PdfBox-Android", "Fixed reference for xref stream " + xrefPosition
+                        + " -> " + newOffset);
+                    break search;
+                }
+            }
+            if (newOffset > -1)
+            {
+                xrefStreams.add(newOffset);
+            }
+        }
+    }
+}
@@ -12,12 +12,18 @@ import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
 import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.cos.ICOSParser;
+import com.tom_roush.pdfbox.cos.XrefTable;
+import com.tom_roush.pdfbox.io.PositionalRandomAccessRead;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
+import com.tom_roush.pdfbox.io.SynchronizedRandomAccessRead;
 import com.tom_roush.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import com.tom_roush.pdfbox.pdmodel.encryption.SecurityHandler;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -25,6 +31,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +39,6 @@ import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.Vector;
 
 import static com.tom_roush.pdfbox.util.Charsets.ISO_8859_1;
 
@@ -46,7 +52,7 @@ import static com.tom_roush.pdfbox.util.Charsets.ISO_8859_1;
  * This class is a much enhanced version of <code>QuickParser</code> presented in <a
  * href="https://issues.apache.org/jira/browse/PDFBOX-1104">PDFBOX-1104</a> by Jeremy Villalobos.
  */
-public class COSParser extends BaseParser
+public class COSParser extends BaseParser implements ICOSParser
 {
 	private static final String PDF_HEADER = "%PDF-";
 	private static final String FDF_HEADER = "%FDF-";
@@ -55,7 +61,6 @@ public class COSParser extends BaseParser
 	private static final String FDF_DEFAULT_VERSION = "1.0";
 
 	private static final char[] XREF_TABLE = new char[] { 'x', 'r', 'e', 'f' };
-	private static final char[] XREF_STREAM = new char[] { '/', 'X', 'R', 'e', 'f' };
 	private static final char[] STARTXREF = new char[] { 's','t','a','r','t','x','r','e','f' };
 
     public static final byte[] ENDSTREAM = new byte[]{E, N, D, S, T, R, E, A, M};
@@ -66,10 +71,15 @@ public class COSParser extends BaseParser
 
 	private static final int X = 'x';
 
-    private static final int STRMBUFLEN = 2048;
+    private static final int STRMBUFLEN = 65536;
     private final byte[] strmBuf = new byte[STRMBUFLEN];
 
+    // some streams are closed by 'endobj' instead of 'endstream'
+    private static final KeywordSearch END_OF_STREAM_SEARCH = new KeywordSearch(ENDSTREAM, ENDOBJ);
+
     protected final RandomAccessRead source;
+    // the same as source, used for stream data and the brute force search
+    private final PositionalRandomAccessRead positionalSource;
 
 	/**
 	 * Only parse the PDF file minimally allowing access to basic information.
@@ -118,6 +128,7 @@ public class COSParser extends BaseParser
 	private Map<COSObjectKey, Long> bfSearchCOSObjectKeyOffsets = null;
 	private List<Long> bfSearchXRefTablesOffsets = null;
 	private List<Long> bfSearchXRefStreamsOffsets = null;
+	private BruteForceScanner bruteForceScanner = null;
 
 	/**
 	 * The security handler.
@@ -136,12 +147,61 @@ public class COSParser extends BaseParser
 	 */
 	private final boolean parseMinimalCatalog = "true".equals(System.getProperty(SYSPROP_PARSEMINIMAL));
 
+	/**
+	 * If <code>true</code> only the trailer, the xref tables and the catalog are parsed initially; all other
+	 * objects are parsed when they are dereferenced for the first time.
+	 */
+	private boolean lazyLoading = parseMinimalCatalog;
+
+	/**
+	 * The maximum number of lazily parsed objects kept in memory, 0 if there is no limit.
+	 */
+	private int maxParsedObjects;
+
+	/**
+	 * The lazily parsed objects which may be evicted, only used if there is a limit. Objects which
+	 * were accessed since they were last checked are moved to the end, which approximates the
+	 * least recently used order without adding work to each access.
+	 */
+	private final Queue<COSObject> parsedObjectQueue = new ArrayDeque<COSObject>();
+
 	/**
 	 * Collects all Xref/trailer objects and resolves them into single
 	 *  object using startxref reference.
 	 */
 	protected XrefTrailerResolver xrefTrailerResolver = new XrefTrailerResolver();
 
+	// the number of most recently used object streams which are always kept
+	private static final int RECENT_OBJECT_STREAMS = 4;
+
+	/**
+	 * The decoded object streams which weren't used recently, by object number of the stream.
+	 */
+	private final Map<Integer, SoftReference<PDFObjectStreamParser>> objectStreamCache =
+		new HashMap<Integer, SoftReference<PDFObjectStreamParser>>();
+
+	/**
+	 * The most recently used decoded object streams, by object number of the stream. The least
+	 * recently used one is moved to the soft references of {@link #objectStreamCache} when
+	 * another one is added, because soft references are cleared by almost every collection on
+	 * Android.
+	 */
+	private final Map<Integer, PDFObjectStreamParser> recentObjectStreams =
+		new LinkedHashMap<Integer, PDFObjectStreamParser>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, PDFObjectStreamParser> eldest)
+		{
+			if (size() <= RECENT_OBJECT_STREAMS)
+			{
+				return false;
+			}
+			objectStreamCache.put(eldest.getKey(),
+				new SoftReference<PDFObjectStreamParser>(eldest.getValue()));
+			return true;
+		}
+	};
+
 	/**
 	 * The prefix for the temp file being used.
 	 */
@@ -151,9 +211,19 @@ public class COSParser extends BaseParser
 	 * Default constructor.
 	 */
     public COSParser(RandomAccessRead source)
+    {
+        this(SynchronizedRandomAccessRead.wrap(source));
+    }
+
+    /**
+     * Constructor for a source which supports positional reads. Sources which don't are wrapped
+     * by the public constructor.
+     */
+    private COSParser(PositionalRandomAccessRead source)
     {
         super(new RandomAccessSource(source));
         this.source = source;
+        positionalSource = source;
     }
 
 	/**
@@ -457,6 +527,110 @@ public class COSParser extends BaseParser
 		this.isLenient = lenient;
 	}
 
+	/**
+	 * Return true if the document is loaded lazily, i.e. objects are parsed on first access.
+	 *
+	 * @return true if lazy loading is enabled
+	 */
+	public boolean isLazyLoading()
+	{
+		return lazyLoading;
+	}
+
+	/**
+	 * Enables or disables lazy loading. If enabled, only the trailer, the xref tables and the catalog
+	 * are parsed when the document is opened and every other object is parsed when it is dereferenced
+	 * for the first time. The source has to stay open as long as the document is used.
+	 *
+	 * This method can only be called before the parsing of the file.
+	 *
+	 * @param lazy load the objects on demand.
+	 */
+	public void setLazyLoading(boolean lazy)
+	{
+		if (initialParseDone)
+		{
+			throw new IllegalArgumentException("Cannot change lazy loading after parsing");
+		}
+		this.lazyLoading = lazy;
+	}
+
+	/**
+	 * Returns the maximum number of lazily parsed objects which are kept in memory.
+	 *
+	 * @return the maximum number of objects, or 0 if parsed objects are never dropped
+	 */
+	public int getMaxParsedObjects()
+	{
+		return maxParsedObjects;
+	}
+
+	/**
+	 * Limits the number of lazily parsed objects which are kept in memory. If more objects have
+	 * been dereferenced, the least recently used ones are dropped, so that huge documents can be
+	 * processed page by page with a bounded heap. Dropped objects which are still referenced
+	 * elsewhere, e.g. by a PD wrapper, are reused on their next access, the others are parsed
+	 * again. See {@link COSObject#evict(ICOSParser)} for the objects which
+	 * are kept. Modifications which aren't marked as updated may be lost, so this must only be used
+	 * for documents which are read and not modified. The limit only applies if lazy loading is
+	 * enabled and the document is accessed by a single thread.
+	 *
+	 * @param maxParsedObjects the maximum number of objects, or 0 to keep all parsed objects
+	 */
+	public synchronized void setMaxParsedObjects(int maxParsedObjects)
+	{
+		this.maxParsedObjects = maxParsedObjects;
+		evictParsedObjects();
+	}
+
+	private void evictParsedObjects()
+	{
+		// the loop ends as the flags of all objects are cleared after one round at the latest
+		while (maxParsedObjects > 0 && parsedObjectQueue.size() > maxParsedObjects)
+		{
+			COSObject object = parsedObjectQueue.poll();
+			if (object.clearAccessed())
+			{
+				// used recently, it gets a second chance
+				parsedObjectQueue.add(object);
+			}
+			else
+			{
+				// objects which can't be dropped stay in memory without being tracked any longer
+				object.evict(this);
+			}
+		}
+	}
+
+	/**
+	 * Parses the object referenced by the given proxy. The current position of the source is
+	 * restored afterwards, as this may be called while another object is being parsed. Calls from
+	 * different threads are serialized, the data of parsed streams can be read concurrently.
+	 *
+	 * @param obj the object to be dereferenced
+	 * @return the parsed object
+	 * @throws IOException if something went wrong
+	 */
+	@Override
+	public synchronized COSBase dereferenceCOSObject(COSObject obj) throws IOException
+	{
+		final long currentOffset = source.getPosition();
+		try
+		{
+			COSBase parsedObject = parseObjectDynamically(obj, false);
+			if (maxParsedObjects > 0 && parsedObject != null)
+			{
+				parsedObjectQueue.add(obj);
+				evictParsedObjects();
+			}
+			return parsedObject;
+		}
+		finally
+		{
+			source.seek(currentOffset);
+		}
+	}
+
 	/**
 	 * Creates a unique object id using object number and object generation
 	 * number. (requires object number &lt; 2^31))
@@ -662,62 +836,94 @@ public class COSParser extends BaseParser
 		final COSObjectKey objKey = new COSObjectKey(objNr, objGenNr);
 		final COSObject pdfObject = document.getObjectFromPool(objKey);
 
-		if (pdfObject.getObject() == null)
+		if (pdfObject.isObjectNull() && !pdfObject.restoreEvictedObject())
 		{
-			// not previously parsed
+			// not previously parsed, or evicted and not referenced anymore
 			// ---- read offset or object stream object number from xref table
-			Long offsetOrObjstmObNr = xrefTrailerResolver.getXrefTable().get(objKey);
+			XrefTable xrefTable = xrefTrailerResolver.getXrefTable();
+			long offsetOrObjstmObNr = xrefTable.getOffset(objKey);
 
 			// sanity test to circumvent loops with broken documents
 			if (requireExistingNotCompressedObj
-				&& ((offsetOrObjstmObNr == null) || (offsetOrObjstmObNr <= 0)))
+				&& ((offsetOrObjstmObNr == XrefTable.NOT_FOUND) || (offsetOrObjstmObNr <= 0)))
 			{
 				throw new IOException("Object must be defined and must not be compressed object: "
 					+ objKey.getNumber() + ":" + objKey.getGeneration());
 			}
 
             // maybe something is wrong with the xref table -> perform brute force search for all objects
-            if (offsetOrObjstmObNr == null && isLenient && bfSearchCOSObjectKeyOffsets == null)
+            if (offsetOrObjstmObNr == XrefTable.NOT_FOUND && isLenient
+                && bfSearchCOSObjectKeyOffsets == null)
             {
                 bfSearchForObjects();
                 if (bfSearchCOSObjectKeyOffsets != null && !bfSearchCOSObjectKeyOffsets.isEmpty())
                 {
                     Log.d("PdfBox-Android",
                         "Add all new read objects from brute force search to the xref table");
-                    Map<COSObjectKey, Long> xrefOffset = xrefTrailerResolver.getXrefTable();
-                    for (COSObjectKey key : bfSearchCOSObjectKeyOffsets.keySet())
+                    for (Entry<COSObjectKey, Long> entry : bfSearchCOSObjectKeyOffsets.entrySet())
                     {
                         // add all missing objects to the xref table
-                        if (!xrefOffset.containsKey(key))
+                        if (!xrefTable.containsKey(entry.getKey()))
                         {
-                            xrefOffset.put(key, bfSearchCOSObjectKeyOffsets.get(key));
+                            xrefTable.setOffset(entry.getKey(), entry.getValue());
                         }
                     }
-                    offsetOrObjstmObNr = xrefOffset.get(objKey);
+                    offsetOrObjstmObNr = xrefTable.getOffset(objKey);
                 }
             }
 
-			if (offsetOrObjstmObNr == null)
+			if (offsetOrObjstmObNr == XrefTable.NOT_FOUND)
 			{
 				// not defined object -> NULL object (Spec. 1.7, chap. 3.2.9)
 				pdfObject.setObject(COSNull.NULL);
 			}
 			else if (offsetOrObjstmObNr > 0)
 			{
+				if (lazyLoading)
+				{
+					// the offsets weren't checked when reading the xref, do it now
+					offsetOrObjstmObNr = checkLazyObjectOffset(objKey, offsetOrObjstmObNr);
+				}
 				// offset of indirect object in file
                 parseFileObject(offsetOrObjstmObNr, objKey, pdfObject);
             }
             else
             {
                 // xref value is object nr of object stream containing object to be parsed
-                // since our object was not found it means object stream was not parsed so far
-                parseObjectStream((int) -offsetOrObjstmObNr);
+                parseObjectStream((int) -offsetOrObjstmObNr, objKey, pdfObject);
 			}
 		}
-		return pdfObject.getObject();
+		// don't trigger a lazy dereference of an object which couldn't be parsed
+		return pdfObject.isObjectNull() ? null : pdfObject.getObject();
+	}
+
+	/**
+	 * Checks the xref offset of an object which is parsed lazily and falls back to the result of a
+	 * brute force search if the object can't be found at the given offset.
+	 *
+	 * @param objKey the key of the object
+	 * @param offset the offset given by the xref table
+	 * @return the offset to be used
+	 * @throws IOException if something went wrong
+	 */
+	private long checkLazyObjectOffset(COSObjectKey objKey, long offset) throws IOException
+	{
+		if (!isLenient || checkObjectKeys(objKey, offset))
+		{
+			return offset;
+		}
+		bfSearchForObjects();
+		Long bfOffset = bfSearchCOSObjectKeyOffsets.get(objKey);
+		if (bfOffset != null)
+		{
+			Log.d("PdfBox-Android", "Fixed offset for object " + objKey + ": " + offset + " -> " + bfOffset);
+			xrefTrailerResolver.getXrefTable().setOffset(objKey, bfOffset);
+			return bfOffset;
+		}
+		return offset;
 	}
 
-    private void parseFileObject(Long offsetOrObjstmObNr, final COSObjectKey objKey,
+    private void parseFileObject(long offsetOrObjstmObNr, final COSObjectKey objKey,
         final COSObject pdfObject) throws IOException
     {
         // ---- go to object start
@@ -801,27 +1007,38 @@ public class COSParser extends BaseParser
 		}
 	}
 
-	private void parseObjectStream(int objstmObjNr) throws IOException
+	/**
+	 * Parses a compressed object from the object stream containing it. The object stream is
+	 * decoded and indexed once and kept in a cache. The most recently used ones are kept, older
+	 * ones are released under memory pressure.
+	 */
+	private void parseObjectStream(int objstmObjNr, COSObjectKey objKey, COSObject pdfObject)
+		throws IOException
 	{
-		final COSBase objstmBaseObj = parseObjectDynamically(objstmObjNr, 0, true);
-		if (objstmBaseObj instanceof COSStream)
+		PDFObjectStreamParser parser = recentObjectStreams.get(objstmObjNr);
+		if (parser == null)
 		{
-			// parse object stream
-			PDFObjectStreamParser parser = new PDFObjectStreamParser((COSStream) objstmBaseObj, document);
-			parser.parse();
-			// get set of object numbers referenced for this object stream
-			final Set<Long> refObjNrs = xrefTrailerResolver.getContainedObjectNumbers(objstmObjNr);
-
-			// register all objects which are referenced to be contained in object stream
-			for (COSObject next : parser.getObjects())
+			SoftReference<PDFObjectStreamParser> cached = objectStreamCache.remove(objstmObjNr);
+			if (cached != null)
+			{
+				parser = cached.get();
+			}
+			if (parser == null)
 			{
-				COSObjectKey stmObjKey = new COSObjectKey(next);
-				if (refObjNrs.contains(stmObjKey.getNumber()))
+				final COSBase objstmBaseObj = parseObjectDynamically(objstmObjNr, 0, true);
+				if (!(objstmBaseObj instanceof COSStream))
 				{
-					COSObject stmObj = document.getObjectFromPool(stmObjKey);
-					stmObj.setObject(next.getObject());
+					return;
 				}
+				parser = PDFObjectStreamParser.createIndexedParser((COSStream) objstmBaseObj,
+					document);
 			}
+			recentObjectStreams.put(objstmObjNr, parser);
+		}
+		COSBase object = parser.parseObject(objKey.getNumber());
+		if (object != null)
+		{
+			pdfObject.setObject(object);
 		}
 	}
 
@@ -845,7 +1062,7 @@ public class COSParser extends BaseParser
         else if (lengthBaseObj instanceof COSObject)
         {
             COSObject lengthObj = (COSObject) lengthBaseObj;
-            if (lengthObj.getObject() == null)
+            if (lengthObj.isObjectNull())
             {
                 // not read so far, keep current stream position
                 final long curFileOffset = source.getPosition();
@@ -853,7 +1070,7 @@ public class COSParser extends BaseParser
                 parseObjectDynamically(lengthObj, isObjectStream);
                 // reset current stream position
                 source.seek(curFileOffset);
-                if (lengthObj.getObject() == null)
+                if (lengthObj.isObjectNull())
                 {
                     throw new IOException("Length object content was not read.");
                 }
@@ -873,15 +1090,13 @@ public class COSParser extends BaseParser
         return retVal;
     }
 
-	private static final int STREAMCOPYBUFLEN = 8192;
-	private final byte[] streamCopyBuf = new byte[STREAMCOPYBUFLEN];
-
     /**
      * This will read a COSStream from the input stream using length attribute within dictionary. If
      * length attribute is a indirect reference it is first resolved to get the stream length. This
-     * means we copy stream data without testing for 'endstream' or 'endobj' and thus it is no
+     * means we skip the stream data without testing for 'endstream' or 'endobj' and thus it is no
      * problem if these keywords occur within stream. We require 'endstream' to be found after
-     * stream data is read.
+     * stream data is read. If the length is valid the stream data isn't copied, the stream reads it
+     * from a view of the source instead.
      *
      * @param dic dictionary that goes with this stream.
      *
@@ -892,7 +1107,7 @@ public class COSParser extends BaseParser
 	 */
 	protected COSStream parseCOSStream(COSDictionary dic) throws IOException
 	{
-        COSStream stream = document.createCOSStream(dic);
+        COSStream stream;
 
         // read 'stream'; this was already tested in parseObjectsDynamically()
         readString();
@@ -917,23 +1132,19 @@ public class COSParser extends BaseParser
             }
         }
 
-        // get output stream to copy data to
         if (streamLengthObj != null && validateStreamLength(streamLengthObj.longValue()))
         {
-            OutputStream out = stream.createRawOutputStream();
-            try
-            {
-                readValidStream(out, streamLengthObj);
-            }
-            finally
-            {
-                out.close();
-                // restore original (possibly incorrect) length
-                stream.setItem(COSName.LENGTH, streamLengthObj);
-            }
+            // the stream data isn't copied, the stream reads it from a view of the source
+            long streamStart = source.getPosition();
+            long streamLength = streamLengthObj.longValue();
+            stream = document.createCOSStream(dic,
+                positionalSource.createView(streamStart, streamLength));
+            source.seek(streamStart + streamLength);
         }
         else
         {
+            // get output stream to copy data to
+            stream = document.createCOSStream(dic);
             OutputStream out = stream.createRawOutputStream();
             try
             {
@@ -985,123 +1196,90 @@ public class COSParser extends BaseParser
      * and just close off objects with an "endobj" tag so we have to handle
      * this case as well.
      *
-     * This method is optimized using buffered IO and reduced number of
-     * byte compare operations.
+     * The source is read in large windows which are searched using {@link KeywordSearch}, the
+     * bytes in front of the keyword are copied to the output in bulk.
      *
      * @param out stream we write out to.
      * @throws IOException if something went wrong
      */
     private void readUntilEndStream(final OutputStream out) throws IOException
     {
-        int bufSize;
-        int charMatchCount = 0;
-        byte[] keyw = ENDSTREAM;
-
-        // last character position of shortest keyword ('endobj')
-        final int quickTestOffset = 5;
-
-        // read next chunk into buffer; already matched chars are added to beginning of buffer
-        while ((bufSize = source.read(strmBuf, charMatchCount, STRMBUFLEN - charMatchCount)) > 0)
+        // a keyword may start within the last bytes of the window, keep them for the next one
+        final int keep = END_OF_STREAM_SEARCH.getMaxKeywordLength() - 1;
+        int length = 0;
+        boolean eof = false;
+        while (true)
         {
-            bufSize += charMatchCount;
-
-            int bIdx = charMatchCount;
-            int quickTestIdx;
-
-            // iterate over buffer, trying to find keyword match
-            for (int maxQuicktestIdx = bufSize - quickTestOffset; bIdx < bufSize; bIdx++)
+            int bytesRead = source.read(strmBuf, length, STRMBUFLEN - length);
+            if (bytesRead > 0)
             {
-                // reduce compare operations by first test last character we would have to
-                // match if current one matches; if it is not a character from keywords
-                // we can move behind the test character; this shortcut is inspired by the
-                // Boyer-Moore string search algorithm and can reduce parsing time by approx. 20%
-                quickTestIdx = bIdx + quickTestOffset;
-                if (charMatchCount == 0 && quickTestIdx < maxQuicktestIdx)
-                {
-                    final byte ch = strmBuf[quickTestIdx];
-                    if ((ch > 't') || (ch < 'a'))
-                    {
-                        // last character we would have to match if current character would match
-                        // is not a character from keywords -> jump behind and start over
-                        bIdx = quickTestIdx;
-                        continue;
-                    }
-                }
-
-                // could be negative - but we only compare to ASCII
-                final byte ch = strmBuf[bIdx];
-
-                if (ch == keyw[charMatchCount])
-                {
-                    if (++charMatchCount == keyw.length)
-                    {
-                        // match found
-                        bIdx++;
-                        break;
-                    }
-                }
-                else
-                {
-                    if ((charMatchCount == 3) && (ch == ENDOBJ[charMatchCount]))
-                    {
-                        // maybe ENDSTREAM is missing but we could have ENDOBJ
-                        keyw = ENDOBJ;
-                        charMatchCount++;
-                    }
-                    else
-                    {
-                        // no match; incrementing match start by 1 would be dumb since we already know
-                        // matched chars depending on current char read we may already have beginning
-                        // of a new match: 'e': first char matched; 'n': if we are at match position
-                        // idx 7 we already read 'e' thus 2 chars matched for each other char we have
-                        // to start matching first keyword char beginning with next read position
-                        charMatchCount =
-                            (ch == E) ? 1 : ((ch == N) && (charMatchCount == 7)) ? 2 : 0;
-                        // search again for 'endstream'
-                        keyw = ENDSTREAM;
-                    }
-                }
+                length += bytesRead;
             }
-
-            int contentBytes = Math.max(0, bIdx - charMatchCount);
-
-            // write buffer content until first matched char to output stream
-            if (contentBytes > 0)
+            else
             {
-                out.write(strmBuf, 0, contentBytes);
+                eof = true;
             }
-            if (charMatchCount == keyw.length)
+            int searchEnd = eof ? length : length - keep;
+            int index = END_OF_STREAM_SEARCH.indexOf(strmBuf, 0, searchEnd, length);
+            if (index >= 0)
             {
-                // keyword matched; unread matched keyword (endstream/endobj) and following buffered content
-                source.rewind(bufSize - contentBytes);
+                if (index > 0)
+                {
+                    out.write(strmBuf, 0, index);
+                }
+                // unread matched keyword (endstream/endobj) and following buffered content
+                source.rewind(length - index);
                 break;
             }
-            else
+            if (eof)
+            {
+                if (length > 0)
+                {
+                    out.write(strmBuf, 0, length);
+                }
+                break;
+            }
+            if (searchEnd > 0)
             {
-                // copy matched chars at start of buffer
-                System.arraycopy(keyw, 0, strmBuf, 0, charMatchCount);
+                out.write(strmBuf, 0, searchEnd);
+                System.arraycopy(strmBuf, searchEnd, strmBuf, 0, keep);
+                length = keep;
             }
         }
         // this writes a lonely CR or drops trailing CR LF and LF
         out.flush();
     }
 
-	private void readValidStream(OutputStream out, COSNumber streamLengthObj) throws IOException
+	/**
+	 * Checks if the keyword "endstream" follows the given position. The bytes are read with a
+	 * positional read, so the position of the source isn't changed, unless there are comments
+	 * or a lot of whitespace which are skipped by the parser.
+	 */
+	private boolean isEndStreamAt(long position) throws IOException
 	{
-		long remainBytes = streamLengthObj.longValue();
-		while (remainBytes > 0)
+		int length = Math.max(positionalSource.read(position, strmBuf, 0, 64), 0);
+		int i = 0;
+		while (i < length && isWhitespace(strmBuf[i]))
 		{
-			final int chunk = (remainBytes > STREAMCOPYBUFLEN) ? STREAMCOPYBUFLEN : (int) remainBytes;
-            final int readBytes = source.read(streamCopyBuf, 0, chunk);
-            if (readBytes <= 0)
-            {
-                // shouldn't happen, the stream length has already been validated
-                throw new IOException("read error at offset " + source.getPosition()
-                    + ": expected " + chunk + " bytes, but read() returns " + readBytes);
-            }
-            out.write(streamCopyBuf, 0, readBytes);
-			remainBytes -= readBytes;
+			i++;
 		}
+		// comments are skipped by the parser below
+		boolean comment = i < length && strmBuf[i] == '%';
+		if (!comment && i + ENDSTREAM.length <= length)
+		{
+			return END_OF_STREAM_SEARCH.keywordAt(strmBuf, i, length) == 0;
+		}
+		if (!comment && length < 64)
+		{
+			// end of file
+			return false;
+		}
+		long originOffset = source.getPosition();
+		source.seek(position);
+		skipSpaces();
+		boolean isEndStream = isString(ENDSTREAM);
+		source.seek(originOffset);
+		return isEndStream;
 	}
 
 	private boolean validateStreamLength(long streamLength) throws IOException
@@ -1117,19 +1295,13 @@ public class COSParser extends BaseParser
                     "stream start position: " + originOffset + ", length: " + streamLength +
                     ", expected end position: " + expectedEndOfStream);
         }
-        else
+        else if (!isEndStreamAt(expectedEndOfStream))
         {
-            source.seek(expectedEndOfStream);
-            skipSpaces();
-            if (!isString(ENDSTREAM))
-            {
-                streamLengthIsValid = false;
-                Log.w("PdfBox-Android",
-                    "The end of the stream doesn't point to the correct offset, using workaround to read the stream, " +
-                        "stream start position: " + originOffset + ", length: " + streamLength +
-                        ", expected end position: " + expectedEndOfStream);
-            }
-            source.seek(originOffset);
+            streamLengthIsValid = false;
+            Log.w("PdfBox-Android",
+                "The end of the stream doesn't point to the correct offset, using workaround to read the stream, " +
+                    "stream start position: " + originOffset + ", length: " + streamLength +
+                    ", expected end position: " + expectedEndOfStream);
         }
         return streamLengthIsValid;
     }
@@ -1240,8 +1412,9 @@ public class COSParser extends BaseParser
 	 */
 	private void checkXrefOffsets() throws IOException
 	{
-		// repair mode isn't available in non-lenient mode
-		if (!isLenient)
+		// repair mode isn't available in non-lenient mode, when loading lazily
+		// the offsets are checked when the objects are parsed
+		if (!isLenient || lazyLoading)
 		{
 			return;
 		}
@@ -1335,69 +1508,24 @@ public class COSParser extends BaseParser
 	 */
 	private void bfSearchForObjects() throws IOException
 	{
-		if (bfSearchCOSObjectKeyOffsets  == null)
+		if (bfSearchCOSObjectKeyOffsets == null)
 		{
-			bfSearchCOSObjectKeyOffsets = new HashMap<COSObjectKey, Long>();
-            long originOffset = source.getPosition();
-            long currentOffset = MINIMUM_SEARCH_OFFSET;
-            String objString = " obj";
-            char[] string = objString.toCharArray();
-			do
-			{
-                source.seek(currentOffset);
-                if (isString(string))
-                {
-                    long tempOffset = currentOffset - 1;
-                    source.seek(tempOffset);
-                    int genID = source.peek();
-                    // is the next char a digit?
-                    if (isDigit())
-                    {
-                        genID -= 48;
-                        tempOffset--;
-                        source.seek(tempOffset);
-                        if (isSpace())
-                        {
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isSpace())
-                            {
-                                source.seek(--tempOffset);
-                            }
-                            int length = 0;
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                            {
-                                source.seek(--tempOffset);
-                                length++;
-                            }
-                            if (length > 0)
-                            {
-                                source.read();
-                                byte[] objIDBytes = source.readFully(length);
-                                String objIdString = new String(objIDBytes, 0,
-                                    objIDBytes.length, ISO_8859_1);
-                                Long objectID;
-                                try
-                                {
-                                    objectID = Long.valueOf(objIdString);
-                                }
-                                catch (NumberFormatException exception)
-								{
-									objectID = null;
-								}
-								if (objectID != null)
-								{
-									bfSearchCOSObjectKeyOffsets.put(new COSObjectKey(objectID, genID), tempOffset + 1);
-								}
-							}
-						}
-					}
-				}
-				currentOffset++;
-			}
-            while (!source.isEOF());
-            // reestablish origin position
-            source.seek(originOffset);
-        }
-    }
+			bfSearchCOSObjectKeyOffsets = getBruteForceScanner().getObjectOffsets();
+		}
+	}
+
+	/**
+	 * Scans the whole file for objects, xref tables and xref streams, all of them are searched
+	 * in one pass when one of them is needed for the first time.
+	 */
+	private BruteForceScanner getBruteForceScanner() throws IOException
+	{
+		if (bruteForceScanner == null)
+		{
+			bruteForceScanner = new BruteForceScanner(positionalSource, MINIMUM_SEARCH_OFFSET);
+		}
+		return bruteForceScanner;
+	}
 
 	/**
 	 * Search for the offset of the given xref table/stream among those found by a brute force search.
@@ -1490,28 +1618,9 @@ public class COSParser extends BaseParser
 		if (bfSearchXRefTablesOffsets == null)
 		{
 			// a pdf may contain more than one xref entry
-			bfSearchXRefTablesOffsets = new Vector<Long>();
-            long originOffset = source.getPosition();
-            source.seek(MINIMUM_SEARCH_OFFSET);
-            // search for xref tables
-            while (!source.isEOF())
-            {
-                if (isString(XREF_TABLE))
-                {
-                    long newOffset = source.getPosition();
-                    source.seek(newOffset - 1);
-                    // ensure that we don't read "startxref" instead of "xref"
-                    if (isWhitespace())
-					{
-						bfSearchXRefTablesOffsets.add(newOffset);
-					}
-                    source.seek(newOffset + 4);
-                }
-                source.read();
-            }
-            source.seek(originOffset);
-        }
-    }
+			bfSearchXRefTablesOffsets = getBruteForceScanner().getXrefTableOffsets();
+		}
+	}
 
 	/**
 	 * Brute force search for all /XRef entries (streams).
@@ -1523,79 +1632,9 @@ public class COSParser extends BaseParser
 		if (bfSearchXRefStreamsOffsets == null)
 		{
 			// a pdf may contain more than one /XRef entry
-			bfSearchXRefStreamsOffsets = new Vector<Long>();
-            long originOffset = source.getPosition();
-            source.seek(MINIMUM_SEARCH_OFFSET);
-            // search for XRef streams
-            String objString = " obj";
-			char[] string = objString.toCharArray();
-            while (!source.isEOF())
-            {
-                if (isString(XREF_STREAM))
-                {
-                    // search backwards for the beginning of the stream
-                    long newOffset = -1;
-                    long xrefOffset = source.getPosition();
-                    boolean objFound = false;
-                    for (int i = 1; i < 30 && !objFound; i++)
-                    {
-						long currentOffset = xrefOffset - (i * 10);
-						if (currentOffset > 0)
-						{
-                            source.seek(currentOffset);
-                            for (int j = 0; j < 10; j++)
-                            {
-                                if (isString(string))
-                                {
-                                    long tempOffset = currentOffset - 1;
-                                    source.seek(tempOffset);
-                                    int genID = source.peek();
-                                    // is the next char a digit?
-                                    if (isDigit(genID))
-                                    {
-                                        genID -= 48;
-                                        tempOffset--;
-                                        source.seek(tempOffset);
-                                        if (isSpace())
-                                        {
-                                            int length = 0;
-                                            source.seek(--tempOffset);
-                                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                                            {
-                                                source.seek(--tempOffset);
-                                                length++;
-                                            }
-                                            if (length > 0)
-                                            {
-                                                source.read();
-                                                newOffset = source.getPosition();
-                                            }
-                                        }
-                                    }
-									Log.d("PdfBox-Android", "Fixed reference for xref stream " + xrefOffset
-											+ " -> " + newOffset);
-									objFound = true;
-									break;
-								}
-								else
-								{
-									currentOffset++;
-                                    source.read();
-                                }
-                            }
-                        }
-                    }
-                    if (newOffset > -1)
-                    {
-                        bfSearchXRefStreamsOffsets.add(newOffset);
-                    }
-                    source.seek(xrefOffset + 5);
-                }
-                source.read();
-            }
-            source.seek(originOffset);
-        }
-    }
+			bfSearchXRefStreamsOffsets = getBruteForceScanner().getXrefStreamOffsets();
+		}
+	}
 
 	/**
 	 * Rebuild the trailer dictionary if startxref can't be found.
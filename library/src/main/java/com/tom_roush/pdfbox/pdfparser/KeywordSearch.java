@@ -0,0 +1,114 @@
+package com.tom_roush.pdfbox.pdfparser;
+
+import java.util.Arrays;
+
+/**
+ * Searches a buffer for the first occurrence of any of a set of keywords, using the Horspool
+ * variant of the Boyer-Moore algorithm extended to multiple patterns: the search window has the
+ * length of the shortest keyword, and it's moved by the distance the last byte of the window has
+ * to the end of the window in any of the keywords. For keywords like "endstream" most bytes of
+ * the searched data aren't looked at.
+ */
+final class KeywordSearch
+{
+    private final byte[][] keywords;
+    private final int windowLength;
+    private final int[] shifts = new int[256];
+
+    /**
+     * Creates a search for the given keywords.
+     *
+     * @param keywords the keywords to search for
+     */
+    KeywordSearch(byte[]... keywords)
+    {
+        this.keywords = keywords;
+        int minLength = Integer.MAX_VALUE;
+        for (byte[] keyword : keywords)
+        {
+            minLength = Math.min(minLength, keyword.length);
+        }
+        windowLength = minLength;
+        Arrays.fill(shifts, windowLength);
+        for (byte[] keyword : keywords)
+        {
+            for (int i = 0; i < windowLength - 1; i++)
+            {
+                int shift = windowLength - 1 - i;
+                int b = keyword[i] & 0xff;
+                if (shift < shifts[b])
+                {
+                    shifts[b] = shift;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the longest keyword.
+     */
+    int getMaxKeywordLength()
+    {
+        int maxLength = 0;
+        for (byte[] keyword : keywords)
+        {
+            maxLength = Math.max(maxLength, keyword.length);
+        }
+        return maxLength;
+    }
+
+    /**
+     * Returns the position of the first keyword starting within the given range. A keyword is
+     * only found if it ends before the limit.
+     *
+     * @param buffer the buffer to search
+     * @param from the first possible start of a keyword
+     * @param to the end of the range of possible starts, exclusive
+     * @param limit the end of the data within the buffer
+     * @return the position of the keyword, or -1 if none was found
+     */
+    int indexOf(byte[] buffer, int from, int to, int limit)
+    {
+        int end = Math.min(to, limit - windowLength + 1);
+        int i = from;
+        while (i < end)
+        {
+            if (keywordAt(buffer, i, limit) >= 0)
+            {
+                return i;
+            }
+            i += shifts[buffer[i + windowLength - 1] & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the keyword found at the given position.
+     *
+     * @param buffer the buffer to search
+     * @param position the position of the keyword
+     * @param limit the end of the data within the buffer
+     * @return the index of the keyword as given to the constructor, or -1 if there is none
+     */
+    int keywordAt(byte[] buffer, int position, int limit)
+    {
+        for (int k = 0; k < keywords.length; k++)
+        {
+            byte[] keyword = keywords[k];
+            if (position + keyword.length > limit)
+            {
+                continue;
+            }
+            int i = keyword.length - 1;
+            while (i >= 0 && buffer[position + i] == keyword[i])
+            {
+                i--;
+            }
+            if (i < 0)
+            {
+                return k;
+            }
+        }
+        return -1;
+    }
+}
@@ -4,16 +4,25 @@ import android.util.Log;
 
 import com.tom_roush.pdfbox.cos.COSBase;
 import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.RandomAccessBuffer;
+import com.tom_roush.pdfbox.io.RandomAccessRead;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * This will parse a PDF 1.5 object stream and extract all of the objects from the stream.
  *
+ * A parser created with {@link #createIndexedParser(COSStream, COSDocument)} keeps the decoded
+ * stream and uses the offset table of its header to parse single objects on demand.
+ *
  * @author Ben Litchfield
  */
 public class PDFObjectStreamParser extends BaseParser
@@ -21,6 +30,13 @@ public class PDFObjectStreamParser extends BaseParser
     private List<COSObject> streamObjects = null;
     private final COSStream stream;
 
+    // the decoded stream, only used by an indexed parser
+    private final RandomAccessRead decodedStream;
+    private long[] objectNumbers;
+    // absolute positions of the objects within the decoded stream, null if the offsets are broken
+    private long[] objectOffsets;
+    private boolean objectNumbersAscending;
+
     /**
      * Constructor.
      *
@@ -33,60 +49,186 @@ public class PDFObjectStreamParser extends BaseParser
         super(new InputStreamSource(stream.getUnfilteredStream()));
         this.document = document;
         this.stream = stream;
+        this.decodedStream = null;
+    }
+
+    private PDFObjectStreamParser(COSStream stream, COSDocument document,
+        RandomAccessRead decodedStream)
+    {
+        super(new RandomAccessSource(decodedStream));
+        this.document = document;
+        this.stream = stream;
+        this.decodedStream = decodedStream;
     }
 
     /**
-     * This will parse the tokens in the stream.  This will close the
-     * stream when it is finished parsing.
+     * Creates a parser which decodes the given object stream once and reads the offset table of
+     * its header. Single objects can be parsed afterwards using {@link #parseObject(long)}.
      *
-     * @throws IOException If there is an error while parsing the stream.
+     * @param stream The stream to parse.
+     * @param document The document for the current parsing.
+     * @return the parser
+     * @throws IOException If there is an error decoding the stream or reading its header.
      */
-    public void parse() throws IOException
+    public static PDFObjectStreamParser createIndexedParser(COSStream stream, COSDocument document)
+        throws IOException
     {
+        InputStream input = stream.createInputStream();
+        byte[] data;
         try
         {
-            //need to first parse the header.
-            int numberOfObjects = stream.getInt( "N" );
-            List<Long> objectNumbers = new ArrayList<Long>( numberOfObjects );
-            streamObjects = new ArrayList<COSObject>( numberOfObjects );
-            for( int i=0; i<numberOfObjects; i++ )
+            data = IOUtils.toByteArray(input);
+        }
+        finally
+        {
+            input.close();
+        }
+        RandomAccessRead decodedStream = data.length > 0 ? new RandomAccessBuffer(data)
+            : new RandomAccessBuffer();
+        PDFObjectStreamParser parser = new PDFObjectStreamParser(stream, document, decodedStream);
+        parser.readIndex();
+        return parser;
+    }
+
+    private void readIndex() throws IOException
+    {
+        int numberOfObjects = Math.max(stream.getInt(COSName.N), 0);
+        long firstOffset = stream.getInt(COSName.FIRST);
+        objectNumbers = new long[numberOfObjects];
+        objectOffsets = new long[numberOfObjects];
+        objectNumbersAscending = true;
+        long lastOffset = -1;
+        for (int i = 0; i < numberOfObjects; i++)
+        {
+            objectNumbers[i] = readObjectNumber();
+            long offset = readLong();
+            if (objectOffsets != null && (firstOffset < 0 || offset <= lastOffset
+                || firstOffset + offset >= decodedStream.length()))
+            {
+                Log.w("PdfBox-Android", "/ObjStm (object stream) has an invalid offset table, "
+                    + "all of its objects will be parsed");
+                objectOffsets = null;
+            }
+            if (objectOffsets != null)
+            {
+                objectOffsets[i] = firstOffset + offset;
+            }
+            if (i > 0 && objectNumbers[i] <= objectNumbers[i - 1])
+            {
+                objectNumbersAscending = false;
+            }
+            lastOffset = offset;
+        }
+    }
+
+    /**
+     * Parses a single object of an indexed object stream.
+     *
+     * @param objectNumber the object number of the object
+     * @return the object, or null if the stream doesn't contain the object
+     * @throws IOException If there is an error while parsing the object.
+     * @throws IllegalStateException if the parser wasn't created using
+     * {@link #createIndexedParser(COSStream, COSDocument)}
+     */
+    public COSBase parseObject(long objectNumber) throws IOException
+    {
+        if (decodedStream == null)
+        {
+            throw new IllegalStateException("Not an indexed object stream parser");
+        }
+        int index = indexOf(objectNumber);
+        if (index < 0)
+        {
+            return null;
+        }
+        if (objectOffsets == null)
+        {
+            // the offsets can't be used, parse all objects in sequence once
+            if (streamObjects == null)
             {
-                long objectNumber = readObjectNumber();
-             // skip offset
-                readLong();
-                objectNumbers.add( objectNumber);
+                decodedStream.seek(0);
+                parseObjects();
             }
-            COSObject object;
-            COSBase cosObject;
-            int objectCounter = 0;
-            while( (cosObject = parseDirObject()) != null )
+            return index < streamObjects.size() ? streamObjects.get(index).getObject() : null;
+        }
+        decodedStream.seek(objectOffsets[index]);
+        return parseDirObject();
+    }
+
+    private int indexOf(long objectNumber)
+    {
+        if (objectNumbersAscending)
+        {
+            int index = Arrays.binarySearch(objectNumbers, objectNumber);
+            return index >= 0 ? index : -1;
+        }
+        // the last one wins, as if all objects were parsed in sequence
+        for (int i = objectNumbers.length - 1; i >= 0; i--)
+        {
+            if (objectNumbers[i] == objectNumber)
             {
-                object = new COSObject(cosObject);
-                object.setGenerationNumber(0);
-                if (objectCounter >= objectNumbers.size())
-                {
-                	Log.e("PdfBox-Android", "/ObjStm (object stream) has more objects than /N " + numberOfObjects);
-                    break;
-                }
-                object.setObjectNumber( objectNumbers.get( objectCounter) );
-                streamObjects.add( object );
-                Log.d("PdfBox-Android", "parsed=" + object );
-                // According to the spec objects within an object stream shall not be enclosed 
-                // by obj/endobj tags, but there are some pdfs in the wild using those tags
-                // skip endobject marker if present
-                if (!seqSource.isEOF() && seqSource.peek() == 'e')
-                {
-                	readLine();
-                }
-                objectCounter++;
+                return i;
             }
         }
+        return -1;
+    }
+
+    /**
+     * This will parse the tokens in the stream.  This will close the
+     * stream when it is finished parsing.
+     *
+     * @throws IOException If there is an error while parsing the stream.
+     */
+    public void parse() throws IOException
+    {
+        try
+        {
+            parseObjects();
+        }
         finally
         {
             seqSource.close();
         }
     }
 
+    private void parseObjects() throws IOException
+    {
+        //need to first parse the header.
+        int numberOfObjects = stream.getInt( "N" );
+        List<Long> objectNumbers = new ArrayList<Long>( numberOfObjects );
+        streamObjects = new ArrayList<COSObject>( numberOfObjects );
+        for( int i=0; i<numberOfObjects; i++ )
+        {
+            long objectNumber = readObjectNumber();
+         // skip offset
+            readLong();
+            objectNumbers.add( objectNumber);
+        }
+        COSObject object;
+        COSBase cosObject;
+        int objectCounter = 0;
+        while( (cosObject = parseDirObject()) != null )
+        {
+            object = new COSObject(cosObject);
+            object.setGenerationNumber(0);
+            if (objectCounter >= objectNumbers.size())
+            {
+            	Log.e("PdfBox-Android", "/ObjStm (object stream) has more objects than /N " + numberOfObjects);
+                break;
+            }
+            object.setObjectNumber( objectNumbers.get( objectCounter) );
+            streamObjects.add( object );
+            // According to the spec objects within an object stream shall not be enclosed 
+            // by obj/endobj tags, but there are some pdfs in the wild using those tags
+            // skip endobject marker if present
+            if (!seqSource.isEOF() && seqSource.peek() == 'e')
+            {
+            	readLine();
+            }
+            objectCounter++;
+        }
+    }
+
     /**
      * This will get the objects that were parsed from the stream.
      *
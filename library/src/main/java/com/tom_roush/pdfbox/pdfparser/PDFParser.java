@@ -193,12 +193,18 @@ public class PDFParser extends COSParser
     /**
      * The initial parse will first parse only the trailer, the xrefstart and all xref tables to have a pointer (offset)
      * to all the pdf's objects. It can handle linearized pdfs, which will have an xref at the end pointing to an xref
-     * at the beginning of the file. Last the root object is parsed.
+     * at the beginning of the file. Last the root object is parsed. Unless lazy loading is enabled all objects
+     * referenced by the root object are parsed as well.
      * 
      * @throws IOException If something went wrong.
      */
     protected void initialParse() throws IOException
     {
+        if (isLazyLoading())
+        {
+            // all object proxies created from now on are resolved on first access
+            document.setParser(this);
+        }
         COSDictionary trailer = null;
         // parse startxref
         long startXRefOffset = getStartxrefOffset();
@@ -218,7 +224,10 @@ public class PDFParser extends COSParser
         COSObject catalogObj = document.getCatalog();
         if (catalogObj != null && catalogObj.getObject() instanceof COSDictionary)
         {
-            parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            if (!isLazyLoading())
+            {
+                parseDictObjects((COSDictionary) catalogObj.getObject(), (COSName[]) null);
+            }
             document.setDecrypted();
         }
         initialParseDone = true;
@@ -326,7 +335,7 @@ public class PDFParser extends COSParser
             if (value instanceof COSObject)
             {
                 COSObject object = (COSObject)value;
-                if (object.getObject() == null)
+                if (object.isObjectNull())
                 {
                     parseDictionaryRecursive(object);
                 }
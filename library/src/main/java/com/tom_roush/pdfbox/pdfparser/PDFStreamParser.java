@@ -3,13 +3,14 @@ package com.tom_roush.pdfbox.pdfparser;
 import android.util.Log;
 
 import com.tom_roush.pdfbox.contentstream.PDContentStream;
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
+import com.tom_roush.pdfbox.contentstream.operator.OperatorHandler;
 import com.tom_roush.pdfbox.cos.COSBase;
 import com.tom_roush.pdfbox.cos.COSBoolean;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSNull;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSStream;
 import com.tom_roush.pdfbox.pdmodel.common.PDStream;
@@ -33,6 +34,9 @@ public class PDFStreamParser extends BaseParser
     private static final int MAX_BIN_CHAR_TEST_LENGTH = 10;
     private final byte[] binCharTestArr = new byte[MAX_BIN_CHAR_TEST_LENGTH];
 
+    // true if the last number token didn't contain a "."
+    private boolean integerRead;
+
     /**
      * Constructor.
      *
@@ -96,6 +100,62 @@ public class PDFStreamParser extends BaseParser
         }
     }
 
+    /**
+     * This will parse the stream and pass each operator together with its operands to the given
+     * handler. The same operand list is used for all operators, and numbers are kept as
+     * primitive values unless they are requested as COSNumber, so that no objects are created
+     * for the operands of most operators.
+     *
+     * @param handler the handler receiving the operators
+     * @throws IOException If there is an error while parsing the stream or processing an operator.
+     */
+    public void parse(OperatorHandler handler) throws IOException
+    {
+        OperandList operands = new OperandList();
+        while (true)
+        {
+            skipSpaces();
+            int nextByte = seqSource.peek();
+            if (((byte) nextByte) == -1)
+            {
+                break;
+            }
+            char c = (char) nextByte;
+            if (isDigit(c) || c == '-' || c == '+' || c == '.')
+            {
+                int length = readNumberToken(c);
+                double value = parseDecimal(length);
+                if (Double.isNaN(value))
+                {
+                    operands.add(createNumber(length));
+                }
+                else
+                {
+                    operands.addNumber(value, integerRead);
+                }
+                continue;
+            }
+            Object token = parseNextToken();
+            if (token == null)
+            {
+                break;
+            }
+            if (token instanceof Operator)
+            {
+                handler.processOperator((Operator) token, operands);
+                operands.clear();
+            }
+            else if (token instanceof COSObject)
+            {
+                operands.add(((COSObject) token).getObject());
+            }
+            else
+            {
+                operands.add((COSBase) token);
+            }
+        }
+    }
+
     /**
      * This will get the tokens that were parsed from the stream.
      *
@@ -220,24 +280,8 @@ public class PDFStreamParser extends BaseParser
             case '+':
             case '.':
             {
-            /* We will be filling buf with the rest of the number.  Only
-			 * allow 1 "." and "-" and "+" at start of number. */
-                StringBuffer buf = new StringBuffer();
-                buf.append(c);
-                seqSource.read();
-
-                boolean dotNotRead = c != '.';
-                while (Character.isDigit(c = (char) seqSource.peek()) || dotNotRead && c == '.')
-                {
-                    buf.append(c);
-                    seqSource.read();
-
-                    if (dotNotRead && c == '.')
-                    {
-                        dotNotRead = false;
-                    }
-                }
-                retval = COSNumber.get(buf.toString());
+                int length = readNumberToken(c);
+                retval = createNumber(length);
                 break;
             }
             case 'B':
@@ -325,6 +369,34 @@ public class PDFStreamParser extends BaseParser
         return retval;
     }
 
+    /**
+     * Reads a number token into the token buffer. Only one "." is allowed, and "-" and "+" only
+     * at the start of the number.
+     *
+     * @param c the first character of the number, which hasn't been read yet
+     * @return the length of the token
+     * @throws IOException If an io error occurs while reading the stream.
+     */
+    private int readNumberToken(char c) throws IOException
+    {
+        int length = appendToTokenBuffer(0, c);
+        seqSource.read();
+
+        boolean dotNotRead = c != '.';
+        while (isDigit(c = (char) seqSource.peek()) || dotNotRead && c == '.')
+        {
+            length = appendToTokenBuffer(length, c);
+            seqSource.read();
+
+            if (dotNotRead && c == '.')
+            {
+                dotNotRead = false;
+            }
+        }
+        integerRead = dotNotRead;
+        return length;
+    }
+
     /**
      * Looks up an amount of bytes if they contain only ASCII characters (no
      * control sequences etc.), and that these ASCII characters begin with a
@@ -6,6 +6,7 @@ import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSInteger;
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSObjectKey;
 import com.tom_roush.pdfbox.cos.COSStream;
 import com.tom_roush.pdfbox.pdfwriter.COSWriterXRefEntry;
 
@@ -88,6 +89,12 @@ public class PDFXRefStream implements PDFXRef
         Set<COSName> keySet = this.stream.keySet();
         for ( COSName cosName : keySet )
         {
+            // the catalog, info and encryption dictionaries have to stay indirect objects
+            if (COSName.ROOT.equals(cosName) || COSName.INFO.equals(cosName)
+                    || COSName.ENCRYPT.equals(cosName))
+            {
+                continue;
+            }
             COSBase dictionaryObject = this.stream.getDictionaryObject(cosName);
             dictionaryObject.setDirect(true);
         }
@@ -140,6 +147,22 @@ public class PDFXRefStream implements PDFXRef
         }
     }
 
+    /**
+     * Add an entry for an object which is stored in an object stream.
+     *
+     * @param key the key of the object
+     * @param objectStreamNumber the object number of the object stream
+     * @param index the index of the object within the object stream
+     */
+    public void addObjectStreamEntry(COSObjectKey key, long objectStreamNumber, int index)
+    {
+        objectNumbers.add(key.getNumber());
+        ObjectStreamReference value = new ObjectStreamReference();
+        value.objectNumberOfObjectStream = objectStreamNumber;
+        value.offset = index;
+        streamData.put(key.getNumber(), value);
+    }
+
     /**
      * determines the minimal length required for all the lengths.
      * 
@@ -168,8 +191,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 wMax[0] = Math.max(wMax[0], ENTRY_OBJSTREAM); // the type field for a objstm reference
-                wMax[1] = Math.max(wMax[1], objStream.offset);
-                wMax[2] = Math.max(wMax[2], objStream.objectNumberOfObjectStream);
+                wMax[1] = Math.max(wMax[1], objStream.objectNumberOfObjectStream);
+                wMax[2] = Math.max(wMax[2], objStream.offset);
             }
             // TODO add here if new standard versions define new types
             else
@@ -274,8 +297,8 @@ public class PDFXRefStream implements PDFXRef
             {
                 ObjectStreamReference objStream = (ObjectStreamReference)entry;
                 writeNumber(os, ENTRY_OBJSTREAM, w[0]);
-                writeNumber(os, objStream.offset, w[1]);
-                writeNumber(os, objStream.objectNumberOfObjectStream, w[2]);
+                writeNumber(os, objStream.objectNumberOfObjectStream, w[1]);
+                writeNumber(os, objStream.offset, w[2]);
             }
             // TODO add here if new standard versions define new types
             else
@@ -292,6 +315,7 @@ public class PDFXRefStream implements PDFXRef
     class ObjectStreamReference
     {
         long objectNumberOfObjectStream;
+        // the index of the object within the object stream
         long offset;
     }
 
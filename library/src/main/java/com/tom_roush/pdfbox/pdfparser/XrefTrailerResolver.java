@@ -5,6 +5,7 @@ import android.util.Log;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.cos.XrefTable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,7 +50,7 @@ public class XrefTrailerResolver
 
         private XRefType xrefType;
 
-        private final Map<COSObjectKey, Long> xrefTable = new HashMap<COSObjectKey, Long>();
+        private XrefTable xrefTable = new XrefTable();
         
         /**
          *  Default constructor.
@@ -133,7 +134,7 @@ public class XrefTrailerResolver
     } 
     
     /**
-     * Populate XRef HashMap of current XRef object.
+     * Populate XRef table of current XRef object.
      * Will add an Xreftable entry that maps ObjectKeys to byte offsets in the file.
      * @param objKey The objkey, with id and gen numbers
      * @param offset The byte offset in this file
@@ -146,7 +147,7 @@ public class XrefTrailerResolver
         	Log.w("PdfBox-Android", "Cannot add XRef entry for '" + objKey.getNumber() + "' because XRef start was not signalled." );
             return;
         }
-        curXrefTrailerObj.xrefTable.put( objKey, offset );
+        curXrefTrailerObj.xrefTable.setOffset( objKey, offset );
     }
 
     /**
@@ -254,7 +255,15 @@ public class XrefTrailerResolver
             {
                 resolvedXrefTrailer.trailer.addAll( curObj.trailer );
             }
-            resolvedXrefTrailer.xrefTable.putAll( curObj.xrefTable );
+            if ( xrefSeqBytePos.size() == 1 )
+            {
+                // nothing to merge, avoid a copy of a possibly huge table
+                resolvedXrefTrailer.xrefTable = curObj.xrefTable;
+            }
+            else
+            {
+                resolvedXrefTrailer.xrefTable.addAll( curObj.xrefTable );
+            }
         }
 
     }
@@ -276,7 +285,7 @@ public class XrefTrailerResolver
      *
      * @return the xrefTable if available
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public XrefTable getXrefTable()
     {
         return ( resolvedXrefTrailer == null ) ? null : resolvedXrefTrailer.xrefTable;
     }
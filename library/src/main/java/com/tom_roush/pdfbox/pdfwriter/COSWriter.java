@@ -26,6 +26,7 @@ import com.tom_roush.pdfbox.pdmodel.fdf.FDFDocument;
 import com.tom_roush.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
 import com.tom_roush.pdfbox.util.Charsets;
 import com.tom_roush.pdfbox.util.Hex;
+import com.tom_roush.pdfbox.util.NumberFormatUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -36,17 +37,14 @@ import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
-import java.util.Hashtable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -138,12 +136,8 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 */
 	public static final byte[] ENDSTREAM = "endstream".getBytes(Charsets.US_ASCII);
 
-	private final NumberFormat formatXrefOffset = new DecimalFormat("0000000000");
-
-	// the decimal format for the xref object generation number data
-	private final NumberFormat formatXrefGeneration = new DecimalFormat("00000");
-
-	private final NumberFormat formatDecimal = NumberFormat.getNumberInstance( Locale.US );
+	// buffer for numbers and xref entries, which are formatted without creating strings
+	private final byte[] formatBuffer = new byte[20];
 
 	// the stream where we create the pdf output
 	private OutputStream output;
@@ -159,20 +153,19 @@ public class COSWriter implements ICOSVisitor, Closeable
 
 	// maps the object to the keys generated in the writer
 	// these are used for indirect references in other objects
-	//A hashtable is used on purpose over a hashmap
-	//so that null entries will not get added.
-	private final Map<COSBase,COSObjectKey> objectKeys = new Hashtable<COSBase,COSObjectKey>();
-	private final Map<COSObjectKey,COSBase> keyObject = new Hashtable<COSObjectKey,COSBase>();
+	// objects are tracked by identity, equal objects may be different PDF objects
+	private final Map<COSBase,COSObjectKey> objectKeys = new IdentityHashMap<COSBase,COSObjectKey>();
+	private final Map<COSObjectKey,COSBase> keyObject = new HashMap<COSObjectKey,COSBase>();
 
 	// the list of x ref entries to be made so far
 	private final List<COSWriterXRefEntry> xRefEntries = new ArrayList<COSWriterXRefEntry>();
-	private final Set<COSBase> objectsToWriteSet = new HashSet<COSBase>();
+	private final Set<COSBase> objectsToWriteSet = newIdentitySet();
 
 	//A list of objects to write.
-	private final Deque<COSBase> objectsToWrite = new LinkedList<COSBase>();
+	private final Deque<COSBase> objectsToWrite = new ArrayDeque<COSBase>();
 
 	//a list of objects already written
-	private final Set<COSBase> writtenObjects = new HashSet<COSBase>();
+	private final Set<COSBase> writtenObjects = newIdentitySet();
 
 	//An 'actual' is any COSBase that is not a COSObject.
 	//need to keep a list of the actuals that are added
@@ -180,7 +173,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 	//when adding a COSObject and then later adding
 	//the actual for that object, so we will track
 	//actuals separately.
-	private final Set<COSBase> actualsAdded = new HashSet<COSBase>();
+	private final Set<COSBase> actualsAdded = newIdentitySet();
 
 	private COSObjectKey currentObjectKey = null;
 	private PDDocument pdDocument = null;
@@ -196,6 +189,26 @@ public class COSWriter implements ICOSVisitor, Closeable
 	private OutputStream incrementalOutput;
 	private SignatureInterface signatureInterface;
 
+	// objects per object stream
+	private static final int OBJECT_STREAM_SIZE = 100;
+
+	private boolean objectStreams = false;
+	// true while objects are packed into object streams
+	private boolean writingObjectStreams = false;
+	private final List<COSObjectKey> objectStreamKeys = new ArrayList<COSObjectKey>();
+	private final List<Long> objectStreamOffsets = new ArrayList<Long>();
+	private final ByteArrayOutputStream objectStreamData = new ByteArrayOutputStream();
+	private COSStandardOutputStream objectStreamOutput;
+	// object number, object stream number and index of all objects written to object streams
+	private final List<long[]> compressedXRefEntries = new ArrayList<long[]>();
+
+	// number of threads used to compress streams, 0 if streams are written as they are
+	private int compressionThreads = 0;
+	private StreamCompressor streamCompressor;
+
+	private boolean deduplicateStreams = false;
+	private StreamDeduplicator streamDeduplicator;
+
 	/**
 	 * COSWriter constructor comment.
 	 *
@@ -206,8 +219,6 @@ public class COSWriter implements ICOSVisitor, Closeable
 		super();
 		setOutput(os);
 		setStandardOutput(new COSStandardOutputStream(output));
-		formatDecimal.setMaximumFractionDigits( 10 );
-		formatDecimal.setGroupingUsed( false );
 	}
 
 	/**
@@ -230,8 +241,11 @@ public class COSWriter implements ICOSVisitor, Closeable
 		incrementalOutput = outputStream;
 		incrementalUpdate = true;
 
-		formatDecimal.setMaximumFractionDigits( 10 );
-		formatDecimal.setGroupingUsed( false );
+	}
+
+	private static Set<COSBase> newIdentitySet()
+	{
+		return Collections.newSetFromMap(new IdentityHashMap<COSBase, Boolean>());
 	}
 
 	private void prepareIncrement(PDDocument doc)
@@ -272,6 +286,78 @@ public class COSWriter implements ICOSVisitor, Closeable
 		}
 	}
 
+	/**
+	 * Sets the number of threads used to compress streams without a filter with Flate while the
+	 * document is written. Small streams are compressed ahead of the writer, large streams are
+	 * compressed in parallel blocks. Streams of encrypted documents aren't compressed.
+	 *
+	 * @param threads the number of threads, 0 (the default) writes the streams as they are, 1
+	 * compresses them on the writing thread
+	 */
+	public void setCompressionThreads(int threads)
+	{
+		if (threads < 0)
+		{
+			throw new IllegalArgumentException("The number of threads must not be negative");
+		}
+		compressionThreads = threads;
+	}
+
+	/**
+	 * Returns the number of threads used to compress streams.
+	 *
+	 * @return the number of threads, 0 if streams aren't compressed
+	 */
+	public int getCompressionThreads()
+	{
+		return compressionThreads;
+	}
+
+	/**
+	 * Sets whether objects other than streams are packed into compressed object streams, with the
+	 * cross reference information written as a compressed xref stream. This requires PDF 1.5, the
+	 * version of the document is raised if needed. It isn't used for incremental updates and
+	 * encrypted documents.
+	 *
+	 * @param objectStreams true to write object streams and an xref stream
+	 */
+	public void setObjectStreams(boolean objectStreams)
+	{
+		this.objectStreams = objectStreams;
+	}
+
+	/**
+	 * Tells whether objects are packed into object streams.
+	 *
+	 * @return true if object streams and an xref stream are written
+	 */
+	public boolean isObjectStreams()
+	{
+		return objectStreams;
+	}
+
+	/**
+	 * Sets whether streams with the same dictionary and data are written only once, e.g. fonts or
+	 * images which were added to several pages separately. All references to such streams point
+	 * to the first one. The document itself isn't changed. It isn't used for incremental updates.
+	 *
+	 * @param deduplicateStreams true to write identical streams once
+	 */
+	public void setDeduplicateStreams(boolean deduplicateStreams)
+	{
+		this.deduplicateStreams = deduplicateStreams;
+	}
+
+	/**
+	 * Tells whether identical streams are written only once.
+	 *
+	 * @return true if identical streams are written once
+	 */
+	public boolean isDeduplicateStreams()
+	{
+		return deduplicateStreams;
+	}
+
 	/**
 	 * add an entry in the x ref table for later dump.
 	 *
@@ -290,6 +376,11 @@ public class COSWriter implements ICOSVisitor, Closeable
 	@Override
 	public void close() throws IOException
 	{
+		if (streamCompressor != null)
+		{
+			streamCompressor.close();
+			streamCompressor = null;
+		}
 		if (getStandardOutput() != null)
 		{
 			getStandardOutput().close();
@@ -429,8 +520,16 @@ public class COSWriter implements ICOSVisitor, Closeable
 		{
 			COSBase nextObject = objectsToWrite.removeFirst();
 			objectsToWriteSet.remove(nextObject);
-			doWriteObject( nextObject );
+			if (writingObjectStreams && isCompressible(nextObject))
+			{
+				doWriteCompressedObject(nextObject);
+			}
+			else
+			{
+				doWriteObject( nextObject );
+			}
 		}
+		doWriteObjectStream();
 		willEncrypt = false;
 		if( encrypt != null )
 		{
@@ -445,7 +544,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 		}
 	}
 
-	private void addObjectToWrite( COSBase object )
+	private void addObjectToWrite( COSBase object ) throws IOException
 	{
 		COSBase actual = object;
 		if( actual instanceof COSObject )
@@ -453,6 +552,24 @@ public class COSWriter implements ICOSVisitor, Closeable
 			actual = ((COSObject)actual).getObject();
 		}
 
+		if (streamDeduplicator != null && actual instanceof COSStream
+				&& !writtenObjects.contains(object) && !objectKeys.containsKey(actual)
+				&& !objectKeys.containsKey(object))
+		{
+			COSStream canonical = streamDeduplicator.getCanonicalStream((COSStream) actual);
+			if (canonical != actual)
+			{
+				// references to the stream are written as references to the identical stream
+				addObjectToWrite(canonical);
+				COSObjectKey key = getObjectKey(canonical);
+				objectKeys.put(object, key);
+				objectKeys.put(actual, key);
+				writtenObjects.add(object);
+				actualsAdded.add(actual);
+				return;
+			}
+		}
+
 		if( !writtenObjects.contains( object ) &&
 				!objectsToWriteSet.contains( object ) &&
 				!actualsAdded.contains( actual ) )
@@ -480,9 +597,105 @@ public class COSWriter implements ICOSVisitor, Closeable
 			{
 				actualsAdded.add( actual );
 			}
+			if (streamCompressor != null && actual instanceof COSStream)
+			{
+				streamCompressor.prefetch((COSStream) actual);
+			}
 		}
 	}
 
+	/**
+	 * Tells if the object can be written to an object stream: streams and objects with a generation
+	 * number other than 0 can't.
+	 */
+	private boolean isCompressible(COSBase obj)
+	{
+		COSBase actual = obj instanceof COSObject ? ((COSObject) obj).getObject() : obj;
+		if (actual == null || actual instanceof COSStream)
+		{
+			return false;
+		}
+		COSObjectKey key = objectKeys.get(actual);
+		if (key == null)
+		{
+			key = objectKeys.get(obj);
+		}
+		return key == null || key.getGeneration() == 0;
+	}
+
+	/**
+	 * Writes an object to the current object stream, the object stream is written when it's full.
+	 */
+	private void doWriteCompressedObject(COSBase obj) throws IOException
+	{
+		writtenObjects.add(obj);
+		currentObjectKey = getObjectKey(obj);
+		if (objectStreamOutput == null)
+		{
+			objectStreamOutput = new COSStandardOutputStream(objectStreamData);
+		}
+		objectStreamKeys.add(currentObjectKey);
+		objectStreamOffsets.add(objectStreamOutput.getPos());
+		COSStandardOutputStream standardOutput = getStandardOutput();
+		setStandardOutput(objectStreamOutput);
+		try
+		{
+			obj.accept(this);
+			getStandardOutput().writeEOL();
+		}
+		finally
+		{
+			setStandardOutput(standardOutput);
+		}
+		if (objectStreamKeys.size() >= OBJECT_STREAM_SIZE)
+		{
+			doWriteObjectStream();
+		}
+	}
+
+	/**
+	 * Writes the objects collected so far as an object stream.
+	 */
+	private void doWriteObjectStream() throws IOException
+	{
+		if (objectStreamKeys.isEmpty())
+		{
+			return;
+		}
+		StringBuilder header = new StringBuilder();
+		for (int i = 0; i < objectStreamKeys.size(); i++)
+		{
+			header.append(objectStreamKeys.get(i).getNumber()).append(' ');
+			header.append(objectStreamOffsets.get(i)).append(' ');
+		}
+		byte[] headerBytes = header.toString().getBytes(Charsets.ISO_8859_1);
+		COSStream stream = new COSStream();
+		stream.setItem(COSName.TYPE, COSName.OBJ_STM);
+		stream.setInt(COSName.N, objectStreamKeys.size());
+		stream.setInt(COSName.FIRST, headerBytes.length);
+		OutputStream output = stream.createOutputStream(COSName.FLATE_DECODE);
+		try
+		{
+			output.write(headerBytes);
+			objectStreamData.writeTo(output);
+		}
+		finally
+		{
+			output.close();
+		}
+		doWriteObject(stream);
+		long objectStreamNumber = currentObjectKey.getNumber();
+		for (int i = 0; i < objectStreamKeys.size(); i++)
+		{
+			compressedXRefEntries.add(new long[] {
+					objectStreamKeys.get(i).getNumber(), objectStreamNumber, i });
+		}
+		objectStreamKeys.clear();
+		objectStreamOffsets.clear();
+		objectStreamData.reset();
+		objectStreamOutput = null;
+	}
+
 	/**
 	 * This will write a COS object.
 	 *
@@ -512,9 +725,9 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 // add a x ref entry
 		 addXRefEntry( new COSWriterXRefEntry(getStandardOutput().getPos(), obj, currentObjectKey));
 		 // write the object
-		 getStandardOutput().write(String.valueOf(currentObjectKey.getNumber()).getBytes(Charsets.ISO_8859_1));
+		 writeNumber(currentObjectKey.getNumber());
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(String.valueOf(currentObjectKey.getGeneration()).getBytes(Charsets.ISO_8859_1));
+		 writeNumber(currentObjectKey.getGeneration());
 		 getStandardOutput().write(SPACE);
 		 getStandardOutput().write(OBJ);
 		 getStandardOutput().writeEOL();
@@ -542,6 +755,14 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 {
 			 headerString = "%PDF-"+ Float.toString(pdDocument.getDocument().getVersion());
 		 }
+		 doWriteHeader(headerString);
+	 }
+
+	 /**
+	  * Writes the given header line followed by a comment with binary characters.
+	  */
+	 void doWriteHeader(String headerString) throws IOException
+	 {
 		 getStandardOutput().write( headerString.getBytes(Charsets.ISO_8859_1) );
 		 
 		 getStandardOutput().writeEOL();
@@ -550,6 +771,83 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 getStandardOutput().writeEOL();
 	 }
 
+	 /**
+	  * Writes the given objects and all objects referenced by them which weren't written yet.
+	  */
+	 void doWriteObjects(COSBase... objects) throws IOException
+	 {
+		 for (COSBase object : objects)
+		 {
+			 addObjectToWrite(object);
+		 }
+		 while (objectsToWrite.size() > 0)
+		 {
+			 COSBase nextObject = objectsToWrite.removeFirst();
+			 objectsToWriteSet.remove(nextObject);
+			 doWriteObject(nextObject);
+		 }
+	 }
+
+	 /**
+	  * Assigns the key of an object without writing it, references to the object use this key.
+	  * The object is written later on by calling {@link #doWriteObject(COSBase)}.
+	  *
+	  * @param obj the object
+	  * @param key the key, or null to assign the next object number
+	  * @return the key of the object
+	  */
+	 COSObjectKey reserveObject(COSBase obj, COSObjectKey key)
+	 {
+		 if (key != null)
+		 {
+			 objectKeys.put(obj, key);
+		 }
+		 writtenObjects.add(obj);
+		 return getObjectKey(obj);
+	 }
+
+	 /**
+	  * Forgets a written object, so it can be garbage collected. It's written again if it's
+	  * referenced afterwards.
+	  */
+	 void releaseObject(COSBase obj)
+	 {
+		 COSBase actual = obj instanceof COSObject ? ((COSObject) obj).getObject() : obj;
+		 writtenObjects.remove(obj);
+		 objectKeys.remove(obj);
+		 actualsAdded.remove(obj);
+		 if (actual != null)
+		 {
+			 writtenObjects.remove(actual);
+			 objectKeys.remove(actual);
+			 actualsAdded.remove(actual);
+		 }
+	 }
+
+	 /**
+	  * Writes the xref table, the given trailer and the end of the file.
+	  */
+	 void doWriteXRefAndTrailer(COSDictionary trailer) throws IOException
+	 {
+		 doWriteXRefTable();
+		 getStandardOutput().write(TRAILER);
+		 getStandardOutput().writeEOL();
+		 COSWriterXRefEntry lastEntry = getXRefEntries().get(getXRefEntries().size() - 1);
+		 trailer.setLong(COSName.SIZE, lastEntry.getKey().getNumber() + 1);
+		 trailer.accept(this);
+		 doWriteEndOfFile();
+	 }
+
+	 private void doWriteEndOfFile() throws IOException
+	 {
+		 getStandardOutput().write(STARTXREF);
+		 getStandardOutput().writeEOL();
+		 writeNumber(getStartxref());
+		 getStandardOutput().writeEOL();
+		 getStandardOutput().write(EOF);
+		 getStandardOutput().writeEOL();
+	 }
+
 
 	 /**
 	  * This will write the trailer to the PDF document.
@@ -583,6 +881,33 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 trailer.accept(this);
 	 }
 
+	 // writes all cross reference information as an xref stream
+	 private void doWriteXRefStream(COSDocument doc) throws IOException
+	 {
+		 PDFXRefStream pdfxRefStream = new PDFXRefStream();
+		 pdfxRefStream.addEntry(COSWriterXRefEntry.getNullEntry());
+		 for (COSWriterXRefEntry entry : getXRefEntries())
+		 {
+			 pdfxRefStream.addEntry(entry);
+		 }
+		 for (long[] entry : compressedXRefEntries)
+		 {
+			 pdfxRefStream.addObjectStreamEntry(new COSObjectKey(entry[0], 0), entry[1], (int) entry[2]);
+		 }
+		 // the xref stream gets the next object number, it is listed in itself
+		 setStartxref(getStandardOutput().getPos());
+		 pdfxRefStream.addEntry(new COSWriterXRefEntry(getStartxref(), null,
+				 new COSObjectKey(getNumber() + 1, 0)));
+
+		 COSDictionary trailer = doc.getTrailer();
+		 trailer.removeItem(COSName.PREV);
+		 trailer.removeItem(COSName.XREF_STM);
+		 trailer.removeItem(COSName.DOC_CHECKSUM);
+		 pdfxRefStream.addTrailerInfo(trailer);
+		 pdfxRefStream.setSize(getNumber() + 2);
+		 doWriteObject(pdfxRefStream.getStream());
+	 }
+
 	 private void doWriteXRefInc(COSDocument doc, long hybridPrev) throws IOException
 	 {
 		 if (doc.isXRefStream() || hybridPrev != -1)
@@ -739,22 +1064,40 @@ public class COSWriter implements ICOSVisitor, Closeable
 
 	 private void writeXrefRange(long x, long y) throws IOException
 	 {
-         getStandardOutput().write(String.valueOf(x).getBytes(Charsets.ISO_8859_1));
+         writeNumber(x);
          getStandardOutput().write(SPACE);
-         getStandardOutput().write(String.valueOf(y).getBytes(Charsets.ISO_8859_1));
+         writeNumber(y);
          getStandardOutput().writeEOL();
 	 }
 
 	 private void writeXrefEntry(COSWriterXRefEntry entry) throws IOException
 	 {
-		 String offset = formatXrefOffset.format(entry.getOffset());
-		 String generation = formatXrefGeneration.format(entry.getKey().getGeneration());
-		 getStandardOutput().write(offset.getBytes(Charsets.ISO_8859_1));
-		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(generation.getBytes(Charsets.ISO_8859_1));
-		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(entry.isFree() ? XREF_FREE : XREF_USED);
-		 getStandardOutput().writeCRLF();
+		 // "0000000000 00000 n\r\n", always 20 bytes
+		 byte[] buffer = formatBuffer;
+		 formatFixedWidth(entry.getOffset(), buffer, 0, 10);
+		 buffer[10] = ' ';
+		 formatFixedWidth(entry.getKey().getGeneration(), buffer, 11, 5);
+		 buffer[16] = ' ';
+		 buffer[17] = entry.isFree() ? XREF_FREE[0] : XREF_USED[0];
+		 buffer[18] = '\r';
+		 buffer[19] = '\n';
+		 getStandardOutput().write(buffer, 0, 20);
+	 }
+
+	 // writes the decimal digits of a number
+	 private void writeNumber(long value) throws IOException
+	 {
+		 getStandardOutput().write(formatBuffer, 0, NumberFormatUtil.formatLong(value, formatBuffer));
+	 }
+
+	 // formats a number with leading zeros, only the lowest digits are kept if it's too long
+	 private static void formatFixedWidth(long value, byte[] buffer, int offset, int width)
+	 {
+		 for (int i = offset + width - 1; i >= offset; i--)
+		 {
+			 buffer[i] = (byte) ('0' + value % 10);
+			 value /= 10;
+		 }
 	 }
 
 	 /**
@@ -1030,7 +1373,11 @@ public class COSWriter implements ICOSVisitor, Closeable
 			 hybridPrev = trailer.getLong(COSName.XREF_STM);
 		 }
 
-		 if(incrementalUpdate || doc.isXRefStream())
+		 if (writingObjectStreams)
+		 {
+			 doWriteXRefStream(doc);
+		 }
+		 else if(incrementalUpdate || doc.isXRefStream())
 		 {
 			 doWriteXRefInc(doc, hybridPrev);
 		 }
@@ -1041,12 +1388,7 @@ public class COSWriter implements ICOSVisitor, Closeable
 		 }
 
 		 // write endof
-		 getStandardOutput().write(STARTXREF);
-		 getStandardOutput().writeEOL();
-		 getStandardOutput().write(String.valueOf(getStartxref()).getBytes(Charsets.ISO_8859_1));
-		 getStandardOutput().writeEOL();
-		 getStandardOutput().write(EOF);
-		 getStandardOutput().writeEOL();
+		 doWriteEndOfFile();
 
 		 if(incrementalUpdate)
 		 {
@@ -1094,9 +1436,9 @@ public class COSWriter implements ICOSVisitor, Closeable
 	 public void writeReference(COSBase obj) throws IOException
 	 {
 		 COSObjectKey key = getObjectKey(obj);
-		 getStandardOutput().write(String.valueOf(key.getNumber()).getBytes(Charsets.ISO_8859_1));
+		 writeNumber(key.getNumber());
 		 getStandardOutput().write(SPACE);
-		 getStandardOutput().write(String.valueOf(key.getGeneration()).getBytes(Charsets.ISO_8859_1));
+		 writeNumber(key.getGeneration());
 		 getStandardOutput().write(SPACE);
 		 getStandardOutput().write(REFERENCE);
 	 }
@@ -1110,6 +1452,27 @@ public class COSWriter implements ICOSVisitor, Closeable
                  currentObjectKey.getNumber(), currentObjectKey.getGeneration());
          }
 
+		 if (streamCompressor != null && !willEncrypt && StreamCompressor.isCompressible(obj))
+		 {
+			 byte[] compressed = streamCompressor.compress(obj);
+			 if (compressed != null)
+			 {
+				 // write a copy of the dictionary, the document itself isn't changed
+				 COSDictionary dictionary = new COSDictionary(obj);
+				 dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+				 dictionary.removeItem(COSName.DECODE_PARMS);
+				 dictionary.setInt(COSName.LENGTH, compressed.length);
+				 visitFromDictionary(dictionary);
+				 getStandardOutput().write(STREAM);
+				 getStandardOutput().writeCRLF();
+				 getStandardOutput().write(compressed);
+				 getStandardOutput().writeCRLF();
+				 getStandardOutput().write(ENDSTREAM);
+				 getStandardOutput().writeEOL();
+				 return null;
+			 }
+		 }
+
 		 InputStream input = null;
 		 try
 		 {
@@ -1269,7 +1632,32 @@ public class COSWriter implements ICOSVisitor, Closeable
 			 idArray.add( secondID );
 			 trailer.setItem( COSName.ID, idArray );
 		 }
-		 cosDoc.accept(this);
+		 writingObjectStreams = objectStreams && !willEncrypt && !incrementalUpdate;
+		 if (writingObjectStreams && cosDoc.getVersion() < 1.5f)
+		 {
+			 cosDoc.setVersion(1.5f);
+		 }
+		 if (compressionThreads > 0 && !willEncrypt)
+		 {
+			 streamCompressor = new StreamCompressor(compressionThreads);
+		 }
+		 if (deduplicateStreams && !incrementalUpdate)
+		 {
+			 streamDeduplicator = new StreamDeduplicator();
+		 }
+		 try
+		 {
+			 cosDoc.accept(this);
+		 }
+		 finally
+		 {
+			 streamDeduplicator = null;
+			 if (streamCompressor != null)
+			 {
+				 streamCompressor.close();
+				 streamCompressor = null;
+			 }
+		 }
 	 }
 	 
 	 /**
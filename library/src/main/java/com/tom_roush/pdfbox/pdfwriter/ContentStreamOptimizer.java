@@ -0,0 +1,406 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.contentstream.operator.Operator;
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSNumber;
+import com.tom_roush.pdfbox.pdfparser.PDFStreamParser;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes redundant operators from content streams:
+ * <ul>
+ * <li>operators setting a graphics state parameter, like a color, the font or an extended
+ * graphics state, to the value it already has,</li>
+ * <li>cm operators with the identity matrix,</li>
+ * <li>q/Q pairs enclosing no operators which change the graphics state, and q/Q pairs enclosing
+ * nothing but another q/Q pair.</li>
+ * </ul>
+ * The state of a parameter is only known after it was set within the stream, so the stream may
+ * be drawn in any context. Nothing else is changed, the stream is drawn exactly as before.
+ */
+public final class ContentStreamOptimizer
+{
+    // operators which change the graphics state, all others except q and Q don't
+    private static final Set<String> STATE_OPERATORS = new HashSet<String>(Arrays.asList(
+        "cm", "w", "J", "j", "M", "d", "ri", "i", "gs", "CS", "cs", "SC", "SCN", "sc", "scn",
+        "G", "g", "RG", "rg", "K", "k", "Tc", "Tw", "Tz", "TL", "Tf", "Tr", "Ts", "W", "W*",
+        "\"", "d0", "d1", "TD"));
+
+    // operators which don't change the graphics state
+    private static final Set<String> NEUTRAL_OPERATORS = new HashSet<String>(Arrays.asList(
+        "m", "l", "c", "v", "y", "h", "re", "S", "s", "f", "F", "f*", "B", "B*", "b", "b*", "n",
+        "BT", "ET", "Td", "Tm", "T*", "Tj", "TJ", "'", "Do", "sh", "BI", "MP", "DP",
+        "BMC", "BDC", "EMC", "BX", "EX"));
+
+    // the parameter set by each operator which is tracked
+    private static final Map<String, String> PARAMETERS = new HashMap<String, String>();
+
+    // operators which add the text to the clipping path if the text rendering mode is 4 to 7
+    private static final Set<String> TEXT_CLIP_OPERATORS = new HashSet<String>(Arrays.asList(
+        "Tj", "TJ", "'", "\"", "ET"));
+
+    // parameters which can also be set by an extended graphics state
+    private static final Set<String> EXT_G_STATE_PARAMETERS = new HashSet<String>(Arrays.asList(
+        "w", "J", "j", "M", "d", "ri", "i", "Tf"));
+
+    static
+    {
+        for (String operator : new String[] { "w", "J", "j", "M", "d", "ri", "i", "gs", "Tc",
+            "Tw", "Tz", "TL", "Tf", "Tr", "Ts" })
+        {
+            PARAMETERS.put(operator, operator);
+        }
+        for (String operator : new String[] { "CS", "SC", "SCN", "G", "RG", "K" })
+        {
+            PARAMETERS.put(operator, "stroking color");
+        }
+        for (String operator : new String[] { "cs", "sc", "scn", "g", "rg", "k" })
+        {
+            PARAMETERS.put(operator, "non-stroking color");
+        }
+    }
+
+    private ContentStreamOptimizer()
+    {
+    }
+
+    /**
+     * Optimizes the content streams of all pages of a document.
+     *
+     * @param document the document
+     * @throws IOException if a content stream can't be parsed or written
+     */
+    public static void optimize(PDDocument document) throws IOException
+    {
+        for (PDPage page : document.getPages())
+        {
+            optimize(document, page);
+        }
+    }
+
+    /**
+     * Optimizes the contents of a page. If operators were removed, the content streams are
+     * replaced by a single compressed stream.
+     *
+     * @param document the document the page belongs to
+     * @param page the page
+     * @return true if the contents of the page were changed
+     * @throws IOException if the content stream can't be parsed or written
+     */
+    public static boolean optimize(PDDocument document, PDPage page) throws IOException
+    {
+        if (!page.hasContents())
+        {
+            return false;
+        }
+        PDFStreamParser parser = new PDFStreamParser(page);
+        parser.parse();
+        List<Object> tokens = parser.getTokens();
+        List<Object> optimized = optimize(tokens);
+        if (optimized.size() == tokens.size())
+        {
+            return false;
+        }
+        PDStream contents = new PDStream(document);
+        OutputStream output = contents.createOutputStream(COSName.FLATE_DECODE);
+        try
+        {
+            new ContentStreamWriter(output).writeTokens(optimized);
+        }
+        finally
+        {
+            output.close();
+        }
+        page.setContents(contents);
+        return true;
+    }
+
+    /**
+     * Removes the redundant operators from a list of content stream tokens.
+     *
+     * @param tokens the operands and operators, as returned by {@link PDFStreamParser#getTokens()}
+     * @return a new list with the remaining tokens
+     */
+    public static List<Object> optimize(List<Object> tokens)
+    {
+        List<Operation> operations = new ArrayList<Operation>();
+        List<Object> operands = new ArrayList<Object>();
+        for (Object token : tokens)
+        {
+            if (token instanceof Operator)
+            {
+                operations.add(new Operation(operands, (Operator) token));
+                operands = new ArrayList<Object>();
+            }
+            else
+            {
+                operands.add(token);
+            }
+        }
+        // redundant settings are removed first, as this may leave q/Q pairs without changes
+        removeRedundantSettings(operations);
+        removeRedundantSaves(operations);
+
+        List<Object> result = new ArrayList<Object>(tokens.size());
+        for (Operation operation : operations)
+        {
+            if (!operation.removed)
+            {
+                result.addAll(operation.operands);
+                result.add(operation.operator);
+            }
+        }
+        // operands without an operator at the end are kept as they are
+        result.addAll(operands);
+        return result;
+    }
+
+    /**
+     * Removes operators which set a parameter to the current value, and cm operators with the
+     * identity matrix.
+     */
+    private static void removeRedundantSettings(List<Operation> operations)
+    {
+        // the operations which set the current value of each parameter
+        Map<String, Operation> state = new HashMap<String, Operation>();
+        Deque<Map<String, Operation>> savedStates = new ArrayDeque<Map<String, Operation>>();
+        for (Operation operation : operations)
+        {
+            String name = operation.getName();
+            if (TEXT_CLIP_OPERATORS.contains(name) && !isFillOrStroke(state.get("Tr")))
+            {
+                operation.mayClip = true;
+            }
+            if ("q".equals(name))
+            {
+                savedStates.push(new HashMap<String, Operation>(state));
+                continue;
+            }
+            if ("Q".equals(name))
+            {
+                state = savedStates.isEmpty() ? new HashMap<String, Operation>()
+                    : savedStates.pop();
+                continue;
+            }
+            if ("cm".equals(name) && isIdentity(operation.operands))
+            {
+                operation.removed = true;
+                continue;
+            }
+            String parameter = PARAMETERS.get(name);
+            if (parameter != null)
+            {
+                Operation current = state.get(parameter);
+                if (current != null && current.getName().equals(name)
+                    && sameOperands(current.operands, operation.operands))
+                {
+                    operation.removed = true;
+                    continue;
+                }
+                state.put(parameter, operation);
+                if ("gs".equals(name))
+                {
+                    state.keySet().removeAll(EXT_G_STATE_PARAMETERS);
+                }
+                else if (EXT_G_STATE_PARAMETERS.contains(name))
+                {
+                    // the extended graphics state has to be set again after this
+                    state.remove("gs");
+                }
+            }
+            else if ("\"".equals(name))
+            {
+                state.remove("Tw");
+                state.remove("Tc");
+            }
+            else if ("TD".equals(name))
+            {
+                // TD sets the leading too
+                state.remove("TL");
+            }
+            else if (!NEUTRAL_OPERATORS.contains(name) && !STATE_OPERATORS.contains(name))
+            {
+                // an unknown operator could change anything
+                state.clear();
+            }
+        }
+    }
+
+    /**
+     * Removes q/Q pairs which don't enclose changes of the graphics state, and q/Q pairs
+     * enclosing nothing but another q/Q pair.
+     */
+    private static void removeRedundantSaves(List<Operation> operations)
+    {
+        Deque<Integer> openSaves = new ArrayDeque<Integer>();
+        // true for each open q when the state was changed after it
+        Deque<Boolean> changed = new ArrayDeque<Boolean>();
+        Map<Integer, Integer> pairs = new HashMap<Integer, Integer>();
+        for (int index = 0; index < operations.size(); index++)
+        {
+            Operation operation = operations.get(index);
+            if (operation.removed)
+            {
+                continue;
+            }
+            String name = operation.getName();
+            if ("q".equals(name))
+            {
+                openSaves.push(index);
+                changed.push(Boolean.FALSE);
+            }
+            else if ("Q".equals(name))
+            {
+                if (openSaves.isEmpty())
+                {
+                    continue;
+                }
+                int open = openSaves.pop();
+                boolean stateChanged = changed.pop();
+                pairs.put(open, index);
+                if (!stateChanged)
+                {
+                    operations.get(open).removed = true;
+                    operation.removed = true;
+                    continue;
+                }
+                int first = next(operations, open);
+                int last = previous(operations, index);
+                Integer inner = pairs.get(first);
+                if ("q".equals(operations.get(first).getName()) && inner != null
+                    && inner == last)
+                {
+                    operations.get(open).removed = true;
+                    operation.removed = true;
+                }
+            }
+            else if (!changed.isEmpty()
+                && (!NEUTRAL_OPERATORS.contains(name) || operation.mayClip))
+            {
+                changed.pop();
+                changed.push(Boolean.TRUE);
+            }
+        }
+    }
+
+    private static int next(List<Operation> operations, int index)
+    {
+        do
+        {
+            index++;
+        }
+        while (operations.get(index).removed);
+        return index;
+    }
+
+    private static int previous(List<Operation> operations, int index)
+    {
+        do
+        {
+            index--;
+        }
+        while (operations.get(index).removed);
+        return index;
+    }
+
+    /**
+     * Returns true if the given Tr operator sets a rendering mode which doesn't clip.
+     */
+    private static boolean isFillOrStroke(Operation renderingMode)
+    {
+        if (renderingMode == null || renderingMode.operands.size() != 1
+            || !(renderingMode.operands.get(0) instanceof COSNumber))
+        {
+            return false;
+        }
+        int mode = ((COSNumber) renderingMode.operands.get(0)).intValue();
+        return mode >= 0 && mode <= 3;
+    }
+
+    private static boolean isIdentity(List<Object> operands)
+    {
+        if (operands.size() != 6)
+        {
+            return false;
+        }
+        for (int i = 0; i < 6; i++)
+        {
+            Object operand = operands.get(i);
+            if (!(operand instanceof COSNumber)
+                || ((COSNumber) operand).doubleValue() != (i == 0 || i == 3 ? 1 : 0))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameOperands(List<?> operands1, List<?> operands2)
+    {
+        if (operands1.size() != operands2.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < operands1.size(); i++)
+        {
+            if (!sameOperand(operands1.get(i), operands2.get(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameOperand(Object operand1, Object operand2)
+    {
+        if (operand1 instanceof COSNumber && operand2 instanceof COSNumber)
+        {
+            return operand1.getClass() == operand2.getClass()
+                && ((COSNumber) operand1).doubleValue() == ((COSNumber) operand2).doubleValue();
+        }
+        if (operand1 instanceof COSArray && operand2 instanceof COSArray)
+        {
+            return sameOperands(((COSArray) operand1).toList(), ((COSArray) operand2).toList());
+        }
+        return operand1 instanceof COSName && operand1.equals(operand2);
+    }
+
+    /**
+     * An operator together with its operands.
+     */
+    private static final class Operation
+    {
+        private final List<Object> operands;
+        private final Operator operator;
+        private boolean removed;
+        // true if it may add text to the clipping path, as the rendering mode isn't known
+        private boolean mayClip;
+
+        private Operation(List<Object> operands, Operator operator)
+        {
+            this.operands = operands;
+            this.operator = operator;
+        }
+
+        private String getName()
+        {
+            return operator.getName();
+        }
+    }
+}
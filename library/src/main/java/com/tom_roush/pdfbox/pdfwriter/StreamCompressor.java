@@ -0,0 +1,358 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import android.util.Log;
+
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.filter.Filter;
+import com.tom_roush.pdfbox.filter.FilterFactory;
+import com.tom_roush.pdfbox.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the data of streams without a filter while a document is written. Small streams are
+ * compressed on a thread pool ahead of the writer. Large streams are split into blocks which are
+ * compressed in parallel, each block is primed with the end of the previous block as dictionary
+ * and ends with a sync flush, so the concatenated blocks form a single zlib stream.
+ */
+final class StreamCompressor implements Closeable
+{
+    private static final int BLOCK_SIZE = 128 * 1024;
+
+    // the maximum distance of a deflate back reference
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    // streams of at least this size are compressed in blocks
+    private static final int PARALLEL_THRESHOLD = 4 * BLOCK_SIZE;
+
+    // streams smaller than this aren't worth compressing
+    private static final int MINIMUM_LENGTH = 64;
+
+    // a sync flush needs Deflater.deflate(byte[], int, int, int), which is only available from
+    // API level 19 on, so it's called via reflection; null if it isn't available
+    private static final Method DEFLATE_WITH_FLUSH = getDeflateWithFlush();
+
+    // Deflater.SYNC_FLUSH, API level 19 as well
+    private static final int SYNC_FLUSH = 2;
+
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final Map<COSStream, Future<byte[]>> pending =
+        new IdentityHashMap<COSStream, Future<byte[]>>();
+
+    /**
+     * Creates a compressor.
+     *
+     * @param threads the number of threads, 1 compresses all streams on the calling thread
+     */
+    StreamCompressor(int threads)
+    {
+        executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        maxPending = 4 * threads;
+    }
+
+    private static Method getDeflateWithFlush()
+    {
+        try
+        {
+            return Deflater.class.getMethod("deflate", byte[].class, int.class, int.class,
+                int.class);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Tells if the stream is to be compressed, i.e. it has no filter and isn't metadata, which is
+     * supposed to be readable by tools that don't know PDF.
+     */
+    static boolean isCompressible(COSStream stream)
+    {
+        if (stream.getFilters() != null || stream.getLength() < MINIMUM_LENGTH)
+        {
+            return false;
+        }
+        COSBase type = stream.getDictionaryObject(COSName.TYPE);
+        return !COSName.METADATA.equals(type) && !COSName.XREF.equals(type);
+    }
+
+    /**
+     * Starts compressing the stream in the background, if there is a thread pool and not too many
+     * compressed streams are waiting to be written.
+     *
+     * @param stream the stream which will be written later on
+     */
+    void prefetch(final COSStream stream)
+    {
+        if (executor == null || pending.size() >= maxPending || pending.containsKey(stream)
+            || !isCompressible(stream) || stream.getLength() >= PARALLEL_THRESHOLD)
+        {
+            return;
+        }
+        pending.put(stream, executor.submit(new Callable<byte[]>()
+        {
+            @Override
+            public byte[] call() throws IOException
+            {
+                return deflate(readData(stream));
+            }
+        }));
+    }
+
+    /**
+     * Returns the compressed data of the stream.
+     *
+     * @param stream the stream to be compressed
+     * @return the compressed data, or null if the data doesn't get smaller by compressing it
+     * @throws IOException if the stream can't be read or compressed
+     */
+    byte[] compress(COSStream stream) throws IOException
+    {
+        Future<byte[]> future = pending.remove(stream);
+        byte[] compressed;
+        long length;
+        if (future != null)
+        {
+            compressed = getResult(future);
+            length = stream.getLength();
+        }
+        else
+        {
+            byte[] data = readData(stream);
+            length = data.length;
+            if (executor != null && DEFLATE_WITH_FLUSH != null && data.length >= PARALLEL_THRESHOLD)
+            {
+                compressed = deflateBlocks(data);
+            }
+            else
+            {
+                compressed = deflate(data);
+            }
+        }
+        return compressed.length < length ? compressed : null;
+    }
+
+    private static byte[] readData(COSStream stream) throws IOException
+    {
+        InputStream input = stream.createRawInputStream();
+        try
+        {
+            return IOUtils.toByteArray(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 64);
+        filter.encode(new ByteArrayInputStream(data), output, new COSDictionary(), 0);
+        return output.toByteArray();
+    }
+
+    private byte[] deflateBlocks(final byte[] data) throws IOException
+    {
+        final int level = Filter.getCompressionLevel();
+        final int strategy = Filter.getCompressionStrategy();
+        List<Future<byte[]>> blocks = new ArrayList<Future<byte[]>>();
+        for (int start = 0; start < data.length; start += BLOCK_SIZE)
+        {
+            final int offset = start;
+            blocks.add(executor.submit(new Callable<byte[]>()
+            {
+                @Override
+                public byte[] call() throws IOException
+                {
+                    return deflateBlock(data, offset, level, strategy);
+                }
+            }));
+        }
+        // the checksum is calculated while the blocks are compressed
+        Adler32 adler = new Adler32();
+        adler.update(data, 0, data.length);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 64);
+        output.write(0x78);
+        output.write(getHeaderFlags(level));
+        try
+        {
+            for (Future<byte[]> block : blocks)
+            {
+                byte[] bytes = getResult(block);
+                output.write(bytes, 0, bytes.length);
+            }
+        }
+        finally
+        {
+            for (Future<byte[]> block : blocks)
+            {
+                block.cancel(true);
+            }
+        }
+        long checksum = adler.getValue();
+        output.write((int) (checksum >>> 24) & 0xff);
+        output.write((int) (checksum >>> 16) & 0xff);
+        output.write((int) (checksum >>> 8) & 0xff);
+        output.write((int) checksum & 0xff);
+        return output.toByteArray();
+    }
+
+    /**
+     * Compresses one block to raw deflate data. Every block but the last one ends with a sync
+     * flush, i.e. at a byte boundary without marking the end of the data.
+     */
+    private static byte[] deflateBlock(byte[] data, int offset, int level, int strategy)
+        throws IOException
+    {
+        int length = Math.min(BLOCK_SIZE, data.length - offset);
+        boolean last = offset + length == data.length;
+        Deflater deflater = new Deflater(level, true);
+        try
+        {
+            deflater.setStrategy(strategy);
+            if (offset > 0)
+            {
+                int dictionaryLength = Math.min(DICTIONARY_SIZE, offset);
+                deflater.setDictionary(data, offset - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(data, offset, length);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[length / 2 + 64];
+            if (last)
+            {
+                deflater.finish();
+                while (!deflater.finished())
+                {
+                    int count = deflater.deflate(buffer);
+                    output.write(buffer, 0, count);
+                }
+            }
+            else
+            {
+                int count;
+                do
+                {
+                    count = deflateWithSyncFlush(deflater, buffer);
+                    output.write(buffer, 0, count);
+                }
+                while (count == buffer.length);
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static int deflateWithSyncFlush(Deflater deflater, byte[] buffer) throws IOException
+    {
+        try
+        {
+            return (Integer) DEFLATE_WITH_FLUSH.invoke(deflater, buffer, 0, buffer.length,
+                SYNC_FLUSH);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IOException(e);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the second byte of the zlib header for a 32K window and the given level.
+     */
+    private static int getHeaderFlags(int level)
+    {
+        int flags;
+        if (level == Deflater.DEFAULT_COMPRESSION || level == 6)
+        {
+            flags = 2 << 6;
+        }
+        else if (level < 2)
+        {
+            flags = 0;
+        }
+        else if (level < 6)
+        {
+            flags = 1 << 6;
+        }
+        else
+        {
+            flags = 3 << 6;
+        }
+        // the header has to be a multiple of 31
+        return flags + (31 - (0x78 * 256 + flags) % 31) % 31;
+    }
+
+    private static byte[] getResult(Future<byte[]> future) throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Stream compression was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the threads, streams which weren't written yet are discarded.
+     */
+    @Override
+    public void close()
+    {
+        for (Future<byte[]> future : pending.values())
+        {
+            future.cancel(true);
+        }
+        if (!pending.isEmpty())
+        {
+            Log.d("PdfBox-Android", pending.size() + " compressed streams weren't written");
+        }
+        pending.clear();
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+}
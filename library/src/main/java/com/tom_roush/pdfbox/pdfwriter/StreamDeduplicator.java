@@ -0,0 +1,237 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSBoolean;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSNumber;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.cos.COSString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds streams with the same dictionary and the same data, e.g. fonts or images which were
+ * embedded again for each page, so they can be written once. The dictionary and the raw data of
+ * each stream are hashed with SHA-256. Streams referenced by the dictionary are hashed by their
+ * own content, so e.g. images with identical soft masks are found too. All other indirect
+ * dictionaries are compared by identity, because objects like pages or annotations must stay
+ * separate objects even if they are equal.
+ */
+final class StreamDeduplicator
+{
+    private static final Comparator<COSName> NAME_ORDER = new Comparator<COSName>()
+    {
+        @Override
+        public int compare(COSName name1, COSName name2)
+        {
+            return name1.getName().compareTo(name2.getName());
+        }
+    };
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8192];
+    private final Map<COSStream, ByteBuffer> fingerprints =
+        new IdentityHashMap<COSStream, ByteBuffer>();
+    private final Map<ByteBuffer, COSStream> streams = new HashMap<ByteBuffer, COSStream>();
+    // numbers of the indirect dictionaries, which are compared by identity
+    private final Map<COSBase, Integer> objectNumbers = new IdentityHashMap<COSBase, Integer>();
+    // the streams being hashed, a stream referencing itself is compared by identity
+    private final Set<COSStream> hashing =
+        Collections.newSetFromMap(new IdentityHashMap<COSStream, Boolean>());
+
+    StreamDeduplicator()
+    {
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the first stream given to this method which has the same content as the given
+     * stream.
+     *
+     * @param stream the stream
+     * @return an identical stream, or the given stream itself if there was none
+     * @throws IOException if the data of a stream can't be read
+     */
+    COSStream getCanonicalStream(COSStream stream) throws IOException
+    {
+        ByteBuffer fingerprint = getFingerprint(stream);
+        COSStream canonical = streams.get(fingerprint);
+        if (canonical == null)
+        {
+            streams.put(fingerprint, stream);
+            return stream;
+        }
+        return canonical;
+    }
+
+    private ByteBuffer getFingerprint(COSStream stream) throws IOException
+    {
+        ByteBuffer fingerprint = fingerprints.get(stream);
+        if (fingerprint != null)
+        {
+            return fingerprint;
+        }
+        // the dictionary is serialized first, as referenced streams are hashed on the way
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream description = new DataOutputStream(bytes);
+        hashing.add(stream);
+        try
+        {
+            describeDictionary(stream, description);
+        }
+        finally
+        {
+            hashing.remove(stream);
+        }
+        description.flush();
+
+        digest.reset();
+        digest.update(bytes.toByteArray());
+        InputStream input = stream.createRawInputStream();
+        try
+        {
+            int count;
+            while ((count = input.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, count);
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+        fingerprint = ByteBuffer.wrap(digest.digest());
+        fingerprints.put(stream, fingerprint);
+        return fingerprint;
+    }
+
+    private void describeDictionary(COSDictionary dictionary, DataOutputStream description)
+        throws IOException
+    {
+        List<COSName> keys = new ArrayList<COSName>(dictionary.keySet());
+        Collections.sort(keys, NAME_ORDER);
+        description.writeByte('<');
+        description.writeInt(keys.size());
+        for (COSName key : keys)
+        {
+            description.writeUTF(key.getName());
+            describe(dictionary.getItem(key), description);
+        }
+    }
+
+    /**
+     * Writes a description of a value to the given output, which is the same for values which
+     * are written the same way by {@link COSWriter}.
+     */
+    private void describe(COSBase value, DataOutputStream description) throws IOException
+    {
+        if (value instanceof COSObject)
+        {
+            value = ((COSObject) value).getObject();
+        }
+        if (value instanceof COSStream)
+        {
+            COSStream stream = (COSStream) value;
+            if (hashing.contains(stream))
+            {
+                describeReference(stream, description);
+            }
+            else
+            {
+                description.writeByte('S');
+                description.write(getFingerprint(stream).array());
+            }
+        }
+        else if (value instanceof COSDictionary)
+        {
+            if (value.isDirect())
+            {
+                describeDictionary((COSDictionary) value, description);
+            }
+            else
+            {
+                describeReference(value, description);
+            }
+        }
+        else if (value instanceof COSArray)
+        {
+            COSArray array = (COSArray) value;
+            description.writeByte('[');
+            description.writeInt(array.size());
+            for (COSBase element : array)
+            {
+                describe(element, description);
+            }
+        }
+        else if (value instanceof COSName)
+        {
+            description.writeByte('/');
+            description.writeUTF(((COSName) value).getName());
+        }
+        else if (value instanceof COSString)
+        {
+            byte[] string = ((COSString) value).getBytes();
+            description.writeByte('(');
+            description.writeInt(string.length);
+            description.write(string);
+        }
+        else if (value instanceof COSFloat)
+        {
+            description.writeByte('F');
+            description.writeFloat(((COSFloat) value).floatValue());
+        }
+        else if (value instanceof COSNumber)
+        {
+            description.writeByte('I');
+            description.writeLong(((COSNumber) value).longValue());
+        }
+        else if (value instanceof COSBoolean)
+        {
+            description.writeByte('B');
+            description.writeBoolean(((COSBoolean) value).getValue());
+        }
+        else
+        {
+            description.writeByte('N');
+        }
+    }
+
+    private void describeReference(COSBase object, DataOutputStream description)
+        throws IOException
+    {
+        Integer number = objectNumbers.get(object);
+        if (number == null)
+        {
+            number = objectNumbers.size();
+            objectNumbers.put(object, number);
+        }
+        description.writeByte('R');
+        description.writeInt(number);
+    }
+}
@@ -0,0 +1,336 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.pdmodel.PDDocumentInformation;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a PDF page by page. Each page is written to the output as soon as it's added, together
+ * with all objects it uses. Afterwards only the resources of the page like fonts and images, and
+ * the objects reachable from them, are kept, so they are written only once when they are used by several
+ * pages. The page dictionary, its content streams and annotations are forgotten and can be
+ * garbage collected. The page tree, the catalog and the trailer are written when the writer is
+ * closed.
+ *
+ * <p>Pages are written as they are: fonts aren't subset, and pages must not use objects which
+ * were written for an earlier page other than its resources, because these are written again.
+ * Encryption isn't supported.</p>
+ */
+public final class StreamingPDFWriter implements Closeable
+{
+    // pages per intermediate node of the page tree
+    private static final int PAGES_PER_NODE = 256;
+
+    // attributes a page inherits from its page tree nodes
+    private static final COSName[] INHERITABLE_ATTRIBUTES = {
+        COSName.RESOURCES, COSName.MEDIA_BOX, COSName.CROP_BOX, COSName.ROTATE };
+
+    private final Writer writer;
+    private final COSDictionary catalog = new COSDictionary();
+    private final COSDictionary pageTreeRoot = new COSDictionary();
+    private final PDDocumentInformation documentInformation = new PDDocumentInformation();
+    private final List<COSDictionary> pageTreeNodes = new ArrayList<COSDictionary>();
+    // object numbers of the pages of the current intermediate node
+    private final long[] pageNumbers = new long[PAGES_PER_NODE];
+    private int pageCount;
+    // resources and everything reachable from them, which are kept for the following pages
+    private final Set<COSBase> sharedObjects =
+        Collections.newSetFromMap(new IdentityHashMap<COSBase, Boolean>());
+    private boolean closed;
+
+    /**
+     * Creates a writer and writes the header of the PDF.
+     *
+     * @param output the stream the PDF is written to, it's closed when the writer is closed
+     * @throws IOException if the header can't be written
+     */
+    public StreamingPDFWriter(OutputStream output) throws IOException
+    {
+        writer = new Writer(output);
+        writer.doWriteHeader("%PDF-1.4");
+        catalog.setItem(COSName.TYPE, COSName.CATALOG);
+        catalog.setItem(COSName.PAGES, pageTreeRoot);
+        pageTreeRoot.setItem(COSName.TYPE, COSName.PAGES);
+        writer.reserveObject(pageTreeRoot, null);
+    }
+
+    /**
+     * Returns the document information, which is written when the writer is closed.
+     *
+     * @return the document information
+     */
+    public PDDocumentInformation getDocumentInformation()
+    {
+        return documentInformation;
+    }
+
+    /**
+     * Returns the catalog, which is written when the writer is closed. Entries other than the
+     * pages can be added, e.g. for viewer preferences.
+     *
+     * @return the catalog dictionary
+     */
+    public COSDictionary getCatalog()
+    {
+        return catalog;
+    }
+
+    /**
+     * Returns the number of pages written so far.
+     *
+     * @return the number of pages
+     */
+    public int getNumberOfPages()
+    {
+        return pageCount;
+    }
+
+    /**
+     * Writes a page and all objects used by it which weren't written yet. The page is part of the
+     * document afterwards and must not be changed anymore. Attributes the page inherits from its
+     * page tree, like the resources and the media box, are copied into the page dictionary.
+     *
+     * @param page the page to be written
+     * @throws IOException if the page can't be written
+     */
+    public void addPage(PDPage page) throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("The writer is already closed");
+        }
+        int index = pageCount % PAGES_PER_NODE;
+        if (index == 0)
+        {
+            COSDictionary node = new COSDictionary();
+            node.setItem(COSName.TYPE, COSName.PAGES);
+            node.setItem(COSName.PARENT, pageTreeRoot);
+            writer.reserveObject(node, null);
+            pageTreeNodes.add(node);
+        }
+        COSDictionary pageDictionary = page.getCOSObject();
+        COSBase parent = pageDictionary.getItem(COSName.PARENT);
+        copyInheritedAttributes(pageDictionary);
+        pageDictionary.setItem(COSName.PARENT, pageTreeNodes.get(pageTreeNodes.size() - 1));
+
+        writer.pageObjects.clear();
+        writer.doWriteObjects(pageDictionary);
+        pageNumbers[index] = writer.getObjectKeys().get(pageDictionary).getNumber();
+        pageCount++;
+
+        addSharedResources(pageDictionary.getDictionaryObject(COSName.RESOURCES));
+        for (COSBase written : writer.pageObjects)
+        {
+            COSBase actual = written instanceof COSObject ? ((COSObject) written).getObject() : written;
+            if (!sharedObjects.contains(actual))
+            {
+                writer.releaseObject(written);
+            }
+        }
+        writer.pageObjects.clear();
+        pageDictionary.setItem(COSName.PARENT, parent);
+
+        if (pageCount % PAGES_PER_NODE == 0)
+        {
+            writePageTreeNode(PAGES_PER_NODE);
+        }
+    }
+
+    /**
+     * Copies the attributes which the page inherits from its current page tree into the page
+     * dictionary, because they would be lost with the new parent. Indirect objects stay indirect.
+     */
+    private static void copyInheritedAttributes(COSDictionary pageDictionary)
+    {
+        for (COSName key : INHERITABLE_ATTRIBUTES)
+        {
+            if (pageDictionary.containsKey(key))
+            {
+                continue;
+            }
+            Set<COSBase> visited = Collections.newSetFromMap(new IdentityHashMap<COSBase, Boolean>());
+            COSBase node = pageDictionary.getDictionaryObject(COSName.PARENT);
+            while (node instanceof COSDictionary && visited.add(node))
+            {
+                COSBase value = ((COSDictionary) node).getItem(key);
+                if (value != null)
+                {
+                    pageDictionary.setItem(key, value);
+                    break;
+                }
+                node = ((COSDictionary) node).getDictionaryObject(COSName.PARENT);
+            }
+        }
+    }
+
+    /**
+     * Adds the resources like fonts and images and all objects reachable from them to the shared
+     * objects. The resource dictionary and its category dictionaries, which are often created for
+     * each page, aren't kept.
+     */
+    private void addSharedResources(COSBase resources)
+    {
+        Deque<COSBase> queue = new ArrayDeque<COSBase>();
+        if (resources instanceof COSDictionary)
+        {
+            for (COSBase category : ((COSDictionary) resources).getValues())
+            {
+                if (category instanceof COSObject)
+                {
+                    category = ((COSObject) category).getObject();
+                }
+                if (category instanceof COSDictionary)
+                {
+                    queue.addAll(((COSDictionary) category).getValues());
+                }
+            }
+        }
+        while (!queue.isEmpty())
+        {
+            COSBase current = queue.removeFirst();
+            if (current instanceof COSObject)
+            {
+                current = ((COSObject) current).getObject();
+            }
+            if (!(current instanceof COSDictionary || current instanceof COSArray)
+                || !sharedObjects.add(current))
+            {
+                continue;
+            }
+            if (current instanceof COSDictionary)
+            {
+                for (COSBase value : ((COSDictionary) current).getValues())
+                {
+                    if (value instanceof COSDictionary || value instanceof COSArray
+                        || value instanceof COSObject)
+                    {
+                        queue.add(value);
+                    }
+                }
+            }
+            else if (current instanceof COSArray)
+            {
+                for (COSBase value : (COSArray) current)
+                {
+                    if (value instanceof COSDictionary || value instanceof COSArray
+                        || value instanceof COSObject)
+                    {
+                        queue.add(value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the intermediate node of the page tree which contains the last pages.
+     */
+    private void writePageTreeNode(int count) throws IOException
+    {
+        COSDictionary node = pageTreeNodes.get(pageTreeNodes.size() - 1);
+        COSArray kids = new COSArray();
+        for (int i = 0; i < count; i++)
+        {
+            // placeholder which is written as reference to the page
+            COSDictionary kid = new COSDictionary();
+            writer.reserveObject(kid, new COSObjectKey(pageNumbers[i], 0));
+            kids.add(kid);
+        }
+        node.setItem(COSName.KIDS, kids);
+        node.setInt(COSName.COUNT, count);
+        writer.doWriteObject(node);
+        for (COSBase kid : kids)
+        {
+            writer.releaseObject(kid);
+        }
+        // only the reference to the node is needed from now on
+        node.removeItem(COSName.KIDS);
+        node.removeItem(COSName.PARENT);
+        node.removeItem(COSName.TYPE);
+        node.removeItem(COSName.COUNT);
+    }
+
+    /**
+     * Writes the page tree, the catalog, the document information and the trailer, and closes the
+     * output.
+     *
+     * @throws IOException if the end of the document can't be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        try
+        {
+            if (pageCount % PAGES_PER_NODE != 0)
+            {
+                writePageTreeNode(pageCount % PAGES_PER_NODE);
+            }
+            COSArray kids = new COSArray();
+            for (COSDictionary node : pageTreeNodes)
+            {
+                kids.add(node);
+            }
+            pageTreeRoot.setItem(COSName.KIDS, kids);
+            pageTreeRoot.setInt(COSName.COUNT, pageCount);
+            writer.doWriteObject(pageTreeRoot);
+
+            COSDictionary trailer = new COSDictionary();
+            trailer.setItem(COSName.ROOT, catalog);
+            trailer.setItem(COSName.INFO, documentInformation.getCOSObject());
+            writer.doWriteObjects(catalog, documentInformation.getCOSObject());
+            writer.doWriteXRefAndTrailer(trailer);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writer which keeps the xref entries without the written objects, and collects the objects
+     * written for the current page.
+     */
+    private static final class Writer extends COSWriter
+    {
+        private final List<COSBase> pageObjects = new ArrayList<COSBase>();
+
+        Writer(OutputStream output)
+        {
+            super(output);
+        }
+
+        @Override
+        protected void addXRefEntry(COSWriterXRefEntry entry)
+        {
+            if (entry.getObject() == null)
+            {
+                // the entry of the free list
+                super.addXRefEntry(entry);
+                return;
+            }
+            pageObjects.add(entry.getObject());
+            super.addXRefEntry(new COSWriterXRefEntry(entry.getOffset(), null, entry.getKey()));
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.tom_roush.pdfbox.io.MemoryUsageSetting;
 import com.tom_roush.pdfbox.io.RandomAccessBuffer;
 import com.tom_roush.pdfbox.io.RandomAccessBufferedFileInputStream;
 import com.tom_roush.pdfbox.io.RandomAccessInputStream;
+import com.tom_roush.pdfbox.io.RandomAccessMemoryMappedFile;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
 import com.tom_roush.pdfbox.pdfparser.PDFParser;
@@ -38,6 +39,7 @@ import com.tom_roush.pdfbox.pdmodel.interactive.form.PDAcroForm;
 import com.tom_roush.pdfbox.pdmodel.interactive.form.PDField;
 import com.tom_roush.pdfbox.pdmodel.interactive.form.PDSignatureField;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -908,13 +910,86 @@ public class PDDocument implements Closeable
     public static PDDocument load(File file, String password, InputStream keyStore, String alias,
         MemoryUsageSetting memUsageSetting) throws IOException
     {
-        RandomAccessBufferedFileInputStream raFile = new RandomAccessBufferedFileInputStream(file);
+        return load(file, password, keyStore, alias, memUsageSetting, false);
+    }
+
+    /**
+     * Parses a PDF. If lazy loading is enabled only the trailer, the xref tables and the catalog are
+     * parsed when opening the document; all other objects are parsed on first access.
+     *
+     * @param file file to be loaded
+     * @param password password to be used for decryption
+     * @param keyStore key store to be used for decryption when using public key security
+     * @param alias alias to be used for decryption when using public key security
+     * @param memUsageSetting defines how memory is used for buffering PDF streams
+     * @param lazyLoading parse objects when they are accessed for the first time
+     * @return loaded document
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument load(File file, String password, InputStream keyStore, String alias,
+        MemoryUsageSetting memUsageSetting, boolean lazyLoading) throws IOException
+    {
+        return load(file, password, keyStore, alias, memUsageSetting, lazyLoading, 0);
+    }
+
+    /**
+     * Parses a PDF lazily and keeps at most the given number of parsed objects in memory, see
+     * {@link PDFParser#setMaxParsedObjects(int)}. This is meant for documents which are only read,
+     * modifications may be lost.
+     *
+     * @param file file to be loaded
+     * @param password password to be used for decryption
+     * @param keyStore key store to be used for decryption when using public key security
+     * @param alias alias to be used for decryption when using public key security
+     * @param memUsageSetting defines how memory is used for buffering PDF streams
+     * @param lazyLoading parse objects when they are accessed for the first time
+     * @param maxParsedObjects the maximum number of lazily parsed objects kept in memory, or 0 to
+     * keep all of them
+     * @return loaded document
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument load(File file, String password, InputStream keyStore, String alias,
+        MemoryUsageSetting memUsageSetting, boolean lazyLoading, int maxParsedObjects)
+        throws IOException
+    {
+        RandomAccessRead raFile = createFileSource(file, memUsageSetting);
         PDFParser parser = new PDFParser(raFile, password, keyStore, alias,
             new ScratchFile(memUsageSetting));
+        parser.setLazyLoading(lazyLoading);
+        parser.setMaxParsedObjects(maxParsedObjects);
         parser.parse();
         return parser.getPDDocument();
     }
 
+    /**
+     * Creates the source for reading the given file. The file is read through a page cache, unless
+     * memory mapping is enabled by the memory usage setting, see
+     * {@link MemoryUsageSetting#setUseMemoryMapping(boolean)}. If the file can't be mapped, e.g.
+     * because the address space is exhausted, the page cache is used as well.
+     *
+     * @param file the file to be read
+     * @param memUsageSetting the memory usage setting, may be null
+     * @return the source to be parsed
+     * @throws IOException if the file can't be opened
+     */
+    private static RandomAccessRead createFileSource(File file, MemoryUsageSetting memUsageSetting)
+        throws IOException
+    {
+        if (memUsageSetting == null || !memUsageSetting.useMemoryMapping())
+        {
+            return new RandomAccessBufferedFileInputStream(file);
+        }
+        try
+        {
+            return new RandomAccessMemoryMappedFile(file);
+        }
+        catch (IOException e)
+        {
+            Log.w("PdfBox-Android", "Can't map " + file + ", using buffered file access instead", e);
+            return new RandomAccessBufferedFileInputStream(file);
+        }
+    }
+
 	/**
      * Parses a PDF. The given input stream is copied to the memory to enable random access to the pdf.
      *
@@ -1078,10 +1153,56 @@ public class PDDocument implements Closeable
      */
     public static PDDocument load(InputStream input, String password, InputStream keyStore,
         String alias, MemoryUsageSetting memUsageSetting) throws IOException
+    {
+        return load(input, password, keyStore, alias, memUsageSetting, false);
+    }
+
+    /**
+     * Parses a PDF. The given input stream is buffered as defined by the memory usage setting. If
+     * lazy loading is enabled only the trailer, the xref tables and the catalog are parsed when
+     * opening the document; all other objects are parsed on first access.
+     *
+     * @param input stream that contains the document.
+     * @param password password to be used for decryption
+     * @param keyStore key store to be used for decryption when using public key security
+     * @param alias alias to be used for decryption when using public key security
+     * @param memUsageSetting defines how memory is used for buffering input stream and PDF streams
+     * @param lazyLoading parse objects when they are accessed for the first time
+     * @return loaded document
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument load(InputStream input, String password, InputStream keyStore,
+        String alias, MemoryUsageSetting memUsageSetting, boolean lazyLoading) throws IOException
+    {
+        return load(input, password, keyStore, alias, memUsageSetting, lazyLoading, 0);
+    }
+
+    /**
+     * Parses a PDF lazily and keeps at most the given number of parsed objects in memory, see
+     * {@link PDFParser#setMaxParsedObjects(int)}. This is meant for documents which are only read,
+     * modifications may be lost. The given input stream is buffered as defined by the memory
+     * usage setting.
+     *
+     * @param input stream that contains the document.
+     * @param password password to be used for decryption
+     * @param keyStore key store to be used for decryption when using public key security
+     * @param alias alias to be used for decryption when using public key security
+     * @param memUsageSetting defines how memory is used for buffering input stream and PDF streams
+     * @param lazyLoading parse objects when they are accessed for the first time
+     * @param maxParsedObjects the maximum number of lazily parsed objects kept in memory, or 0 to
+     * keep all of them
+     * @return loaded document
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument load(InputStream input, String password, InputStream keyStore,
+        String alias, MemoryUsageSetting memUsageSetting, boolean lazyLoading,
+        int maxParsedObjects) throws IOException
     {
         ScratchFile scratchFile = new ScratchFile(memUsageSetting);
         RandomAccessRead source = scratchFile.createBuffer(input);
         PDFParser parser = new PDFParser(source, password, keyStore, alias, scratchFile);
+        parser.setLazyLoading(lazyLoading);
+        parser.setMaxParsedObjects(maxParsedObjects);
         parser.parse();
         return parser.getPDDocument();
     }
@@ -1151,7 +1272,7 @@ public class PDDocument implements Closeable
 	 */
 	public void save(File file) throws IOException
 	{
-		save(new FileOutputStream(file));
+		save(new BufferedOutputStream(new FileOutputStream(file)));
 	}
 
 	/**
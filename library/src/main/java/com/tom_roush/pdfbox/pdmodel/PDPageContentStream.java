@@ -22,14 +22,14 @@ import com.tom_roush.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 import com.tom_roush.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
 import com.tom_roush.pdfbox.util.Charsets;
 import com.tom_roush.pdfbox.util.Matrix;
+import com.tom_roush.pdfbox.util.NumberFormatUtil;
 import com.tom_roush.pdfbox.util.awt.AWTColor;
 import com.tom_roush.pdfbox.util.awt.AffineTransform;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.text.NumberFormat;
-import java.util.Locale;
+import java.math.BigDecimal;
 import java.util.Stack;
 
 /**
@@ -50,7 +50,8 @@ public final class PDPageContentStream implements Closeable
 	    private Stack<PDColorSpace> strokingColorSpaceStack = new Stack<PDColorSpace>();
 
 	// number format
-	private final NumberFormat formatDecimal = NumberFormat.getNumberInstance(Locale.US);
+	private int maximumFractionDigits;
+	private final byte[] formatBuffer = new byte[NumberFormatUtil.MAX_LENGTH];
 
 	/**
 	 * Create a new PDPage content stream.
@@ -164,9 +165,7 @@ public final class PDPageContentStream implements Closeable
             sourcePage.setResources(resources);
         }
 
-        // configure NumberFormat
-        formatDecimal.setMaximumFractionDigits(10);
-        formatDecimal.setGroupingUsed(false);
+        maximumFractionDigits = 10;
     }
 
     /**
@@ -183,8 +182,7 @@ public final class PDPageContentStream implements Closeable
         output = appearance.getStream().createOutputStream();
         this.resources = appearance.getResources();
 
-        formatDecimal.setMaximumFractionDigits(4);
-        formatDecimal.setGroupingUsed(false);
+        maximumFractionDigits = 4;
     }
 
     /**
@@ -203,8 +201,23 @@ public final class PDPageContentStream implements Closeable
         output = outputStream;
         this.resources = appearance.getResources();
 
-        formatDecimal.setMaximumFractionDigits(4);
-        formatDecimal.setGroupingUsed(false);
+        maximumFractionDigits = 4;
+    }
+
+    /**
+     * Sets the maximum number of fraction digits of the real numbers written to the stream. The
+     * default is 10 for pages and 4 for appearance streams.
+     *
+     * @param digits the number of fraction digits, from 0 to 15
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public void setMaximumFractionDigits(int digits)
+    {
+        if (digits < 0 || digits > NumberFormatUtil.MAX_FRACTION_DIGITS)
+        {
+            throw new IllegalArgumentException("Unsupported number of fraction digits: " + digits);
+        }
+        maximumFractionDigits = digits;
     }
 
     /**
@@ -1980,7 +1993,7 @@ public final class PDPageContentStream implements Closeable
     @Deprecated
     public void appendRawCommands(double data) throws IOException
     {
-    	output.write(formatDecimal.format(data).getBytes(Charsets.US_ASCII));
+    	writeNumber(data);
     }
 
     /**
@@ -1993,7 +2006,7 @@ public final class PDPageContentStream implements Closeable
     @Deprecated
     public void appendRawCommands(float data) throws IOException
     {
-    	output.write(formatDecimal.format(data).getBytes(Charsets.US_ASCII));
+    	writeNumber(data);
     }
 
     /**
@@ -2026,7 +2039,7 @@ public final class PDPageContentStream implements Closeable
      */
     private void writeOperand(float real) throws IOException
     {
-    	writeOperator(formatDecimal.format(real));
+    	writeNumber(real);
     	output.write(' ');
     }
 
@@ -2035,9 +2048,31 @@ public final class PDPageContentStream implements Closeable
      */
     private void writeOperand(int integer) throws IOException
     {
-    	writeOperator(formatDecimal.format(integer));
+    	output.write(formatBuffer, 0, NumberFormatUtil.formatLong(integer, formatBuffer));
     	output.write(' ');
     }
+
+    /**
+     * Writes a number rounded to the maximum number of fraction digits.
+     */
+    private void writeNumber(double value) throws IOException
+    {
+    	int length = NumberFormatUtil.formatDoubleFast(value, maximumFractionDigits, formatBuffer);
+    	if (length >= 0)
+    	{
+    		output.write(formatBuffer, 0, length);
+    	}
+    	else if (Double.isNaN(value) || Double.isInfinite(value))
+    	{
+    		throw new IllegalArgumentException(value + " is not a finite number");
+    	}
+    	else
+    	{
+    		// far beyond the size of a page, there are no fraction digits to round
+    		output.write(new BigDecimal(value).toBigInteger().toString()
+    				.getBytes(Charsets.US_ASCII));
+    	}
+    }
     
     /**
      * Writes a COSName to the content stream.
@@ -104,7 +104,7 @@ public final class PDResources implements COSObjectable
             font = PDFontFactory.createFont(dict);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, font);
         }
@@ -141,7 +141,7 @@ public final class PDResources implements COSObjectable
             colorSpace = PDColorSpace.create(name, this);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, colorSpace);
         }
@@ -184,7 +184,7 @@ public final class PDResources implements COSObjectable
             extGState = new PDExtendedGraphicsState(dict);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, extGState);
         }
@@ -217,7 +217,7 @@ public final class PDResources implements COSObjectable
             shading = PDShading.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, shading);
         }
@@ -250,7 +250,7 @@ public final class PDResources implements COSObjectable
             pattern = PDAbstractPattern.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, pattern);
         }
@@ -282,7 +282,7 @@ public final class PDResources implements COSObjectable
             propertyList = PDPropertyList.create(dict);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, propertyList);
         }
@@ -323,7 +323,7 @@ public final class PDResources implements COSObjectable
             xobject = PDXObject.createXObject(value, this);
         }
 
-        if (cache != null)
+        if (cache != null && indirect != null)
         {
             cache.put(indirect, xobject);
         }
@@ -18,9 +18,9 @@ import com.tom_roush.pdfbox.util.Matrix;
 import com.tom_roush.pdfbox.util.awt.AffineTransform;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Type 0 CIDFont (CFF).
@@ -33,7 +33,7 @@ public class PDCIDFontType0 extends PDCIDFont
 	private final CFFCIDFont cidFont;  // Top DICT that uses CIDFont operators
     private final FontBoxFont t1Font; // Top DICT that does not use CIDFont operators
 
-	private final Map<Integer, Float> glyphHeights = new HashMap<Integer, Float>();
+	private final Map<Integer, Float> glyphHeights = new ConcurrentHashMap<Integer, Float>();
 	private final boolean isEmbedded;
 	private final boolean isDamaged;
 
@@ -194,16 +194,18 @@ public abstract class PDSimpleFont extends PDFont
 			return invertedEncoding;
 		}
 
-		invertedEncoding = new HashMap<String, Integer>();
+		// the map is filled before it's published, as the font may be shared between threads
+		Map<String, Integer> inverted = new HashMap<String, Integer>();
 		Map<Integer, String> codeToName = encoding.getCodeToNameMap();
 		for (Map.Entry<Integer, String> entry : codeToName.entrySet())
 		{
-			if (!invertedEncoding.containsKey(entry.getValue()))
+			if (!inverted.containsKey(entry.getValue()))
 			{
-				invertedEncoding.put(entry.getValue(), entry.getKey());
+				inverted.put(entry.getValue(), entry.getKey());
 			}
 		}
-		return invertedEncoding;
+		invertedEncoding = inverted;
+		return inverted;
 	}
 
 	/**
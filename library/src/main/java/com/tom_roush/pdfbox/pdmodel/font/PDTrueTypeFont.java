@@ -396,16 +396,18 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
 			return gidToCode;
 		}
 
-		gidToCode = new HashMap<Integer, Integer>();
+		// the map is filled before it's published, as the font may be shared between threads
+		Map<Integer, Integer> inverted = new HashMap<Integer, Integer>();
 		for (int code = 0; code <= 255; code++)
 		{
 			int gid = codeToGID(code);
-			if (!gidToCode.containsKey(gid))
+			if (!inverted.containsKey(gid))
 			{
-				gidToCode.put(gid, code);
+				inverted.put(gid, code);
 			}
 		}
-		return gidToCode;
+		gidToCode = inverted;
+		return inverted;
 	}
 
 	@Override
@@ -21,9 +21,9 @@ import com.tom_roush.pdfbox.util.awt.AffineTransform;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Type 1-equivalent CFF font.
@@ -33,7 +33,7 @@ import java.util.Map;
  */
 public class PDType1CFont extends PDSimpleFont
 {
-	private final Map<String, Float> glyphHeights = new HashMap<String, Float>();
+	private final Map<String, Float> glyphHeights = new ConcurrentHashMap<String, Float>();
 	private Float avgWidth = null;
 	private Matrix fontMatrix;
 	private final AffineTransform fontMatrixTransform;
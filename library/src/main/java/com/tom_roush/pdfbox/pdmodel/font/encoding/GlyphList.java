@@ -10,6 +10,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PostScript glyph list, maps glyph names to sequences of Unicode characters.
@@ -87,7 +88,8 @@ public final class GlyphList
     private final Map<String, String> unicodeToName;
 
     // additional read/write cache for uniXXXX names
-    private final Map<String, String> uniNameToUnicodeCache = new HashMap<String, String>();
+    private final Map<String, String> uniNameToUnicodeCache =
+        new ConcurrentHashMap<String, String>();
 
 	/**
 	 * Creates a new GlyphList from a glyph list file.
@@ -266,7 +268,10 @@ public final class GlyphList
 					Log.w("PdfBox-Android", "Not a number in Unicode character name: " + name);
 				}
 			}
-            uniNameToUnicodeCache.put(name, unicode);
+            if (unicode != null)
+            {
+                uniNameToUnicodeCache.put(name, unicode);
+            }
         }
 		return unicode;
 	}
@@ -3,11 +3,10 @@ package com.tom_roush.pdfbox.rendering;
 import android.graphics.Path;
 import android.util.Log;
 
+import com.tom_roush.fontbox.cff.Type2CharString;
 import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType0;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * GeneralPath conversion for CFF CIDFont.
@@ -16,25 +15,30 @@ import java.util.Map;
  */
 final class CIDType0Glyph2D implements Glyph2D
 {
-	private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
 	private final PDCIDFontType0 font;
+	private final GlyphCache cache;
 	private final String fontName;
 	/**
 	 * Constructor.
 	 *
 	 * @param font Type 0 CIDFont
+	 * @param cache the cache of the glyph outlines, keyed by the character code of the parent
 	 */
-    CIDType0Glyph2D(PDCIDFontType0 font) // todo: what about PDCIDFontType2?
+    CIDType0Glyph2D(PDCIDFontType0 font, GlyphCache cache) // todo: what about PDCIDFontType2?
     {
 		this.font = font;
+		this.cache = cache;
 		fontName = font.getBaseFont();
 	}
 	@Override
 	public Path getPathForCharacterCode(int code)
 	{
-		if (cache.containsKey(code))
+		// the font's paths are shared, the caller transforms the returned path
+		// the parent's CMap maps the code to the CID
+		Path cached = cache.get(font.getParent().getCOSObject(), code);
+		if (cached != null)
 		{
-			return cache.get(code);
+			return new Path(cached);
 		}
 		try
 		{
@@ -45,8 +49,12 @@ final class CIDType0Glyph2D implements Glyph2D
 				Log.w("PdfBox-Android", "No glyph for " + code + " (CID " + cidHex + ") in font " + fontName);
 			}
             Path path = font.getPath(code);
-            cache.put(code, path);
-			return path;
+            // the points are counted when the charstring is rendered
+            Type2CharString charString = font.getType2CharString(font.codeToCID(code));
+            int pointCount = charString != null ? charString.getPointCount()
+                : GlyphCache.AVERAGE_POINT_COUNT;
+            cache.put(font.getParent().getCOSObject(), code, path, pointCount);
+			return new Path(path);
 		}
 		catch (IOException e)
 		{
@@ -58,6 +66,6 @@ final class CIDType0Glyph2D implements Glyph2D
 	@Override
 	public void dispose()
 	{
-		cache.clear();
+		// the outlines are kept in the shared cache
 	}
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.tom_roush.pdfbox.rendering;
+
+import android.graphics.Path;
+
+import com.tom_roush.pdfbox.cos.COSBase;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of glyph outlines, shared by all pages and renderers. The glyphs are keyed by
+ * the identity of the font dictionary and a glyph number, so fonts which are loaded again, e.g. by
+ * another renderer of the same document, find the glyphs of the first one. The memory used by the
+ * outlines is estimated, and the least recently used glyphs are removed when it exceeds the
+ * maximum size.
+ *
+ * <p>The fonts are referenced weakly, so the cache doesn't keep closed documents alive. The
+ * cached paths are shared and must not be modified. This class is thread-safe.</p>
+ */
+public final class GlyphCache
+{
+    /**
+     * The estimated number of points of an outline, for fonts which don't tell.
+     */
+    static final int AVERAGE_POINT_COUNT = 40;
+
+    // a key with its entry, a path object and its native counterpart
+    private static final int ENTRY_SIZE = 128;
+
+    // two floats and a verb per point
+    private static final int POINT_SIZE = 9;
+
+    private static final GlyphCache DEFAULT = new GlyphCache(4 * 1024 * 1024);
+
+    // in access order, so the least recently used glyph comes first
+    private final Map<GlyphKey, Entry> glyphs = new LinkedHashMap<GlyphKey, Entry>(256, 0.75f, true);
+    // the key for lookups, which references the font strongly while it's used
+    private final GlyphKey lookupKey = new GlyphKey();
+    private long maximumSize;
+    private long size;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize the maximum estimated size of the cached outlines in bytes
+     */
+    public GlyphCache(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cache used by renderers unless another one is set.
+     *
+     * @return the default cache, which keeps up to 4 MB of outlines
+     */
+    public static GlyphCache getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the maximum estimated size of the cached outlines.
+     *
+     * @return the maximum size in bytes
+     */
+    public synchronized long getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum estimated size of the cached outlines, and removes the least recently used
+     * outlines if they exceed it.
+     *
+     * @param maximumSize the maximum size in bytes
+     */
+    public synchronized void setMaximumSize(long maximumSize)
+    {
+        this.maximumSize = maximumSize;
+        evict();
+    }
+
+    /**
+     * Returns the estimated size of the cached outlines.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all outlines.
+     */
+    public synchronized void clear()
+    {
+        glyphs.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns a cached outline.
+     *
+     * @param font the font dictionary
+     * @param glyph the glyph number, e.g. the GID
+     * @return the shared outline, or null if it isn't cached
+     */
+    synchronized Path get(COSBase font, int glyph)
+    {
+        lookupKey.set(font, glyph);
+        Entry entry = glyphs.get(lookupKey);
+        lookupKey.set(null, 0);
+        return entry != null ? entry.path : null;
+    }
+
+    /**
+     * Adds an outline, removing the least recently used ones if the cache gets too large.
+     *
+     * @param font the font dictionary
+     * @param glyph the glyph number, e.g. the GID
+     * @param path the outline, which must not be modified afterwards
+     * @param pointCount the number of points of the outline, which estimates its size
+     */
+    synchronized void put(COSBase font, int glyph, Path path, int pointCount)
+    {
+        Entry entry = new Entry(path, ENTRY_SIZE + POINT_SIZE * pointCount);
+        Entry previous = glyphs.put(new GlyphKey(font, glyph), entry);
+        if (previous != null)
+        {
+            size -= previous.size;
+        }
+        size += entry.size;
+        evict();
+    }
+
+    private void evict()
+    {
+        Iterator<Entry> iterator = glyphs.values().iterator();
+        while (size > maximumSize && iterator.hasNext())
+        {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Path path;
+        private final int size;
+
+        private Entry(Path path, int size)
+        {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The identity of a font with a glyph number. Cached keys reference the font weakly, a key
+     * of a collected font equals no other key and is eventually evicted.
+     */
+    private static final class GlyphKey
+    {
+        private WeakReference<COSBase> reference;
+        private COSBase font;
+        private int glyph;
+        private int hash;
+
+        private GlyphKey()
+        {
+        }
+
+        private GlyphKey(COSBase font, int glyph)
+        {
+            reference = new WeakReference<COSBase>(font);
+            this.glyph = glyph;
+            hash = hash(font, glyph);
+        }
+
+        private void set(COSBase font, int glyph)
+        {
+            this.font = font;
+            this.glyph = glyph;
+            hash = hash(font, glyph);
+        }
+
+        private static int hash(COSBase font, int glyph)
+        {
+            return System.identityHashCode(font) * 31 + glyph;
+        }
+
+        private COSBase getFont()
+        {
+            return font != null ? font : reference.get();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof GlyphKey))
+            {
+                return false;
+            }
+            GlyphKey other = (GlyphKey) obj;
+            COSBase otherFont = other.getFont();
+            return glyph == other.glyph && otherFont != null && otherFont == getFont();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
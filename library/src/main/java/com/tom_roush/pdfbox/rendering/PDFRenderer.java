@@ -4,12 +4,22 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.RectF;
 
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDPage;
 import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Renders a PDF document to an AWT BufferedImage.
@@ -21,7 +31,7 @@ import java.io.IOException;
 public class PDFRenderer
 {
 	protected final PDDocument document;
-	// TODO keep rendering state such as caches here
+	private GlyphCache glyphCache = GlyphCache.getDefault();
 	
 	/**
 	 * Creates a new PDFRenderer.
@@ -32,6 +42,24 @@ public class PDFRenderer
 		this.document = document;
 	}
 	
+	/**
+	 * Returns the cache of the glyph outlines, which is shared by all renderers by default.
+	 * @return the glyph cache
+	 */
+	public GlyphCache getGlyphCache()
+	{
+		return glyphCache;
+	}
+
+	/**
+	 * Sets the cache of the glyph outlines, e.g. one with a different maximum size.
+	 * @param glyphCache the glyph cache
+	 */
+	public void setGlyphCache(GlyphCache glyphCache)
+	{
+		this.glyphCache = glyphCache;
+	}
+
 	/**
 	 * Returns the given page as an RGB image at 72 DPI
 	 * @param pageIndex the zero-based index of the page to be converted.
@@ -52,9 +80,155 @@ public class PDFRenderer
 	 * @throws IOException if the PDF cannot be read
 	 */
 	public Bitmap renderImage(int pageIndex, float scale, Bitmap.Config config) throws IOException
+	{
+		return renderImage(document.getPage(pageIndex), scale, config);
+	}
+
+	/**
+	 * Renders a range of pages in parallel, using as many threads as there are processors.
+	 * @param fromPage the zero-based index of the first page to be converted
+	 * @param toPage the zero-based index after the last page to be converted
+	 * @param scale the scaling factor, where 1 = 72 DPI
+	 * @param config the bitmap config to create
+	 * @return the rendered page images in the order of the pages
+	 * @throws IOException if the PDF cannot be read
+	 * @see #renderImages(int, int, float, Bitmap.Config, ExecutorService)
+	 */
+	public List<Bitmap> renderImages(int fromPage, int toPage, float scale, Bitmap.Config config)
+		throws IOException
+	{
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), toPage - fromPage);
+		if (threads <= 1)
+		{
+			List<Bitmap> images = new ArrayList<Bitmap>();
+			for (int i = fromPage; i < toPage; i++)
+			{
+				images.add(renderImage(i, scale, config));
+			}
+			return images;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			return renderImages(fromPage, toPage, scale, config, executor);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Renders a range of pages in parallel, each page is rendered by its own PageDrawer on a
+	 * thread of the given executor. The pages share the document and its resource cache, so the
+	 * document must not be modified until all pages are rendered.
+	 * @param fromPage the zero-based index of the first page to be converted
+	 * @param toPage the zero-based index after the last page to be converted
+	 * @param scale the scaling factor, where 1 = 72 DPI
+	 * @param config the bitmap config to create
+	 * @param executor the executor which renders the pages, it isn't shut down
+	 * @return the rendered page images in the order of the pages
+	 * @throws IOException if the PDF cannot be read
+	 */
+	public List<Bitmap> renderImages(int fromPage, int toPage, float scale,
+		final Bitmap.Config config, ExecutorService executor) throws IOException
+	{
+		List<Future<Bitmap>> futures = new ArrayList<Future<Bitmap>>();
+		try
+		{
+			for (int i = fromPage; i < toPage; i++)
+			{
+				// the page tree is read on this thread
+				final PDPage page = document.getPage(i);
+				final float pageScale = scale;
+				futures.add(executor.submit(new Callable<Bitmap>()
+				{
+					@Override
+					public Bitmap call() throws IOException
+					{
+						return renderImage(page, pageScale, config);
+					}
+				}));
+			}
+			List<Bitmap> images = new ArrayList<Bitmap>(futures.size());
+			for (Future<Bitmap> future : futures)
+			{
+				images.add(future.get());
+			}
+			return images;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Rendering was interrupted");
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof IOException)
+			{
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		finally
+		{
+			// pages which aren't needed anymore after an error
+			for (Future<Bitmap> future : futures)
+			{
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Renders a region of the given page into a bitmap, e.g. a tile of a zoomed page. The canvas
+	 * is clipped to the region, and operators drawing only outside of it are skipped, so the
+	 * memory and time needed depend on the size of the region rather than on the scale.
+	 * @param pageIndex the zero-based index of the page to be converted
+	 * @param scale the scaling factor, where 1 = 72 DPI
+	 * @param region the region in pixels of the page image at the given scale, as returned by
+	 * {@link #renderImage(int, float, Bitmap.Config)}
+	 * @param target the mutable bitmap the region is drawn to, starting at its upper left corner
+	 * @throws IOException if the PDF cannot be read
+	 */
+	public void renderRegion(int pageIndex, float scale, RectF region, Bitmap target)
+		throws IOException
 	{
 		PDPage page = document.getPage(pageIndex);
+		Canvas canvas = new Canvas(target);
+		canvas.clipRect(0, 0, region.width(), region.height());
+
+		// use a transparent background if the bitmap supports alpha, like renderImage
+		if (target.getConfig() != Bitmap.Config.ARGB_8888)
+		{
+			canvas.drawColor(Color.WHITE);
+		}
+		else
+		{
+			canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+		}
 
+		PDRectangle cropBox = page.getCropBox();
+		int widthPx = Math.round(cropBox.getWidth() * scale);
+		int heightPx = Math.round(cropBox.getHeight() * scale);
+		int rotationAngle = page.getRotation();
+		canvas.translate(-region.left, -region.top);
+		if (rotationAngle == 90 || rotationAngle == 270)
+		{
+			renderPage(page, new Paint(), canvas, heightPx, widthPx, scale, scale);
+		}
+		else
+		{
+			renderPage(page, new Paint(), canvas, widthPx, heightPx, scale, scale);
+		}
+	}
+
+	private Bitmap renderImage(PDPage page, float scale, Bitmap.Config config) throws IOException
+	{
         PDRectangle cropbBox = page.getCropBox();
         float widthPt = cropbBox.getWidth();
         float heightPt = cropbBox.getHeight();
@@ -96,6 +270,8 @@ public class PDFRenderer
         PDRectangle cropBox = page.getCropBox();
         int rotationAngle = page.getRotation();
 
+        canvas.scale(scaleX, scaleY);
+
         if (rotationAngle != 0)
         {
         	float translateX = 0;
@@ -114,7 +290,7 @@ public class PDFRenderer
                     break;
             }
             canvas.translate(translateX, translateY);
-            canvas.rotate((float) Math.toRadians(rotationAngle));
+            canvas.rotate(rotationAngle);
         }
 
         // the end-user may provide a custom PageDrawer
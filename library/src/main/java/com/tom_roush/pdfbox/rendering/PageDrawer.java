@@ -7,6 +7,7 @@ import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Region;
 import android.util.Log;
@@ -72,7 +73,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     // buffered clipping area for text being drawn
     private Region textClippingArea;
 
-    // glyph cache
+    // the visible part of the page if it isn't the whole page, e.g. when rendering a tile,
+    // drawing operations outside of it are skipped
+    private RectF cullingBounds;
+
+    // the glyph providers of the fonts of this page, the outlines are in the renderer's cache
     private final Map<PDFont, Glyph2D> fontGlyph2D = new HashMap<PDFont, Glyph2D>();
 
 	/**
@@ -150,6 +155,18 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 		// adjust for non-(0,0) crop box
 		canvas.translate(-pageSize.getLowerLeftX(), -pageSize.getLowerLeftY());
 
+		// the clip bounds are given in page coordinates, rounded outwards
+		Rect clipBounds = new Rect();
+		if (canvas.getClipBounds(clipBounds))
+		{
+			RectF visible = new RectF(clipBounds);
+			if (!visible.contains(pageSize.getLowerLeftX(), pageSize.getLowerLeftY(),
+				pageSize.getUpperRightX(), pageSize.getUpperRightY()))
+			{
+				cullingBounds = visible;
+			}
+		}
+
 		processPage(getPage());
 
 		for (PDAnnotation annotation : getPage().getAnnotations())
@@ -344,6 +361,13 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 //            Shape glyph = at.createTransformedShape(path);
             path.transform(at.toMatrix());
 
+            // glyphs used for clipping have to be kept even if they're invisible
+            if (!renderingMode.isClip()
+                && isCulled(path, renderingMode.isStroke() ? getStrokeOutset() : 0))
+            {
+                return;
+            }
+
             if (renderingMode.isFill())
             {
 //                graphics.setComposite(state.getNonStrokingJavaComposite());
@@ -397,30 +421,30 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         if (font instanceof PDTrueTypeFont)
         {
             PDTrueTypeFont ttfFont = (PDTrueTypeFont)font;
-            glyph2D = new TTFGlyph2D(ttfFont);  // TTF is never null
+            glyph2D = new TTFGlyph2D(ttfFont, renderer.getGlyphCache());  // TTF is never null
         }
         else if (font instanceof PDType1Font)
         {
             PDType1Font pdType1Font = (PDType1Font)font;
-            glyph2D = new Type1Glyph2D(pdType1Font); // T1 is never null
+            glyph2D = new Type1Glyph2D(pdType1Font, renderer.getGlyphCache()); // T1 is never null
         }
         else if (font instanceof PDType1CFont)
         {
             PDType1CFont type1CFont = (PDType1CFont)font;
-            glyph2D = new Type1Glyph2D(type1CFont);
+            glyph2D = new Type1Glyph2D(type1CFont, renderer.getGlyphCache());
         }
         else if (font instanceof PDType0Font)
         {
             PDType0Font type0Font = (PDType0Font) font;
             if (type0Font.getDescendantFont() instanceof PDCIDFontType2)
             {
-                glyph2D = new TTFGlyph2D(type0Font); // TTF is never null
+                glyph2D = new TTFGlyph2D(type0Font, renderer.getGlyphCache()); // TTF is never null
             }
             else if (type0Font.getDescendantFont() instanceof PDCIDFontType0)
             {
                 // a Type0 CIDFont contains CFF font
                 PDCIDFontType0 cidType0Font = (PDCIDFontType0)type0Font.getDescendantFont();
-                glyph2D = new CIDType0Glyph2D(cidType0Font); // todo: could be null (need incorporate fallback)
+                glyph2D = new CIDType0Glyph2D(cidType0Font, renderer.getGlyphCache()); // todo: could be null (need incorporate fallback)
             }
         }
         else
@@ -431,7 +455,7 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         // cache the Glyph2D instance
         if (glyph2D != null)
         {
-//            fontGlyph2D.put(font, glyph2D); TODO: use caching
+            fontGlyph2D.put(font, glyph2D);
         }
 
         if (glyph2D == null)
@@ -574,6 +598,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
 //        graphics.setComposite(getGraphicsState().getStrokingJavaComposite());
 
         setStroke();
+        if (isCulled(linePath, getStrokeOutset()))
+        {
+            linePath.reset();
+            return;
+        }
         setClip();
         paint.setARGB(255, 0, 0, 0); // TODO set the correct color from graphics state.
         paint.setStyle(Paint.Style.STROKE);
@@ -586,6 +615,11 @@ public class PageDrawer extends PDFGraphicsStreamEngine
     @Override
     public void fillPath(Path.FillType windingRule) throws IOException
     {
+        if (isCulled(linePath, 0))
+        {
+            linePath.reset();
+            return;
+        }
 //        graphics.setComposite(getGraphicsState().getNonStrokingJavaComposite());
     	paint.setColor(getNonStrokingColor());
     	setClip();
@@ -691,6 +725,39 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         strokePath();
     }
 
+    /**
+     * Returns true if something within the given path, enlarged by the given outset, is
+     * invisible as it's outside of the culling bounds.
+     */
+    private boolean isCulled(Path path, float outset)
+    {
+        if (cullingBounds == null)
+        {
+            return false;
+        }
+        // the bounds of the control points contain the path
+        RectF bounds = new RectF();
+        path.computeBounds(bounds, false);
+        return isCulled(bounds, outset);
+    }
+
+    private boolean isCulled(RectF bounds, float outset)
+    {
+        return cullingBounds != null && !cullingBounds.intersects(bounds.left - outset,
+            bounds.top - outset, bounds.right + outset, bounds.bottom + outset);
+    }
+
+    // the distance a stroke may reach beyond its path, miter joins reach further than the line
+    private float getStrokeOutset()
+    {
+        float outset = paint.getStrokeWidth() / 2;
+        if (paint.getStrokeJoin() == Paint.Join.MITER)
+        {
+            outset *= Math.max(1, paint.getStrokeMiter());
+        }
+        return outset;
+    }
+
     @Override
     public void clip(Path.FillType windingRule)
     {
@@ -748,6 +815,14 @@ public class PageDrawer extends PDFGraphicsStreamEngine
         com.tom_roush.pdfbox.util.Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
         AffineTransform at = ctm.createAffineTransform();
 
+        // the image fills the unit square, it isn't decoded if it's invisible
+        RectF bounds = new RectF(0, 0, 1, 1);
+        at.toMatrix().mapRect(bounds);
+        if (isCulled(bounds, 0))
+        {
+            return;
+        }
+
         if (!pdImage.getInterpolate())
         {
         	boolean isScaledUp = pdImage.getWidth() < Math.round(at.getScaleX()) ||
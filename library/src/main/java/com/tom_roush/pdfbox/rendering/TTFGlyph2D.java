@@ -4,6 +4,7 @@ import android.graphics.Path;
 import android.util.Log;
 
 import com.tom_roush.fontbox.ttf.HeaderTable;
+import com.tom_roush.fontbox.ttf.IndexToLocationTable;
 import com.tom_roush.fontbox.ttf.TrueTypeFont;
 import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType2;
 import com.tom_roush.pdfbox.pdmodel.font.PDFont;
@@ -13,30 +14,32 @@ import com.tom_roush.pdfbox.pdmodel.font.PDVectorFont;
 import com.tom_roush.pdfbox.util.awt.AffineTransform;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * This class provides a glyph to GeneralPath conversion for TrueType and OpenType fonts.
  */
 final class TTFGlyph2D implements Glyph2D
 {
+	// a point takes a flag and one or two bytes per coordinate, plus a share of the instructions
+	private static final int BYTES_PER_POINT = 3;
+
 	private final PDFont font;
 	private final TrueTypeFont ttf;
     private PDVectorFont vectorFont;
     private float scale = 1.0f;
 	private boolean hasScaling;
-	private final Map<Integer, Path> glyphs = new HashMap<Integer, Path>();
+	private final GlyphCache cache;
 	private final boolean isCIDFont;
 
 	/**
 	 * Constructor.
 	 *
 	 * @param ttfFont TrueType font
+	 * @param cache the cache of the glyph outlines
 	 */
-    TTFGlyph2D(PDTrueTypeFont ttfFont) throws IOException
+    TTFGlyph2D(PDTrueTypeFont ttfFont, GlyphCache cache) throws IOException
     {
-		this(ttfFont.getTrueTypeFont(), ttfFont, false);
+		this(ttfFont.getTrueTypeFont(), ttfFont, false, cache);
         vectorFont = ttfFont;
     }
 
@@ -44,16 +47,20 @@ final class TTFGlyph2D implements Glyph2D
 	 * Constructor.
 	 *
 	 * @param type0Font Type0 font, with CIDFontType2 descendant
+	 * @param cache the cache of the glyph outlines
 	 */
-    TTFGlyph2D(PDType0Font type0Font) throws IOException
+    TTFGlyph2D(PDType0Font type0Font, GlyphCache cache) throws IOException
     {
-		this(((PDCIDFontType2)type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true);
+		this(((PDCIDFontType2)type0Font.getDescendantFont()).getTrueTypeFont(), type0Font, true,
+			cache);
         vectorFont = type0Font;
     }
 
-    private TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont) throws IOException
+    private TTFGlyph2D(TrueTypeFont ttf, PDFont font, boolean isCIDFont, GlyphCache cache)
+		throws IOException
     {
 		this.font = font;
+		this.cache = cache;
 		this.ttf = ttf;
 		this.isCIDFont = isCIDFont;
 		// get units per em, which is used as scaling factor
@@ -97,12 +104,8 @@ final class TTFGlyph2D implements Glyph2D
 	 */
 	public Path getPathForGID(int gid, int code) throws IOException
 	{
-		Path glyphPath;
-		if (glyphs.containsKey(gid))
-		{
-			glyphPath = glyphs.get(gid);
-		}
-		else
+		Path glyphPath = cache.get(font.getCOSObject(), gid);
+		if (glyphPath == null)
 		{
 			if (gid == 0 || gid >= ttf.getMaximumProfile().getNumGlyphs())
 			{
@@ -128,7 +131,7 @@ final class TTFGlyph2D implements Glyph2D
 			{
 				// empty glyph (e.g. space, newline)
 				glyphPath = new Path();
-				glyphs.put(gid, glyphPath);
+				cache.put(font.getCOSObject(), gid, glyphPath, 0);
 			}
 			else
 			{
@@ -138,15 +141,35 @@ final class TTFGlyph2D implements Glyph2D
 					AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
 					glyphPath.transform(atScale.toMatrix());
 				}
-				glyphs.put(gid, glyphPath);
+				cache.put(font.getCOSObject(), gid, glyphPath, estimatePointCount(ttf, gid));
 			}
 		}
 		return glyphPath != null ? new Path(glyphPath) : null; // todo: expensive
 	}
 
+	/**
+	 * Estimates the number of points of a glyph from the size of its data in the glyf table,
+	 * without parsing it. Composite glyphs, which only reference other glyphs, are underestimated.
+	 *
+	 * @param ttf the font
+	 * @param gid the GID
+	 * @return the estimated number of points, or the average for fonts without glyf table like
+	 * OpenType fonts with CFF outlines
+	 */
+	static int estimatePointCount(TrueTypeFont ttf, int gid) throws IOException
+	{
+		IndexToLocationTable loca = ttf.getIndexToLocation();
+		long[] offsets = loca != null ? loca.getOffsets() : null;
+		if (offsets == null || gid < 0 || gid + 1 >= offsets.length)
+		{
+			return GlyphCache.AVERAGE_POINT_COUNT;
+		}
+		return (int) Math.max(0, (offsets[gid + 1] - offsets[gid]) / BYTES_PER_POINT);
+	}
+
     @Override
 	public void dispose()
 	{
-		glyphs.clear();
+		// the outlines are kept in the shared cache
 	}
 }
@@ -3,36 +3,42 @@ package com.tom_roush.pdfbox.rendering;
 import android.graphics.Path;
 import android.util.Log;
 
+import com.tom_roush.fontbox.FontBoxFont;
+import com.tom_roush.fontbox.cff.CFFType1Font;
+import com.tom_roush.fontbox.ttf.TrueTypeFont;
+import com.tom_roush.fontbox.type1.Type1Font;
 import com.tom_roush.pdfbox.pdmodel.font.PDSimpleFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDType1Font;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Glyph to GeneralPath conversion for Type 1 PFB and CFF, and TrueType fonts with a 'post' table.
  */
 final class Type1Glyph2D implements Glyph2D
 {
-	private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
     private final PDSimpleFont font;
+	private final GlyphCache cache;
 
     /**
      * Constructor.
 	 *
 	 * @param font PDF Type1 font.
+	 * @param cache the cache of the glyph outlines, keyed by character code
 	 */
-    Type1Glyph2D(PDSimpleFont font)
+    Type1Glyph2D(PDSimpleFont font, GlyphCache cache)
     {
         this.font = font;
+        this.cache = cache;
 	}
 	@Override
 	public Path getPathForCharacterCode(int code)
 	{
-		// cache
-		if (cache.containsKey(code))
+		// cache, the font's paths are shared, the caller transforms the returned path
+		Path cached = cache.get(font.getCOSObject(), code);
+		if (cached != null)
 		{
-			return cache.get(code);
+			return new Path(cached);
 		}
 		// fetch
 		try
@@ -44,12 +50,23 @@ final class Type1Glyph2D implements Glyph2D
 			}
 			// todo: can this happen? should it be encapsulated?
 			Path path = font.getPath(name);
+			int pointCount;
 			if (path == null)
 			{
 				path = font.getPath(".notdef");
+				pointCount = getPointCount(".notdef");
 			}
-			cache.put(code, path);
-			return path;
+			else if (font instanceof PDType1Font)
+			{
+				// a substitute font may use another name for the glyph
+				pointCount = getPointCount(((PDType1Font) font).codeToName(code));
+			}
+			else
+			{
+				pointCount = getPointCount(name);
+			}
+			cache.put(font.getCOSObject(), code, path, pointCount);
+			return new Path(path);
 		}
 		catch (IOException e)
 		{
@@ -57,9 +74,34 @@ final class Type1Glyph2D implements Glyph2D
 			return new Path();
 		}
 	}
+
+	/**
+	 * Returns the number of points of the given glyph, for the memory accounting of the cache.
+	 *
+	 * @param name the name of the glyph in the underlying font
+	 */
+	private int getPointCount(String name) throws IOException
+	{
+		FontBoxFont genericFont = font.getFontBoxFont();
+		if (genericFont instanceof Type1Font)
+		{
+			return ((Type1Font) genericFont).getType1CharString(name).getPointCount();
+		}
+		else if (genericFont instanceof CFFType1Font)
+		{
+			return ((CFFType1Font) genericFont).getType1CharString(name).getPointCount();
+		}
+		else if (genericFont instanceof TrueTypeFont)
+		{
+			TrueTypeFont ttf = (TrueTypeFont) genericFont;
+			return TTFGlyph2D.estimatePointCount(ttf, ttf.nameToGID(name));
+		}
+		return GlyphCache.AVERAGE_POINT_COUNT;
+	}
+
 	@Override
 	public void dispose()
 	{
-		cache.clear();
+		// the outlines are kept in the shared cache
 	}
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package com.tom_roush.pdfbox.util;
+
+/**
+ * Writes numbers as ASCII digits into a byte buffer, independent of the locale and without
+ * creating strings. The formats are those of PDF numbers, i.e. without exponent.
+ */
+public final class NumberFormatUtil
+{
+    /**
+     * The maximum number of bytes written by the methods of this class.
+     */
+    public static final int MAX_LENGTH = 40;
+
+    /**
+     * The maximum number of fraction digits supported by
+     * {@link #formatFloatFast(float, int, byte[])}.
+     */
+    public static final int MAX_FRACTION_DIGITS = 15;
+
+    private static final long[] POWER_OF_TENS = new long[19];
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>()
+    {
+        @Override
+        protected byte[] initialValue()
+        {
+            return new byte[MAX_LENGTH];
+        }
+    };
+
+    // the scaled values have to be exact integers in a double
+    private static final double MAX_SCALED_VALUE = 1L << 52;
+
+    static
+    {
+        POWER_OF_TENS[0] = 1;
+        for (int i = 1; i < POWER_OF_TENS.length; i++)
+        {
+            POWER_OF_TENS[i] = POWER_OF_TENS[i - 1] * 10;
+        }
+    }
+
+    private NumberFormatUtil()
+    {
+    }
+
+    /**
+     * Returns a buffer of {@link #MAX_LENGTH} bytes which belongs to the current thread, for
+     * callers which write a number and don't keep a buffer of their own. The buffer is reused
+     * by the next call on the same thread.
+     *
+     * @return the buffer of the current thread
+     */
+    public static byte[] getThreadBuffer()
+    {
+        return BUFFERS.get();
+    }
+
+    /**
+     * Writes the decimal digits of an integer.
+     *
+     * @param value the value
+     * @param buffer the buffer, which has to hold at least 20 bytes
+     * @return the number of bytes written to the start of the buffer
+     */
+    public static int formatLong(long value, byte[] buffer)
+    {
+        int length = 0;
+        if (value < 0)
+        {
+            buffer[length++] = '-';
+        }
+        return writeDigits(value, buffer, length);
+    }
+
+    /**
+     * Writes a value rounded to at most the given number of fraction digits. Trailing zeros of
+     * the fraction are omitted, like the decimal point of integers.
+     *
+     * @param value the value
+     * @param maxFractionDigits the maximum number of fraction digits, from 0 to
+     * {@link #MAX_FRACTION_DIGITS}
+     * @param buffer the buffer, which has to hold at least {@link #MAX_LENGTH} bytes
+     * @return the number of bytes written to the start of the buffer, or -1 if the value isn't
+     * finite or too large to be formatted this way
+     */
+    public static int formatFloatFast(float value, int maxFractionDigits, byte[] buffer)
+    {
+        return formatDoubleFast(value, maxFractionDigits, buffer);
+    }
+
+    /**
+     * Writes a value rounded to at most the given number of fraction digits. Trailing zeros of
+     * the fraction are omitted, like the decimal point of integers. Ties are rounded to the even
+     * digit, like {@link java.text.NumberFormat} does by default.
+     *
+     * @param value the value
+     * @param maxFractionDigits the maximum number of fraction digits, from 0 to
+     * {@link #MAX_FRACTION_DIGITS}
+     * @param buffer the buffer, which has to hold at least {@link #MAX_LENGTH} bytes
+     * @return the number of bytes written to the start of the buffer, or -1 if the value isn't
+     * finite or too large to be formatted this way
+     */
+    public static int formatDoubleFast(double value, int maxFractionDigits, byte[] buffer)
+    {
+        if (maxFractionDigits < 0 || maxFractionDigits > MAX_FRACTION_DIGITS)
+        {
+            throw new IllegalArgumentException("Unsupported number of fraction digits: "
+                + maxFractionDigits);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value))
+        {
+            return -1;
+        }
+        double abs = Math.abs(value);
+        int digits = maxFractionDigits;
+        // digits beyond the precision of the value are dropped
+        while (digits > 0 && abs * POWER_OF_TENS[digits] >= MAX_SCALED_VALUE)
+        {
+            digits--;
+        }
+        double scaled = abs * POWER_OF_TENS[digits];
+        if (scaled >= MAX_SCALED_VALUE)
+        {
+            return -1;
+        }
+        return writeFixed(value < 0, (long) Math.rint(scaled), digits, false, buffer);
+    }
+
+    /**
+     * Writes the shortest representation with at least one fraction digit which is parsed to
+     * the very same float, like {@link Float#toString(float)} for values where it doesn't use the
+     * scientific notation.
+     *
+     * @param value the value
+     * @param buffer the buffer, which has to hold at least {@link #MAX_LENGTH} bytes
+     * @return the number of bytes written to the start of the buffer, or -1 if the value is
+     * outside of the range from 0.001 to 10<sup>7</sup> and not 0
+     */
+    public static int formatFloatShortest(float value, byte[] buffer)
+    {
+        double abs = Math.abs((double) value);
+        if (abs == 0)
+        {
+            return writeFixed(false, 0, 0, true, buffer);
+        }
+        int digits = getShortestFractionDigits(abs);
+        if (digits < 0)
+        {
+            return -1;
+        }
+        long mantissa = (long) Math.rint(abs * POWER_OF_TENS[digits]);
+        return writeFixed(value < 0, mantissa, digits, true, buffer);
+    }
+
+    /**
+     * Returns the double nearest to the shortest decimal which is parsed to the given float, like
+     * <code>Double.parseDouble(Float.toString(value))</code>, but without creating strings in the
+     * range supported by {@link #formatFloatShortest(float, byte[])}.
+     *
+     * @param value the value
+     * @return the double without the fraction digits added by widening the float
+     */
+    public static double toShortestDouble(float value)
+    {
+        double abs = Math.abs((double) value);
+        if (abs == 0)
+        {
+            return value;
+        }
+        int digits = getShortestFractionDigits(abs);
+        if (digits < 0)
+        {
+            return Double.parseDouble(Float.toString(value));
+        }
+        // both operands are exact, so the quotient is rounded like a parsed decimal
+        double decimal = Math.rint(abs * POWER_OF_TENS[digits]) / POWER_OF_TENS[digits];
+        return value < 0 ? -decimal : decimal;
+    }
+
+    /**
+     * Returns the number of fraction digits of the shortest decimal which is parsed to the given
+     * float, or -1 if it's outside of the supported range or can't be determined.
+     */
+    private static int getShortestFractionDigits(double abs)
+    {
+        if (!(abs >= 1e-3 && abs < 1e7))
+        {
+            return -1;
+        }
+        // a decimal is parsed to this float if it's nearer than half the distance to the
+        // neighbours, which is smaller below powers of two
+        double half = Math.ulp(Math.nextAfter((float) abs, 0.0)) / 2.0;
+        for (int digits = 0; digits <= MAX_FRACTION_DIGITS; digits++)
+        {
+            double scaled = abs * POWER_OF_TENS[digits];
+            if (scaled >= MAX_SCALED_VALUE)
+            {
+                break;
+            }
+            // ties are rounded to the even digit, like the shortest representation of Java
+            long mantissa = (long) Math.rint(scaled);
+            // the division is exact within half a double ulp
+            double decimal = mantissa / (double) POWER_OF_TENS[digits];
+            double distance = Math.abs(decimal - abs);
+            if (distance < half - Math.ulp(decimal))
+            {
+                return digits;
+            }
+            if (distance <= half + Math.ulp(decimal))
+            {
+                // too close to tell without exact arithmetic
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the shortest representation with at least one fraction digit which is parsed to
+     * the very same double, like {@link Double#toString(double)} for values where it doesn't use
+     * the scientific notation.
+     *
+     * @param value the value
+     * @param buffer the buffer, which has to hold at least {@link #MAX_LENGTH} bytes
+     * @return the number of bytes written to the start of the buffer, or -1 if the value is
+     * outside of the range from 0.001 to 10<sup>7</sup> and not 0, or has too many digits
+     */
+    public static int formatDoubleShortest(double value, byte[] buffer)
+    {
+        double abs = Math.abs(value);
+        if (abs == 0)
+        {
+            return writeFixed(false, 0, 0, true, buffer);
+        }
+        if (!(abs >= 1e-3 && abs < 1e7))
+        {
+            return -1;
+        }
+        for (int digits = 0; digits <= MAX_FRACTION_DIGITS; digits++)
+        {
+            double scaled = abs * POWER_OF_TENS[digits];
+            if (scaled >= MAX_SCALED_VALUE)
+            {
+                break;
+            }
+            // ties are rounded to the even digit, like the shortest representation of Java
+            long mantissa = (long) Math.rint(scaled);
+            // both operands are exact, so the quotient is rounded like a parsed decimal
+            if (mantissa / (double) POWER_OF_TENS[digits] == abs)
+            {
+                return writeFixed(value < 0, mantissa, digits, true, buffer);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a fixed point number given as scaled integer, without trailing zeros of the
+     * fraction.
+     */
+    private static int writeFixed(boolean negative, long scaled, int fractionDigits,
+        boolean keepPoint, byte[] buffer)
+    {
+        while (fractionDigits > 0 && scaled % 10 == 0)
+        {
+            scaled /= 10;
+            fractionDigits--;
+        }
+        int length = 0;
+        if (negative && scaled != 0)
+        {
+            buffer[length++] = '-';
+        }
+        long power = POWER_OF_TENS[fractionDigits];
+        length = writeDigits(scaled / power, buffer, length);
+        if (fractionDigits > 0)
+        {
+            buffer[length++] = '.';
+            long fraction = scaled % power;
+            for (int i = length + fractionDigits - 1; i >= length; i--)
+            {
+                buffer[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            length += fractionDigits;
+        }
+        else if (keepPoint)
+        {
+            buffer[length++] = '.';
+            buffer[length++] = '0';
+        }
+        return length;
+    }
+
+    /**
+     * Writes the digits of the absolute value at the given position.
+     */
+    private static int writeDigits(long value, byte[] buffer, int offset)
+    {
+        // negative values are used as Long.MIN_VALUE has no positive counterpart
+        long negative = value < 0 ? value : -value;
+        int count = 1;
+        for (long v = negative / 10; v != 0; v /= 10)
+        {
+            count++;
+        }
+        for (int i = offset + count - 1; i >= offset; i--)
+        {
+            buffer[i] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        }
+        return offset + count;
+    }
+}
@@ -0,0 +1,331 @@
+package com.tom_roush.pdfbox.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map for a small number of entries, as found in most PDF dictionaries. Up to
+ * {@link #MAX_ARRAY_SIZE} entries are kept in a flat array of alternating keys and values which is
+ * searched linearly, comparing the keys by identity first. Larger maps are promoted to a
+ * LinkedHashMap. Both modes keep the insertion order.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class SmallMap<K, V> extends AbstractMap<K, V>
+{
+    /**
+     * The maximum number of entries kept in the array.
+     */
+    public static final int MAX_ARRAY_SIZE = 16;
+
+    // alternating keys and values, null if empty or promoted
+    private Object[] keysAndValues;
+    private int arraySize;
+    // used instead of the array once the map has grown beyond MAX_ARRAY_SIZE
+    private Map<K, V> map;
+    private int modCount;
+
+    /**
+     * Creates an empty map.
+     */
+    public SmallMap()
+    {
+    }
+
+    /**
+     * Creates a map containing all entries of the given map.
+     *
+     * @param map the entries to be added
+     */
+    public SmallMap(Map<? extends K, ? extends V> map)
+    {
+        putAll(map);
+    }
+
+    private int indexOfKey(Object key)
+    {
+        if (keysAndValues == null)
+        {
+            return -1;
+        }
+        int length = arraySize * 2;
+        // keys are usually interned, try the identity first
+        for (int i = 0; i < length; i += 2)
+        {
+            if (keysAndValues[i] == key)
+            {
+                return i;
+            }
+        }
+        if (key != null)
+        {
+            for (int i = 0; i < length; i += 2)
+            {
+                if (key.equals(keysAndValues[i]))
+                {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size()
+    {
+        return map != null ? map.size() : arraySize;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return map != null ? map.containsKey(key) : indexOfKey(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key)
+    {
+        if (map != null)
+        {
+            return map.get(key);
+        }
+        int index = indexOfKey(key);
+        return index >= 0 ? (V) keysAndValues[index + 1] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value)
+    {
+        if (map != null)
+        {
+            return map.put(key, value);
+        }
+        int index = indexOfKey(key);
+        if (index >= 0)
+        {
+            V oldValue = (V) keysAndValues[index + 1];
+            keysAndValues[index + 1] = value;
+            return oldValue;
+        }
+        modCount++;
+        if (arraySize == MAX_ARRAY_SIZE)
+        {
+            promote();
+            return map.put(key, value);
+        }
+        if (keysAndValues == null)
+        {
+            keysAndValues = new Object[8];
+        }
+        else if (arraySize * 2 == keysAndValues.length)
+        {
+            Object[] newKeysAndValues = new Object[keysAndValues.length * 2];
+            System.arraycopy(keysAndValues, 0, newKeysAndValues, 0, keysAndValues.length);
+            keysAndValues = newKeysAndValues;
+        }
+        keysAndValues[arraySize * 2] = key;
+        keysAndValues[arraySize * 2 + 1] = value;
+        arraySize++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void promote()
+    {
+        map = new LinkedHashMap<K, V>(MAX_ARRAY_SIZE * 4);
+        for (int i = 0; i < arraySize * 2; i += 2)
+        {
+            map.put((K) keysAndValues[i], (V) keysAndValues[i + 1]);
+        }
+        keysAndValues = null;
+        arraySize = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key)
+    {
+        if (map != null)
+        {
+            return map.remove(key);
+        }
+        int index = indexOfKey(key);
+        if (index < 0)
+        {
+            return null;
+        }
+        V oldValue = (V) keysAndValues[index + 1];
+        removeAt(index);
+        return oldValue;
+    }
+
+    private void removeAt(int index)
+    {
+        modCount++;
+        int length = arraySize * 2;
+        // keep the order of the remaining entries
+        System.arraycopy(keysAndValues, index + 2, keysAndValues, index, length - index - 2);
+        keysAndValues[length - 2] = null;
+        keysAndValues[length - 1] = null;
+        arraySize--;
+    }
+
+    @Override
+    public void clear()
+    {
+        modCount++;
+        keysAndValues = null;
+        arraySize = 0;
+        map = null;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        if (map != null)
+        {
+            return map.entrySet();
+        }
+        return new AbstractSet<Entry<K, V>>()
+        {
+            @Override
+            public Iterator<Entry<K, V>> iterator()
+            {
+                if (map != null)
+                {
+                    // promoted meanwhile
+                    return map.entrySet().iterator();
+                }
+                return new ArrayIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return SmallMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Iterates over the entries of the array.
+     */
+    private final class ArrayIterator implements Iterator<Entry<K, V>>
+    {
+        private int nextIndex = 0;
+        private int lastIndex = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextIndex < arraySize * 2;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            lastIndex = nextIndex;
+            nextIndex += 2;
+            return new ArrayEntry((K) keysAndValues[lastIndex]);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastIndex < 0)
+            {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(lastIndex);
+            expectedModCount = modCount;
+            nextIndex = lastIndex;
+            lastIndex = -1;
+        }
+    }
+
+    /**
+     * An entry of the array, which reads and writes through to the map.
+     */
+    private final class ArrayEntry implements Entry<K, V>
+    {
+        private final K key;
+
+        private ArrayEntry(K key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public K getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public V getValue()
+        {
+            return get(key);
+        }
+
+        @Override
+        public V setValue(V value)
+        {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Entry))
+            {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) obj;
+            V value = getValue();
+            return (key == null ? other.getKey() == null : key.equals(other.getKey()))
+                && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            V value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + getValue();
+        }
+    }
+}
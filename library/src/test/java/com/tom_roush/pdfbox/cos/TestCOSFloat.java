@@ -300,6 +300,22 @@ public class TestCOSFloat extends TestCOSNumber
 		writePDFTester.runTest(0.000000000000000000000000000000001f);
 	}
 
+	/**
+	 * Values beyond the range of a float are clamped, so that they can be written.
+	 */
+	public void testHugeValue() throws IOException
+	{
+		COSFloat huge = new COSFloat("1e999");
+		assertEquals(Float.MAX_VALUE, huge.floatValue());
+		COSFloat negative = new COSFloat("-1e999");
+		assertEquals(-Float.MAX_VALUE, negative.floatValue());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		negative.writePDF(out);
+		assertEquals(-Float.MAX_VALUE, Float.parseFloat(out.toString("ISO-8859-1")));
+		assertTrue(huge.toString().startsWith("COSFloat{3402823"));
+	}
+
 	private String floatToString(float value)
 	{
 		// use a BigDecimal as intermediate state to avoid
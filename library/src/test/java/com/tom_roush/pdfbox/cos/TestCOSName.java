@@ -0,0 +1,30 @@
+package com.tom_roush.pdfbox.cos;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link COSName}.
+ */
+public class TestCOSName
+{
+    /**
+     * The byte based lookup has to return the same instances as the String based one.
+     */
+    @Test
+    public void testGetPDFNameFromBytes() throws Exception
+    {
+        byte[] bytes = " Type ".getBytes("US-ASCII");
+        assertSame(COSName.TYPE, COSName.getPDFName(bytes, 1, 4));
+
+        bytes = "/MyVeryOwnName".getBytes("US-ASCII");
+        COSName name = COSName.getPDFName(bytes, 1, bytes.length - 1);
+        assertSame(COSName.getPDFName("MyVeryOwnName"), name);
+        assertSame(name, COSName.getPDFName(bytes, 1, bytes.length - 1));
+
+        // names are decoded as UTF-8
+        bytes = new byte[] { 'A', (byte) 0xc3, (byte) 0xa4 };
+        assertSame(COSName.getPDFName("Aä"), COSName.getPDFName(bytes, 0, bytes.length));
+    }
+}
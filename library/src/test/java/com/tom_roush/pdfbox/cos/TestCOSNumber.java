@@ -85,4 +85,32 @@ public abstract class TestCOSNumber extends TestCOSBase
 			fail("Failed to convert a number " + e.getMessage());
 		}
 	}
+
+	/**
+	 * Tests get(byte[], int, int) - the byte based factory method has to return the same
+	 * numbers as the String based one.
+	 */
+	public void testGetFromBytes() throws IOException
+	{
+		String[] numbers = { "0", "7", "-1000", "+2000", "1.1", "-100.001", ".5", "-.25", "5.",
+			"0.000000000000000000001", "12345678901234567890.5", "9007199254740993.5",
+			"-2e-006", "-8e+05", "-", "." };
+		for (String number : numbers)
+		{
+			byte[] bytes = (" " + number + " ").getBytes("ISO-8859-1");
+			COSNumber expected = COSNumber.get(number);
+			COSNumber actual = COSNumber.get(bytes, 1, number.length());
+			assertEquals(number, expected, actual);
+			assertEquals(number, expected.doubleValue(), actual.doubleValue());
+		}
+		try
+		{
+			COSNumber.get("1.2.3".getBytes("ISO-8859-1"), 0, 5);
+			fail("Failed to throw an IOException");
+		}
+		catch (IOException e)
+		{
+			// PASS
+		}
+	}
 }
@@ -0,0 +1,77 @@
+package com.tom_roush.pdfbox.cos;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link XrefTable}.
+ */
+public class TestXrefTable
+{
+    @Test
+    public void testGetSet()
+    {
+        XrefTable table = new XrefTable();
+        table.setOffset(1, 0, 15);
+        table.setOffset(1000, 0, -7);
+        table.setOffset(1, 0, 17);
+        assertEquals(2, table.size());
+        assertEquals(17, table.getOffset(1, 0));
+        assertEquals(-7, table.getOffset(new COSObjectKey(1000, 0)));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(1, 1));
+        assertEquals(XrefTable.NOT_FOUND, table.getOffset(2, 0));
+        assertNull(table.get(new COSObjectKey(2, 0)));
+        assertEquals(Long.valueOf(17), table.get(new COSObjectKey(1, 0)));
+    }
+
+    /**
+     * Several generations of the same object number and huge object numbers have to be kept as
+     * well.
+     */
+    @Test
+    public void testOverflow()
+    {
+        XrefTable table = new XrefTable();
+        table.put(new COSObjectKey(5, 0), 100L);
+        table.put(new COSObjectKey(5, 1), 200L);
+        table.put(new COSObjectKey(Integer.MAX_VALUE + 10L, 0), 300L);
+        assertEquals(3, table.size());
+        assertEquals(100, table.getOffset(5, 0));
+        assertEquals(200, table.getOffset(5, 1));
+        assertEquals(300, table.getOffset(Integer.MAX_VALUE + 10L, 0));
+
+        assertEquals(Long.valueOf(100), table.remove(new COSObjectKey(5, 0)));
+        table.put(new COSObjectKey(5, 1), 250L);
+        assertEquals(2, table.size());
+        assertFalse(table.containsKey(new COSObjectKey(5, 0)));
+        assertEquals(250, table.getOffset(5, 1));
+    }
+
+    @Test
+    public void testEntries()
+    {
+        Map<COSObjectKey, Long> expected = new HashMap<COSObjectKey, Long>();
+        expected.put(new COSObjectKey(3, 0), 30L);
+        expected.put(new COSObjectKey(3, 2), 32L);
+        expected.put(new COSObjectKey(700, 0), -3L);
+        expected.put(new COSObjectKey(1L << 40, 0), 40L);
+
+        XrefTable table = new XrefTable();
+        table.putAll(expected);
+        assertEquals(expected, table);
+        assertEquals(expected.keySet(), table.keySet());
+
+        XrefTable copy = new XrefTable();
+        copy.setOffset(3, 0, 1);
+        copy.putAll(table);
+        assertEquals(expected, copy);
+        assertTrue(copy.entrySet().containsAll(expected.entrySet()));
+    }
+}
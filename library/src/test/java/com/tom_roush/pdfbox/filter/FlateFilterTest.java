@@ -0,0 +1,90 @@
+package com.tom_roush.pdfbox.filter;
+
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link FlateFilter}.
+ */
+public class FlateFilterTest
+{
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(Filter.SYSPROP_DEFLATELEVEL);
+        System.clearProperty(Filter.SYSPROP_DEFLATESTRATEGY);
+    }
+
+    /**
+     * Data larger than the buffers has to survive a round trip, also when the pooled codec is
+     * reused for the next stream.
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        Random random = new Random(42);
+        for (int size : new int[] { 200000, 0, 17 })
+        {
+            byte[] data = new byte[size];
+            for (int i = 0; i < size; i++)
+            {
+                data[i] = (byte) (random.nextInt(16) + 'a');
+            }
+            assertArrayEquals(data, decode(filter, encode(filter, data)));
+        }
+    }
+
+    @Test
+    public void testCompressionLevel() throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        byte[] data = new byte[50000];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) (i % 100);
+        }
+        byte[] compressed = encode(filter, data);
+
+        System.setProperty(Filter.SYSPROP_DEFLATELEVEL, "0");
+        assertEquals(Deflater.NO_COMPRESSION, Filter.getCompressionLevel());
+        byte[] stored = encode(filter, data);
+        assertTrue(stored.length > data.length);
+        assertArrayEquals(data, decode(filter, stored));
+
+        System.setProperty(Filter.SYSPROP_DEFLATELEVEL, "12");
+        assertEquals(Deflater.DEFAULT_COMPRESSION, Filter.getCompressionLevel());
+        System.setProperty(Filter.SYSPROP_DEFLATELEVEL, "9");
+        System.setProperty(Filter.SYSPROP_DEFLATESTRATEGY, String.valueOf(Deflater.HUFFMAN_ONLY));
+        byte[] huffman = encode(filter, data);
+        assertTrue(huffman.length > compressed.length);
+        assertArrayEquals(data, decode(filter, huffman));
+    }
+
+    private byte[] encode(Filter filter, byte[] data) throws IOException
+    {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(data), encoded, new COSDictionary(), 0);
+        return encoded.toByteArray();
+    }
+
+    private byte[] decode(Filter filter, byte[] data) throws IOException
+    {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        filter.decode(new ByteArrayInputStream(data), decoded, new COSDictionary(), 0);
+        return decoded.toByteArray();
+    }
+}
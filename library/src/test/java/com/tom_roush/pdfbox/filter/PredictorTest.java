@@ -0,0 +1,64 @@
+package com.tom_roush.pdfbox.filter;
+
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Test class for {@link Predictor}.
+ */
+public class PredictorTest
+{
+    // PNG rows with the predictors Sub, Up, None and an incomplete row with Up
+    private static final byte[] PREDICTED = { 1, 1, 2, 3, 2, 1, 1, 1, 0, 9, 8, 7, 2, 1 };
+    private static final byte[] DECODED = { 1, 3, 6, 2, 4, 7, 9, 8, 7, 10, 8, 7 };
+
+    @Test
+    public void testPredictorOutputStream() throws IOException
+    {
+        ByteArrayOutputStream bytewise = new ByteArrayOutputStream();
+        Predictor.PredictorOutputStream out =
+            new Predictor.PredictorOutputStream(bytewise, 15, 1, 8, 3);
+        for (byte b : PREDICTED)
+        {
+            out.write(b);
+        }
+        out.finish();
+        assertArrayEquals(DECODED, bytewise.toByteArray());
+
+        ByteArrayOutputStream blockwise = new ByteArrayOutputStream();
+        out = new Predictor.PredictorOutputStream(blockwise, 15, 1, 8, 3);
+        out.write(PREDICTED, 0, 5);
+        out.write(PREDICTED, 5, PREDICTED.length - 5);
+        out.finish();
+        assertArrayEquals(DECODED, blockwise.toByteArray());
+    }
+
+    @Test
+    public void testFlateDecodeWithPredictor() throws IOException
+    {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(encoded);
+        deflater.write(PREDICTED);
+        deflater.close();
+
+        COSDictionary decodeParams = new COSDictionary();
+        decodeParams.setInt(COSName.PREDICTOR, 15);
+        decodeParams.setInt(COSName.COLUMNS, 3);
+        COSDictionary parameters = new COSDictionary();
+        parameters.setItem(COSName.DECODE_PARMS, decodeParams);
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE).decode(
+            new ByteArrayInputStream(encoded.toByteArray()), decoded, parameters, 0);
+        assertArrayEquals(DECODED, decoded.toByteArray());
+    }
+}
@@ -284,6 +284,39 @@ public class TestRandomAccessBuffer extends TestCase
         buffer.close();
     }
 
+    /**
+     * Test if views and positional reads are independent of the position of the buffer.
+     *
+     * @throws IOException is thrown if something went wrong.
+     */
+    public void testView() throws IOException
+    {
+        RandomAccessBuffer buffer = new RandomAccessBuffer();
+        for (int i = 0; i < 3 * CHUNK_SIZE; i++)
+        {
+            buffer.write(i % 100);
+        }
+        buffer.seek(5);
+        byte[] bytesRead = new byte[10];
+        // positional read crossing a chunk boundary
+        assertEquals(10, buffer.read(CHUNK_SIZE - 5, bytesRead, 0, 10));
+        assertEquals((CHUNK_SIZE - 5) % 100, bytesRead[0]);
+        assertEquals(5, buffer.getPosition());
+
+        RandomAccessRead view = buffer.createView(CHUNK_SIZE, 20);
+        assertEquals(20, view.length());
+        assertEquals(CHUNK_SIZE % 100, view.read());
+        view.seek(19);
+        assertEquals((CHUNK_SIZE + 19) % 100, view.read());
+        assertTrue(view.isEOF());
+        assertEquals(-1, view.read());
+        // the buffer position is unchanged
+        assertEquals(5, buffer.read());
+        view.close();
+        assertFalse(buffer.isClosed());
+        buffer.close();
+    }
+
 	public void testPDFBOX1490() throws Exception
 	{
 		// create a buffer filled with 1024 * "0"
@@ -0,0 +1,95 @@
+package com.tom_roush.pdfbox.io;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This is a unit test for {@link RandomAccessMemoryMappedFile}.
+ */
+public class TestRandomAccessMemoryMappedFile extends TestCase
+{
+    // use tiny chunks to test reads crossing the chunk boundaries
+    private static final int CHUNK_SHIFT = 4;
+
+    private File file;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        file = File.createTempFile("tmpPDFBox", ".bin");
+        FileOutputStream output = new FileOutputStream(file);
+        try
+        {
+            for (int i = 0; i < 100; i++)
+            {
+                output.write(i);
+            }
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception
+    {
+        file.delete();
+    }
+
+    public void testReadAcrossChunks() throws IOException
+    {
+        RandomAccessMemoryMappedFile source = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        assertEquals(100, source.length());
+        source.seek(10);
+        byte[] buffer = new byte[50];
+        assertEquals(50, source.read(buffer, 0, 50));
+        for (int i = 0; i < 50; i++)
+        {
+            assertEquals(10 + i, buffer[i]);
+        }
+        assertEquals(60, source.getPosition());
+        assertEquals(60, source.peek());
+        assertEquals(60, source.read());
+        source.rewind(30);
+        assertEquals(31, source.read());
+        source.close();
+        assertTrue(source.isClosed());
+    }
+
+    public void testPositionalReadAcrossChunks() throws IOException
+    {
+        RandomAccessMemoryMappedFile source = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        source.seek(5);
+        byte[] buffer = new byte[40];
+        assertEquals(40, source.read(20, buffer, 0, 40));
+        for (int i = 0; i < 40; i++)
+        {
+            assertEquals(20 + i, buffer[i]);
+        }
+        assertEquals(10, source.read(90, buffer, 0, 40));
+        assertEquals(-1, source.read(100, buffer, 0, 40));
+        // the sequential reads aren't affected
+        assertEquals(5, source.getPosition());
+        assertEquals(5, source.read());
+        source.close();
+    }
+
+    public void testEndOfFile() throws IOException
+    {
+        RandomAccessMemoryMappedFile source = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        source.seek(95);
+        byte[] buffer = new byte[10];
+        assertEquals(5, source.read(buffer, 0, 10));
+        assertTrue(source.isEOF());
+        assertEquals(-1, source.read());
+        assertEquals(-1, source.read(buffer, 0, 10));
+        source.seek(200);
+        assertEquals(200, source.getPosition());
+        assertEquals(-1, source.read());
+        source.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.tom_roush.pdfbox.io;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+
+/**
+ * This is a unit test for {@link SynchronizedRandomAccessRead}.
+ */
+public class TestSynchronizedRandomAccessRead extends TestCase
+{
+    public void testWrap()
+    {
+        RandomAccessBuffer buffer = new RandomAccessBuffer();
+        assertSame(buffer, SynchronizedRandomAccessRead.wrap(buffer));
+    }
+
+    public void testPositionalRead() throws IOException
+    {
+        byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        SynchronizedRandomAccessRead source =
+            new SynchronizedRandomAccessRead(new RandomAccessBuffer(data));
+        source.seek(10);
+        byte[] b = new byte[20];
+        assertEquals(20, source.read(50, b, 0, 20));
+        assertEquals(50, b[0]);
+        assertEquals(69, b[19]);
+        assertEquals(-1, source.read(100, b, 0, 20));
+        // the position isn't changed
+        assertEquals(10, source.getPosition());
+        assertEquals(10, source.read());
+
+        RandomAccessRead view = source.createView(90, 10);
+        assertEquals(10, view.length());
+        assertEquals(90, view.read());
+        view.seek(9);
+        assertEquals(99, view.read());
+        assertEquals(-1, view.read());
+        assertEquals(11, source.getPosition());
+        source.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.tom_roush.pdfbox.pdfparser;
+
+import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.io.RandomAccessBuffer;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link BruteForceScanner}.
+ */
+public class BruteForceScannerTest
+{
+    /**
+     * Markers have to be found wherever they are, including across the borders of the chunks
+     * which are scanned in parallel.
+     */
+    @Test
+    public void testScan() throws IOException
+    {
+        byte[] data = new byte[(3 << 20) + 100];
+        Arrays.fill(data, (byte) 'a');
+        put(data, 0, "%PDF-1.4\n");
+        put(data, 100, "1 0 obj\n<<>>\nendobj\n");
+        // object header and xref stream marker across the border of the first chunk
+        int border = (1 << 20) + 6;
+        put(data, border - 5, "12 0 obj\n<</Type /XRef>>\n");
+        put(data, border + 50, "\nxref\n0 1\n");
+        put(data, border + 100, "startxref\n");
+        // the object found last wins
+        put(data, (2 << 20) + 10, " 1 0 obj\n");
+        put(data, data.length - 20, "  12345 1 obj");
+
+        BruteForceScanner scanner = new BruteForceScanner(new RandomAccessBuffer(data), 6);
+        assertEquals(3, scanner.getObjectOffsets().size());
+        assertEquals(Long.valueOf((2 << 20) + 11), scanner.getObjectOffsets().get(new COSObjectKey(1, 0)));
+        assertEquals(Long.valueOf(border - 5), scanner.getObjectOffsets().get(new COSObjectKey(12, 0)));
+        assertEquals(Long.valueOf(data.length - 18),
+            scanner.getObjectOffsets().get(new COSObjectKey(12345, 1)));
+        assertNull(scanner.getObjectOffsets().get(new COSObjectKey(1, 1)));
+        assertEquals(Arrays.asList((long) border + 51), scanner.getXrefTableOffsets());
+        assertEquals(Arrays.asList((long) border - 5), scanner.getXrefStreamOffsets());
+    }
+
+    private void put(byte[] data, int offset, String s)
+    {
+        byte[] bytes = s.getBytes();
+        System.arraycopy(bytes, 0, data, offset, bytes.length);
+    }
+}
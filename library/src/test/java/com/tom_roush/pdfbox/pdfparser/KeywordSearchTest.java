@@ -0,0 +1,28 @@
+package com.tom_roush.pdfbox.pdfparser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link KeywordSearch}.
+ */
+public class KeywordSearchTest
+{
+    @Test
+    public void testIndexOf() throws Exception
+    {
+        KeywordSearch search = new KeywordSearch("endstream".getBytes("US-ASCII"),
+            "endobj".getBytes("US-ASCII"));
+        byte[] data = "xxendendstreamxendobj endstrea".getBytes("US-ASCII");
+        assertEquals(5, search.indexOf(data, 0, data.length, data.length));
+        assertEquals(0, search.keywordAt(data, 5, data.length));
+        assertEquals(15, search.indexOf(data, 6, data.length, data.length));
+        assertEquals(1, search.keywordAt(data, 15, data.length));
+        // the keyword has to fit before the limit
+        assertEquals(-1, search.indexOf(data, 16, data.length, data.length));
+        assertEquals(-1, search.indexOf(data, 0, data.length, 13));
+        // a keyword may only start before the end of the range
+        assertEquals(-1, search.indexOf(data, 0, 5, data.length));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tom_roush.pdfbox.pdfparser;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.cos.COSString;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PDFObjectStreamParser}.
+ */
+public class PDFObjectStreamParserTest
+{
+    @Test
+    public void testParseObject() throws IOException
+    {
+        COSStream stream = createObjectStream("4 0 5 9 7 15 ", "<</A 1>> [1 2] 42", 3);
+        PDFObjectStreamParser parser =
+            PDFObjectStreamParser.createIndexedParser(stream, new COSDocument());
+        assertEquals(COSInteger.get(42), parser.parseObject(7));
+        assertTrue(parser.parseObject(5) instanceof COSArray);
+        COSDictionary dict = (COSDictionary) parser.parseObject(4);
+        assertEquals(1, dict.getInt(COSName.A));
+        assertNull(parser.parseObject(8));
+    }
+
+    /**
+     * Objects have to be found by parsing the whole stream if the offset table is broken.
+     */
+    @Test
+    public void testParseObjectWithBrokenOffsets() throws IOException
+    {
+        COSStream stream = createObjectStream("5 0 4 0 ", "(five) 4", 2);
+        PDFObjectStreamParser parser =
+            PDFObjectStreamParser.createIndexedParser(stream, new COSDocument());
+        assertEquals(COSInteger.get(4), parser.parseObject(4));
+        assertEquals("five", ((COSString) parser.parseObject(5)).getString());
+    }
+
+    private COSStream createObjectStream(String header, String objects, int numberOfObjects)
+        throws IOException
+    {
+        COSStream stream = new COSStream();
+        stream.setInt(COSName.N, numberOfObjects);
+        stream.setInt(COSName.FIRST, header.length());
+        OutputStream output = stream.createOutputStream();
+        output.write((header + objects).getBytes("US-ASCII"));
+        output.close();
+        return stream;
+    }
+}
@@ -15,11 +15,17 @@
  */
 package com.tom_roush.pdfbox.pdfparser;
 
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
+import com.tom_roush.pdfbox.contentstream.operator.OperatorHandler;
+import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSName;
 
 import junit.framework.TestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -86,6 +92,55 @@ public class PDFStreamParserTest extends TestCase
         testInlineImage2ops("ID\n12EI5EI          Q   ", "12EI5", "Q");
     }
 
+    /**
+     * The operators and operands passed to an OperatorHandler have to match the tokens.
+     *
+     * @throws IOException
+     */
+    public void testParseWithHandler() throws IOException
+    {
+        String s = "q 1 0 0 -1.5 .5 20 cm /F1 12 Tf 3 +4 -.25 re 12345678901234567890.5 w Q";
+        final List<Object> tokens = new ArrayList<Object>();
+        final List<Float> floats = new ArrayList<Float>();
+        PDFStreamParser parser = new PDFStreamParser(s.getBytes());
+        parser.parse(new OperatorHandler()
+        {
+            @Override
+            public void processOperator(Operator operator, OperandList operands)
+            {
+                for (int i = 0; i < operands.size(); i++)
+                {
+                    if (operands.isNumber(i))
+                    {
+                        floats.add(operands.getFloat(i));
+                    }
+                }
+                tokens.addAll(operands);
+                tokens.add(operator);
+            }
+        });
+        List<Object> expected = parseTokenString(s);
+        assertEquals(expected.size(), tokens.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Object token = expected.get(i);
+            if (token instanceof Operator)
+            {
+                assertEquals(((Operator) token).getName(), ((Operator) tokens.get(i)).getName());
+            }
+            else
+            {
+                assertEquals(token, tokens.get(i));
+            }
+        }
+        assertEquals(COSInteger.get(4), tokens.get(12));
+        assertEquals(new COSFloat(-0.25f), tokens.get(13));
+        assertEquals(COSName.getPDFName("F1"), tokens.get(8));
+        assertEquals(11, floats.size());
+        assertEquals(-1.5f, floats.get(3), 0);
+        assertEquals(1.2345679E19f, floats.get(10), 0);
+    }
+
     // checks whether there are two operators, one inline image and the named operator
     private void testInlineImage2ops(String s, String imageDataString, String opName) throws IOException
     {
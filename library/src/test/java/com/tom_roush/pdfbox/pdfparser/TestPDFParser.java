@@ -21,9 +21,16 @@
 
 package com.tom_roush.pdfbox.pdfparser;
 
+import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.MemoryUsageSetting;
 import com.tom_roush.pdfbox.io.RandomAccessBufferedFileInputStream;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -31,10 +38,14 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class TestPDFParser
 {
@@ -123,6 +134,135 @@ public class TestPDFParser
             true);
     }
 
+    @Test
+    public void testPDFParserFileMemoryMapping() throws IOException, URISyntaxException
+    {
+        File file = new File(getClass().getResource(PATH_OF_PDF).toURI());
+        PDDocument doc = PDDocument.load(file,
+            MemoryUsageSetting.setupMainMemoryOnly().setUseMemoryMapping(true));
+        try
+        {
+            assertTrue(doc.getNumberOfPages() > 0);
+            assertNotNull(doc.getPage(0).getCOSObject().getDictionaryObject(COSName.TYPE));
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    @Test
+    public void testPDFParserLazyLoading() throws IOException
+    {
+        RandomAccessRead source =
+            new RandomAccessBufferedFileInputStream(getClass().getResourceAsStream(PATH_OF_PDF));
+        PDFParser pdfParser = new PDFParser(source);
+        pdfParser.setLazyLoading(true);
+        pdfParser.parse();
+        PDDocument doc = pdfParser.getPDDocument();
+        try
+        {
+            COSDictionary root = (COSDictionary) doc.getDocument().getTrailer()
+                .getDictionaryObject(COSName.ROOT);
+            COSObject pages = (COSObject) root.getItem(COSName.PAGES);
+            // the page tree isn't parsed until it is dereferenced
+            assertTrue(pages.isObjectNull());
+            assertTrue(doc.getNumberOfPages() > 0);
+            assertFalse(pages.isObjectNull());
+            assertNotNull(doc.getPage(0).getCOSObject().getDictionaryObject(COSName.TYPE));
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    @Test
+    public void testPDFParserMaxParsedObjects() throws IOException
+    {
+        PDDocument doc = PDDocument.load(getClass().getResourceAsStream(PATH_OF_PDF), "", null,
+            null, MemoryUsageSetting.setupMainMemoryOnly(), true, 1);
+        try
+        {
+            COSDictionary root = (COSDictionary) doc.getDocument().getTrailer()
+                .getDictionaryObject(COSName.ROOT);
+            COSObject pages = (COSObject) root.getItem(COSName.PAGES);
+            COSDictionary pagesDictionary = (COSDictionary) pages.getObject();
+            PDPage page = doc.getPage(0);
+            // parsing other objects drops the page tree
+            for (COSObject object : doc.getDocument().getObjects())
+            {
+                object.getObject();
+            }
+            assertTrue(pages.isObjectNull());
+            // objects which are still referenced keep their identity
+            assertSame(pagesDictionary, pages.getObject());
+            assertEquals(0, doc.getPages().indexOf(page));
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    /**
+     * A stream with a wrong length has to be read up to its "endstream" keyword.
+     */
+    @Test
+    public void testStreamWithWrongLength() throws IOException
+    {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+        {
+            content.append("0 0 m ").append(i).append(" 0 l S end\n");
+        }
+        String pdf = "%PDF-1.4\n"
+            + "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n"
+            + "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n"
+            + "3 0 obj\n<< /Type /Page /Parent 2 0 R /Contents 4 0 R >>\nendobj\n"
+            + "4 0 obj\n<< /Length 10 >>\nstream\n" + content + "endstream\nendobj\n"
+            + "trailer\n<< /Root 1 0 R /Size 5 >>\n%%EOF\n";
+        PDDocument doc = PDDocument.load(pdf.getBytes("US-ASCII"));
+        try
+        {
+            InputStream contents = doc.getPage(0).getContents();
+            assertEquals(content.toString(), new String(IOUtils.toByteArray(contents), "US-ASCII"));
+            contents.close();
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    /**
+     * A comment between the stream data and the "endstream" keyword doesn't make a correct length
+     * look wrong.
+     */
+    @Test
+    public void testStreamWithCommentBeforeEndStream() throws IOException
+    {
+        String content = "0 0 m 100 100 l S";
+        String pdf = "%PDF-1.4\n"
+            + "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n"
+            + "2 0 obj\n<< /Type /Pages /Kids [3 0 R] /Count 1 >>\nendobj\n"
+            + "3 0 obj\n<< /Type /Page /Parent 2 0 R /Contents 4 0 R >>\nendobj\n"
+            + "4 0 obj\n<< /Length " + content.length() + " >>\nstream\n" + content
+            + "\n% a comment\nendstream\nendobj\n"
+            + "trailer\n<< /Root 1 0 R /Size 5 >>\n%%EOF\n";
+        PDDocument doc = PDDocument.load(pdf.getBytes("US-ASCII"));
+        try
+        {
+            InputStream contents = doc.getPage(0).getContents();
+            assertEquals(content, new String(IOUtils.toByteArray(contents), "US-ASCII"));
+            contents.close();
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
     private void executeParserTest(RandomAccessRead source, boolean useScratchFile)
         throws IOException
     {
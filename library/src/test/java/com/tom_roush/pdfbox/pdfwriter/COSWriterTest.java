@@ -0,0 +1,193 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link COSWriter}.
+ */
+public class COSWriterTest
+{
+    /**
+     * Streams without a filter have to be compressed when writing with several threads, both
+     * small ones and large ones which are compressed in blocks.
+     */
+    @Test
+    public void testCompressionThreads() throws IOException
+    {
+        int[] sizes = { 1500000, 100, 20000, 10 };
+        byte[][] contents = new byte[sizes.length][];
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < sizes.length; i++)
+        {
+            contents[i] = createContent(sizes[i]);
+            COSStream stream = new COSStream();
+            OutputStream output = stream.createOutputStream();
+            output.write(contents[i]);
+            output.close();
+            PDPage page = new PDPage();
+            page.getCOSObject().setItem(COSName.CONTENTS, stream);
+            document.addPage(page);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        COSWriter writer = new COSWriter(baos);
+        writer.setCompressionThreads(4);
+        writer.write(document);
+        writer.close();
+        document.close();
+
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        for (int i = 0; i < sizes.length; i++)
+        {
+            COSStream stream = (COSStream) doc.getPage(i).getCOSObject()
+                .getDictionaryObject(COSName.CONTENTS);
+            // the shortest stream isn't worth compressing
+            assertEquals(i == 3 ? null : COSName.FLATE_DECODE, stream.getFilters());
+            InputStream input = stream.createInputStream();
+            assertArrayEquals(contents[i], IOUtils.toByteArray(input));
+            input.close();
+        }
+        doc.close();
+    }
+
+    /**
+     * Objects have to be written to object streams and found again using the xref stream.
+     */
+    @Test
+    public void testObjectStreams() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < 150; i++)
+        {
+            document.addPage(new PDPage());
+        }
+        document.getDocumentInformation().setTitle("Object streams");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        COSWriter writer = new COSWriter(baos);
+        writer.setObjectStreams(true);
+        writer.write(document);
+        writer.close();
+        document.close();
+
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        assertTrue(pdf.startsWith("%PDF-1.5"));
+        assertTrue(pdf.contains("/ObjStm"));
+        assertTrue(pdf.contains("/XRef"));
+        assertFalse(pdf.contains("trailer"));
+
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(150, doc.getNumberOfPages());
+        assertEquals("Object streams", doc.getDocumentInformation().getTitle());
+        assertEquals(612, doc.getPage(149).getMediaBox().getWidth(), 0);
+        doc.close();
+    }
+
+    /**
+     * The xref table entries have to have a fixed width and point to the objects.
+     */
+    @Test
+    public void testXRefTable() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        document.addPage(new PDPage());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        document.save(baos);
+        document.close();
+
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        int xref = pdf.lastIndexOf("\nxref\n");
+        String[] lines = pdf.substring(xref + 6, pdf.indexOf("trailer", xref)).split("\n");
+        assertEquals("0 " + (lines.length - 1), lines[0]);
+        assertEquals("0000000000 65535 f\r", lines[1]);
+        for (int i = 2; i < lines.length; i++)
+        {
+            assertTrue(lines[i].matches("\\d{10} 00000 n\r"));
+            int offset = Integer.parseInt(lines[i].substring(0, 10));
+            assertTrue(pdf.startsWith((i - 1) + " 0 obj", offset));
+        }
+        int startxref = pdf.lastIndexOf("startxref\n") + 10;
+        assertEquals(xref + 1, Integer.parseInt(pdf.substring(startxref, pdf.indexOf('\n', startxref))));
+    }
+
+    /**
+     * Streams with the same dictionary and data have to be written once, streams referencing
+     * different objects have to be kept.
+     */
+    @Test
+    public void testDeduplicateStreams() throws IOException
+    {
+        byte[] content = createContent(1000);
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < 4; i++)
+        {
+            COSStream mask = createStream(content);
+            COSStream stream = createStream(content);
+            // the last stream references a mask with different data
+            stream.setItem(COSName.SMASK, i < 3 ? mask : createStream(createContent(10)));
+            PDPage page = new PDPage();
+            page.getCOSObject().setItem(COSName.CONTENTS, stream);
+            document.addPage(page);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        COSWriter writer = new COSWriter(baos);
+        writer.setDeduplicateStreams(true);
+        writer.write(document);
+        writer.close();
+        document.close();
+
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        // one mask and stream for the first three pages, the mask is the same as the
+        // first mask, two streams for the last page
+        assertEquals(4, pdf.split("endstream").length - 1);
+
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(4, doc.getNumberOfPages());
+        COSBase first = doc.getPage(0).getCOSObject().getDictionaryObject(COSName.CONTENTS);
+        assertSame(first, doc.getPage(2).getCOSObject().getDictionaryObject(COSName.CONTENTS));
+        COSStream last = (COSStream) doc.getPage(3).getCOSObject()
+            .getDictionaryObject(COSName.CONTENTS);
+        assertNotSame(first, last);
+        InputStream input = last.createInputStream();
+        assertArrayEquals(content, IOUtils.toByteArray(input));
+        input.close();
+        doc.close();
+    }
+
+    private COSStream createStream(byte[] content) throws IOException
+    {
+        COSStream stream = new COSStream();
+        OutputStream output = stream.createOutputStream();
+        output.write(content);
+        output.close();
+        return stream;
+    }
+
+    private byte[] createContent(int size) throws IOException
+    {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(size);
+        for (int i = 0; content.size() < size; i++)
+        {
+            content.write(("1 0 0 1 " + (i % 613) + " " + (i % 997) + " cm\n").getBytes("US-ASCII"));
+        }
+        return content.toByteArray();
+    }
+}
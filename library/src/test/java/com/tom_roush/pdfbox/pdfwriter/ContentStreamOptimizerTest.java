@@ -0,0 +1,101 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdfparser.PDFStreamParser;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.PDPageContentStream;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link ContentStreamOptimizer}.
+ */
+public class ContentStreamOptimizerTest
+{
+    @Test
+    public void testRedundantSettings() throws IOException
+    {
+        assertEquals("1 0 0 rg 0 0 m f",
+            optimize("1 0 0 rg 1 0 0 rg 0 0 m 1 0 0 1 0 0 cm f"));
+        // the color is restored by Q
+        assertEquals("1 0 0 rg q 0 1 0 rg Q f",
+            optimize("1 0 0 rg q 1 0 0 rg 0 1 0 rg Q 1 0 0 rg f"));
+        assertEquals("BT /F1 12 Tf (a) Tj /F1 14 Tf (b) Tj ET",
+            optimize("BT /F1 12 Tf (a) Tj /F1 12 Tf /F1 14 Tf (b) Tj ET"));
+        // the extended graphics state may change the line width
+        assertEquals("/GS1 gs 2 w /GS1 gs 2 w S",
+            optimize("/GS1 gs /GS1 gs 2 w /GS1 gs 2 w S"));
+        // the stroking and the non-stroking color are separate
+        assertEquals("0 g 0 G 0 0 0 rg S", optimize("0 g 0 G 0 g 0 0 0 rg S"));
+        assertEquals("[3] 0 d [3] 1 d", optimize("[3] 0 d [3] 0 d [3] 1 d"));
+        // TD sets the leading
+        assertEquals("BT /F1 12 Tf 14 TL 0 -20 TD (a) Tj 14 TL T* (b) Tj ET",
+            optimize("BT /F1 12 Tf 14 TL 0 -20 TD (a) Tj 14 TL T* (b) Tj ET"));
+    }
+
+    @Test
+    public void testRedundantSaves() throws IOException
+    {
+        assertEquals("0 0 m f", optimize("q Q q 0 0 m f Q"));
+        assertEquals("q 2 0 0 2 0 0 cm /Im1 Do Q",
+            optimize("q q 2 0 0 2 0 0 cm /Im1 Do Q Q"));
+        assertEquals("q 1 0 0 rg f Q q 0 1 0 rg f Q",
+            optimize("q q 1 0 0 rg f Q q 0 1 0 rg f Q Q"));
+        // the settings within are redundant, so the pair is too
+        assertEquals("1 0 0 rg f", optimize("1 0 0 rg q 1 0 0 rg f Q"));
+        // the text may be added to the clipping path
+        assertEquals("/F1 12 Tf 7 Tr q BT (clip) Tj ET Q 0 0 100 100 re f",
+            optimize("/F1 12 Tf 7 Tr q BT (clip) Tj ET Q 0 0 100 100 re f"));
+        assertEquals("0 Tr q BT 0 -20 TD ET Q", optimize("0 Tr q BT 0 -20 TD ET Q"));
+        assertEquals("0 Tr BT (a) Tj ET", optimize("0 Tr q BT (a) Tj ET Q"));
+        // unbalanced operators are kept
+        assertEquals("Q q 1 w", optimize("Q q 1 w"));
+    }
+
+    @Test
+    public void testOptimizePage() throws IOException
+    {
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage();
+        document.addPage(page);
+        for (int i = 0; i < 3; i++)
+        {
+            PDPageContentStream contents = new PDPageContentStream(document, page, true, false);
+            contents.setNonStrokingColor(255, 0, 0);
+            contents.addRect(i, i, 10, 10);
+            contents.fill();
+            contents.close();
+        }
+        assertTrue(ContentStreamOptimizer.optimize(document, page));
+        assertEquals("1 0 0 rg 0 0 10 10 re f 1 1 10 10 re f 2 2 10 10 re f",
+            normalize(IOUtils.toByteArray(page.getContents())));
+        assertFalse(ContentStreamOptimizer.optimize(document, page));
+        document.close();
+    }
+
+    private String optimize(String content) throws IOException
+    {
+        PDFStreamParser parser = new PDFStreamParser(content.getBytes("US-ASCII"));
+        parser.parse();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ContentStreamWriter(output).writeTokens(
+            ContentStreamOptimizer.optimize(parser.getTokens()));
+        return normalize(output.toByteArray());
+    }
+
+    private String normalize(byte[] content) throws IOException
+    {
+        // ContentStreamWriter puts the spaces around the end of arrays differently
+        return new String(content, "US-ASCII").replaceAll("\\s*]\\s*", "] ")
+            .replaceAll("\\s+", " ").trim();
+    }
+}
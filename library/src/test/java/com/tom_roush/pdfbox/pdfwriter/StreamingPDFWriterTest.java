@@ -0,0 +1,138 @@
+package com.tom_roush.pdfbox.pdfwriter;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link StreamingPDFWriter}.
+ */
+public class StreamingPDFWriterTest
+{
+    @Test
+    public void testAddPages() throws IOException
+    {
+        int pageCount = 600;
+        COSStream form = createStream("0 0 m 10 10 l S");
+        form.setItem(COSName.TYPE, COSName.XOBJECT);
+        form.setItem(COSName.SUBTYPE, COSName.FORM);
+        COSArray bbox = new COSArray();
+        for (int i : new int[] { 0, 0, 10, 10 })
+        {
+            bbox.add(COSInteger.get(i));
+        }
+        form.setItem(COSName.BBOX, bbox);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StreamingPDFWriter writer = new StreamingPDFWriter(baos);
+        writer.getDocumentInformation().setTitle("Streaming");
+        for (int i = 0; i < pageCount; i++)
+        {
+            PDPage page = new PDPage();
+            COSDictionary xObjects = new COSDictionary();
+            xObjects.setItem(COSName.getPDFName("X1"), form);
+            COSDictionary resources = new COSDictionary();
+            resources.setItem(COSName.XOBJECT, xObjects);
+            page.getCOSObject().setItem(COSName.RESOURCES, resources);
+            page.getCOSObject().setItem(COSName.CONTENTS, createStream("% page " + i + "\n/X1 Do"));
+            writer.addPage(page);
+        }
+        assertEquals(pageCount, writer.getNumberOfPages());
+        writer.close();
+
+        // the shared form is written only once
+        String pdf = new String(baos.toByteArray(), "ISO-8859-1");
+        assertEquals(pdf.indexOf("/Form"), pdf.lastIndexOf("/Form"));
+
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(pageCount, doc.getNumberOfPages());
+        assertEquals("Streaming", doc.getDocumentInformation().getTitle());
+        for (int i : new int[] { 0, 255, 256, 599 })
+        {
+            PDPage page = doc.getPage(i);
+            COSStream contents = (COSStream) page.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+            InputStream input = contents.createInputStream();
+            assertEquals("% page " + i + "\n/X1 Do", new String(IOUtils.toByteArray(input), "US-ASCII"));
+            input.close();
+            assertTrue(page.getResources().getXObject(COSName.getPDFName("X1")) != null);
+        }
+        doc.close();
+    }
+
+    @Test
+    public void testAddPageWithInheritedAttributes() throws IOException
+    {
+        COSStream form = createStream("0 0 m 10 10 l S");
+        form.setItem(COSName.TYPE, COSName.XOBJECT);
+        form.setItem(COSName.SUBTYPE, COSName.FORM);
+        form.setItem(COSName.BBOX, createArray(0, 0, 10, 10));
+        COSDictionary xObjects = new COSDictionary();
+        xObjects.setItem(COSName.getPDFName("X1"), form);
+        COSDictionary resources = new COSDictionary();
+        resources.setItem(COSName.XOBJECT, xObjects);
+
+        // the page inherits from both nodes of its page tree
+        COSDictionary root = new COSDictionary();
+        root.setItem(COSName.TYPE, COSName.PAGES);
+        root.setItem(COSName.MEDIA_BOX, createArray(0, 0, 300, 400));
+        root.setInt(COSName.ROTATE, 90);
+        COSDictionary node = new COSDictionary();
+        node.setItem(COSName.TYPE, COSName.PAGES);
+        node.setItem(COSName.PARENT, root);
+        node.setItem(COSName.RESOURCES, resources);
+        COSDictionary pageDictionary = new COSDictionary();
+        pageDictionary.setItem(COSName.TYPE, COSName.PAGE);
+        pageDictionary.setItem(COSName.PARENT, node);
+        pageDictionary.setItem(COSName.CONTENTS, createStream("/X1 Do"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StreamingPDFWriter writer = new StreamingPDFWriter(baos);
+        writer.addPage(new PDPage(pageDictionary));
+        writer.close();
+        assertSame(node, pageDictionary.getDictionaryObject(COSName.PARENT));
+
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(baos.toByteArray()));
+        PDPage page = doc.getPage(0);
+        assertEquals(300, page.getMediaBox().getWidth(), 0);
+        assertEquals(400, page.getMediaBox().getHeight(), 0);
+        assertEquals(90, page.getRotation());
+        assertTrue(page.getResources().getXObject(COSName.getPDFName("X1")) != null);
+        doc.close();
+    }
+
+    private static COSArray createArray(int... values)
+    {
+        COSArray array = new COSArray();
+        for (int value : values)
+        {
+            array.add(COSInteger.get(value));
+        }
+        return array;
+    }
+
+    private COSStream createStream(String content) throws IOException
+    {
+        COSStream stream = new COSStream();
+        OutputStream output = stream.createOutputStream();
+        output.write(content.getBytes("US-ASCII"));
+        output.close();
+        return stream;
+    }
+}
@@ -18,11 +18,13 @@ package com.tom_roush.pdfbox.pdmodel;
 
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.pdfparser.PDFStreamParser;
 
 import junit.framework.TestCase;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author Yegor Kozlov
@@ -82,4 +84,25 @@ public class TestPDPageContentStream extends TestCase
         assertEquals(0.8f, ((COSFloat)pageTokens.get(3)).floatValue());
         assertEquals("K", ((Operator)pageTokens.get(4)).getName());
     }
+
+    /**
+     * Real numbers have to be rounded to the maximum number of fraction digits.
+     */
+    public void testMaximumFractionDigits() throws IOException
+    {
+        PDDocument doc = new PDDocument();
+        PDPage page = new PDPage();
+        doc.addPage(page);
+
+        PDPageContentStream contentStream = new PDPageContentStream(doc, page, false, false);
+        contentStream.setMaximumFractionDigits(2);
+        contentStream.addRect(0.125f, -1.5f, 100, 1e-7f);
+        contentStream.close();
+
+        InputStream contents = page.getContents();
+        assertEquals("0.12 -1.5 100 0 re\n",
+            new String(IOUtils.toByteArray(contents), "US-ASCII"));
+        contents.close();
+        doc.close();
+    }
 }
@@ -0,0 +1,104 @@
+package com.tom_roush.pdfbox.rendering;
+
+import com.tom_roush.fontbox.ttf.TTFParser;
+import com.tom_roush.fontbox.ttf.TrueTypeFont;
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType2;
+import com.tom_roush.pdfbox.pdmodel.font.PDType0Font;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link TTFGlyph2D}.
+ */
+public class TTFGlyph2DTest
+{
+    /**
+     * The size of a TrueType glyph is estimated from its data in the glyf table.
+     */
+    @Test
+    public void testEstimatePointCount() throws IOException
+    {
+        InputStream input = getClass().getResourceAsStream(
+            "/fontbox/ttf/LiberationSans-Regular.ttf");
+        TrueTypeFont ttf = new TTFParser().parse(input);
+        int gid = ttf.getUnicodeCmap().getGlyphId('O');
+        int pointCount = TTFGlyph2D.estimatePointCount(ttf, gid);
+        assertTrue(pointCount >= ttf.getGlyph().getGlyph(gid).getDescription().getPointCount());
+        // no outline
+        assertEquals(0, TTFGlyph2D.estimatePointCount(ttf, ttf.getUnicodeCmap().getGlyphId(' ')));
+        ttf.close();
+    }
+
+    /**
+     * A CIDFontType2 with an embedded OpenType font with CFF outlines has no glyf table. The
+     * OpenType parser doesn't support such fonts, so a substitute is used, whose glyphs have to
+     * be estimated as well.
+     */
+    @Test
+    public void testEstimatePointCountOfCFFFont() throws IOException
+    {
+        COSStream fontFile = new COSStream();
+        fontFile.setItem(COSName.SUBTYPE, COSName.getPDFName("OpenType"));
+        OutputStream output = fontFile.createOutputStream();
+        InputStream input = PDType0Font.class.getResourceAsStream(
+            "/com/tom_roush/pdfbox/resources/otf/AdobeBlank.otf");
+        IOUtils.copy(input, output);
+        input.close();
+        output.close();
+
+        COSDictionary descriptor = new COSDictionary();
+        descriptor.setItem(COSName.TYPE, COSName.FONT_DESC);
+        descriptor.setName(COSName.FONT_NAME, "AdobeBlank");
+        descriptor.setInt(COSName.FLAGS, 4);
+        descriptor.setItem(COSName.FONT_FILE3, fontFile);
+        COSDictionary systemInfo = new COSDictionary();
+        systemInfo.setString(COSName.REGISTRY, "Adobe");
+        systemInfo.setString(COSName.ORDERING, "Identity");
+        systemInfo.setInt(COSName.SUPPLEMENT, 0);
+        COSDictionary cidFont = new COSDictionary();
+        cidFont.setItem(COSName.TYPE, COSName.FONT);
+        cidFont.setItem(COSName.SUBTYPE, COSName.CID_FONT_TYPE2);
+        cidFont.setName(COSName.BASE_FONT, "AdobeBlank");
+        cidFont.setItem(COSName.CIDSYSTEMINFO, systemInfo);
+        cidFont.setItem(COSName.FONT_DESC, descriptor);
+        cidFont.setItem(COSName.CID_TO_GID_MAP, COSName.IDENTITY);
+        COSArray descendants = new COSArray();
+        descendants.add(cidFont);
+        COSDictionary type0Font = new COSDictionary();
+        type0Font.setItem(COSName.TYPE, COSName.FONT);
+        type0Font.setItem(COSName.SUBTYPE, COSName.TYPE0);
+        type0Font.setName(COSName.BASE_FONT, "AdobeBlank");
+        type0Font.setItem(COSName.ENCODING, COSName.IDENTITY_H);
+        type0Font.setItem(COSName.DESCENDANT_FONTS, descendants);
+
+        PDType0Font font = new PDType0Font(type0Font);
+        PDCIDFontType2 descendant = (PDCIDFontType2) font.getDescendantFont();
+        assertTrue(descendant.isDamaged());
+        TrueTypeFont ttf = descendant.getTrueTypeFont();
+        for (int code = 0; code < 256; code++)
+        {
+            int gid = descendant.codeToGID(code);
+            int pointCount = TTFGlyph2D.estimatePointCount(ttf, gid);
+            if (ttf.getGlyph() == null)
+            {
+                assertEquals(GlyphCache.AVERAGE_POINT_COUNT, pointCount);
+            }
+            else
+            {
+                assertTrue(pointCount >= 0);
+            }
+        }
+    }
+}
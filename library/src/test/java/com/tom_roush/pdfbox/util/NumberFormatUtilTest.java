@@ -0,0 +1,110 @@
+package com.tom_roush.pdfbox.util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for {@link NumberFormatUtil}.
+ */
+public class NumberFormatUtilTest
+{
+    private final byte[] buffer = new byte[NumberFormatUtil.MAX_LENGTH];
+
+    @Test
+    public void testFormatLong()
+    {
+        long[] values = { 0, 7, -7, 1234567890, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : values)
+        {
+            assertEquals(Long.toString(value), format(NumberFormatUtil.formatLong(value, buffer)));
+        }
+    }
+
+    @Test
+    public void testFormatFloatFast()
+    {
+        assertEquals("0", format(NumberFormatUtil.formatFloatFast(0f, 4, buffer)));
+        assertEquals("12", format(NumberFormatUtil.formatFloatFast(12f, 4, buffer)));
+        assertEquals("-1.5", format(NumberFormatUtil.formatFloatFast(-1.5f, 4, buffer)));
+        assertEquals("0.1235", format(NumberFormatUtil.formatFloatFast(0.12345678f, 4, buffer)));
+        assertEquals("0.05", format(NumberFormatUtil.formatFloatFast(0.05f, 4, buffer)));
+        assertEquals("0.12", format(NumberFormatUtil.formatFloatFast(0.125f, 2, buffer)));
+        assertEquals("0.38", format(NumberFormatUtil.formatFloatFast(0.375f, 2, buffer)));
+        assertEquals("0", format(NumberFormatUtil.formatFloatFast(-0.00001f, 4, buffer)));
+        assertEquals("1", format(NumberFormatUtil.formatFloatFast(0.99999f, 4, buffer)));
+        assertEquals(-1, NumberFormatUtil.formatFloatFast(Float.NaN, 4, buffer));
+        assertEquals(-1, NumberFormatUtil.formatFloatFast(Float.POSITIVE_INFINITY, 4, buffer));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++)
+        {
+            float value = (random.nextFloat() - 0.5f) * 20000;
+            String expected = new BigDecimal(value).setScale(5, BigDecimal.ROUND_HALF_EVEN)
+                .stripTrailingZeros().toPlainString();
+            if (expected.equals("-0") || new BigDecimal(expected).signum() == 0)
+            {
+                expected = "0";
+            }
+            assertEquals(expected, format(NumberFormatUtil.formatFloatFast(value, 5, buffer)));
+        }
+    }
+
+    /**
+     * The shortest representation has to be parsed to the same value.
+     */
+    @Test
+    public void testFormatShortest()
+    {
+        assertEquals("0.0", format(NumberFormatUtil.formatFloatShortest(-0f, buffer)));
+        assertEquals("1.0", format(NumberFormatUtil.formatFloatShortest(1f, buffer)));
+        assertEquals("-0.1", format(NumberFormatUtil.formatFloatShortest(-0.1f, buffer)));
+        assertEquals("612.5", format(NumberFormatUtil.formatDoubleShortest(612.5, buffer)));
+        assertEquals(-1, NumberFormatUtil.formatFloatShortest(1e-5f, buffer));
+        assertEquals(-1, NumberFormatUtil.formatDoubleShortest(1e10, buffer));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++)
+        {
+            float value = random.nextFloat() * (float) Math.pow(10, random.nextInt(9) - 2);
+            int length = NumberFormatUtil.formatFloatShortest(value, buffer);
+            if (length >= 0)
+            {
+                String string = format(length);
+                assertEquals(value, Float.parseFloat(string), 0);
+                assertEquals(Float.toString(value).length(), string.length());
+            }
+            double doubleValue = random.nextInt(100000) / 1000.0;
+            length = NumberFormatUtil.formatDoubleShortest(doubleValue, buffer);
+            assertEquals(Double.toString(doubleValue), format(length));
+        }
+    }
+
+    /**
+     * The double of a float has to be the one of its shortest representation.
+     */
+    @Test
+    public void testToShortestDouble()
+    {
+        assertEquals(0.1, NumberFormatUtil.toShortestDouble(0.1f), 0);
+        assertEquals(-612.3, NumberFormatUtil.toShortestDouble(-612.3f), 0);
+        assertEquals(1e-5, NumberFormatUtil.toShortestDouble(1e-5f), 0);
+        assertEquals(1e10, NumberFormatUtil.toShortestDouble(1e10f), 0);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++)
+        {
+            float value = random.nextFloat() * (float) Math.pow(10, random.nextInt(12) - 4);
+            assertEquals(Double.parseDouble(Float.toString(value)),
+                NumberFormatUtil.toShortestDouble(value), 0);
+        }
+    }
+
+    private String format(int length)
+    {
+        return new String(buffer, 0, length, Charsets.US_ASCII);
+    }
+}
@@ -0,0 +1,67 @@
+package com.tom_roush.pdfbox.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link SmallMap}.
+ */
+public class TestSmallMap
+{
+    /**
+     * The map has to behave like a LinkedHashMap, before and after it's promoted.
+     */
+    @Test
+    public void testLikeLinkedHashMap()
+    {
+        Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+        Map<String, Integer> actual = new SmallMap<String, Integer>();
+        for (int i = 0; i < SmallMap.MAX_ARRAY_SIZE * 2; i++)
+        {
+            expected.put("key" + i, i);
+            actual.put("key" + i, i);
+            assertEquals(expected, actual);
+            assertEquals(new ArrayList<String>(expected.keySet()),
+                new ArrayList<String>(actual.keySet()));
+        }
+        assertEquals(Integer.valueOf(5), actual.put("key5", 55));
+        assertEquals(Integer.valueOf(55), actual.get(new String("key5")));
+        assertNull(actual.get("foo"));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        SmallMap<String, Integer> map = new SmallMap<String, Integer>();
+        for (int i = 0; i < 5; i++)
+        {
+            map.put("key" + i, i);
+        }
+        assertEquals(Integer.valueOf(1), map.remove("key1"));
+        assertNull(map.remove("key1"));
+        assertFalse(map.containsKey("key1"));
+
+        Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().getValue() == 3)
+            {
+                iterator.remove();
+            }
+        }
+        List<String> keys = new ArrayList<String>(map.keySet());
+        assertEquals(3, keys.size());
+        assertEquals("key0", keys.get(0));
+        assertEquals("key2", keys.get(1));
+        assertEquals("key4", keys.get(2));
+    }
+}